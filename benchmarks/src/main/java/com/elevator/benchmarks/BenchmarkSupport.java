@@ -0,0 +1,58 @@
+package com.elevator.benchmarks;
+
+import com.elevator.Elevator;
+import com.elevator.Request;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+final class BenchmarkSupport {
+    static final int MIN_FLOOR = 0;
+    static final int MAX_FLOOR = 50;
+    // Requests are cycled through a fixed pool so the benchmarks measure dispatch, not request allocation
+    static final int REQUEST_POOL_SIZE = 1024;
+
+    // Held strongly so the level is not lost when the logger is garbage collected
+    private static final Logger ELEVATOR_LOGGER = Logger.getLogger("com.elevator");
+
+    private BenchmarkSupport() {
+    }
+
+    // Console output would dominate every measurement
+    static void silenceLogging() {
+        ELEVATOR_LOGGER.setLevel(Level.OFF);
+    }
+
+    static Request[] requestPool(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Request[] requests = new Request[REQUEST_POOL_SIZE];
+        for (int i = 0; i < requests.length; i++) {
+            int source = random.nextInt(MIN_FLOOR, MAX_FLOOR + 1);
+            int destination = random.nextInt(MIN_FLOOR, MAX_FLOOR);
+            requests[i] = new Request(source, destination >= source ? destination + 1 : destination);
+        }
+        return requests;
+    }
+
+    // Spreads a fleet over the building, leaving each car moving or idle at a random floor
+    static List<Elevator> scatteredFleet(int size, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Elevator> fleet = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Elevator elevator = new Elevator(MIN_FLOOR, MAX_FLOOR);
+            int floor = random.nextInt(MIN_FLOOR, MAX_FLOOR + 1);
+            elevator.addDestination(floor);
+            while (elevator.getCurrentFloor() != floor) {
+                elevator.move();
+            }
+            elevator.move();
+            if (random.nextBoolean()) {
+                elevator.addDestination(random.nextInt(MIN_FLOOR, MAX_FLOOR + 1));
+            }
+            fleet.add(elevator);
+        }
+        return fleet;
+    }
+}
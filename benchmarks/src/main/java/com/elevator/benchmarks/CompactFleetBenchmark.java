@@ -0,0 +1,55 @@
+package com.elevator.benchmarks;
+
+import com.elevator.CompactFleet;
+import com.elevator.Request;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CompactFleetBenchmark {
+    @Param({"100", "1000", "10000", "100000"})
+    private int fleetSize;
+
+    private CompactFleet fleet;
+    private Request[] requests;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.silenceLogging();
+        // Scattered like StrategyBenchmark's fleet, so the two selectElevator costs compare directly
+        SplittableRandom random = new SplittableRandom(42);
+        fleet = new CompactFleet(fleetSize, BenchmarkSupport.MIN_FLOOR, BenchmarkSupport.MAX_FLOOR);
+        for (int car = 0; car < fleetSize; car++) {
+            fleet.addStop(car, random.nextInt(BenchmarkSupport.MIN_FLOOR, BenchmarkSupport.MAX_FLOOR + 1));
+        }
+        fleet.advanceBy(10 * 60 * 1000);
+        for (int car = 0; car < fleetSize; car++) {
+            if (random.nextBoolean()) {
+                fleet.addStop(car, random.nextInt(BenchmarkSupport.MIN_FLOOR, BenchmarkSupport.MAX_FLOOR + 1));
+            }
+        }
+        requests = BenchmarkSupport.requestPool(7);
+    }
+
+    @Benchmark
+    public int selectCar() {
+        return fleet.selectCar(requests[next++ & (BenchmarkSupport.REQUEST_POOL_SIZE - 1)]);
+    }
+}
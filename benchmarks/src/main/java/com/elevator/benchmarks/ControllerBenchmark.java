@@ -0,0 +1,101 @@
+package com.elevator.benchmarks;
+
+import com.elevator.ElevatorController;
+import com.elevator.Request;
+import com.elevator.VirtualClock;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures ElevatorController.requestElevator under 1, 4 and as many submitting threads
+ * as there are cores. The controller runs on a virtual clock that is never advanced, so
+ * only the dispatch path is measured. Cars that never move pile up passengers, so each submitter
+ * replaces the shared controller after every REQUESTS_PER_CONTROLLER of its requests; every
+ * measurement then sees a fleet holding at most a few thousand passengers per submitter.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ControllerBenchmark {
+    @Param({"4", "32"})
+    private int fleetSize;
+
+    // A power of two, so the submitter's request counter doubles as the replacement countdown
+    static final int REQUESTS_PER_CONTROLLER = 4096;
+
+    private volatile ElevatorController controller;
+
+    @State(Scope.Thread)
+    public static class Submitter {
+        private final Request[] requests = BenchmarkSupport.requestPool(Thread.currentThread().getId());
+        private int next;
+
+        Request nextRequest() {
+            return requests[next++ & (BenchmarkSupport.REQUEST_POOL_SIZE - 1)];
+        }
+
+        // Whether this submitter's next request is due on a fresh controller
+        boolean replacesController() {
+            return (next & (REQUESTS_PER_CONTROLLER - 1)) == 0 && next != 0;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        BenchmarkSupport.silenceLogging();
+        controller = newController();
+    }
+
+    private ElevatorController newController() {
+        return ElevatorController.newSimulation(fleetSize, BenchmarkSupport.MIN_FLOOR,
+            BenchmarkSupport.MAX_FLOOR, new VirtualClock());
+    }
+
+    private void request(Submitter submitter) {
+        if (submitter.replacesController()) {
+            // The replaced controller is simply dropped: on a virtual clock it holds no threads, and other
+            // submitters may still be mid-request on it
+            controller = newController();
+        }
+        controller.requestElevator(submitter.nextRequest());
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        controller.shutdown();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void requestElevatorSingleSubmitter(Submitter submitter) {
+        request(submitter);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void requestElevatorFourSubmitters(Submitter submitter) {
+        request(submitter);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void requestElevatorMaxSubmitters(Submitter submitter) {
+        request(submitter);
+    }
+}
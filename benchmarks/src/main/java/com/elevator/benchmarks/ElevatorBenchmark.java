@@ -0,0 +1,58 @@
+package com.elevator.benchmarks;
+
+import com.elevator.Elevator;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ElevatorBenchmark {
+    // Floors are visited in a fixed stride so stops land all over the shaft
+    private static final int FLOOR_STRIDE = 17;
+
+    private Elevator elevator;
+    private int nextFloor;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.silenceLogging();
+        elevator = new Elevator(BenchmarkSupport.MIN_FLOOR, BenchmarkSupport.MAX_FLOOR);
+    }
+
+    private int nextFloor() {
+        nextFloor = (nextFloor + FLOOR_STRIDE) % (BenchmarkSupport.MAX_FLOOR + 1);
+        return nextFloor;
+    }
+
+    @Benchmark
+    public void addDestination() {
+        elevator.addDestination(nextFloor());
+        // Keep the queue from saturating, so adds keep taking the accept path
+        if (elevator.getDestinationFloors().size() > BenchmarkSupport.MAX_FLOOR / 2) {
+            elevator.clearDestinations();
+        }
+    }
+
+    @Benchmark
+    public int move() {
+        if (elevator.getDestinationFloors().isEmpty()) {
+            elevator.addDestination(nextFloor());
+            elevator.addDestination(nextFloor());
+        }
+        elevator.move();
+        return elevator.getCurrentFloor();
+    }
+}
@@ -0,0 +1,53 @@
+package com.elevator.benchmarks;
+
+import com.elevator.Elevator;
+import com.elevator.FCFSStrategy;
+import com.elevator.Request;
+import com.elevator.SCANStrategy;
+import com.elevator.SchedulingStrategy;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StrategyBenchmark {
+    @Param({"2", "10", "100", "1000"})
+    private int fleetSize;
+
+    @Param({"SCAN", "FCFS"})
+    private String strategyName;
+
+    private List<Elevator> fleet;
+    private SchedulingStrategy strategy;
+    private Request[] requests;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.silenceLogging();
+        fleet = BenchmarkSupport.scatteredFleet(fleetSize, 42);
+        strategy = "SCAN".equals(strategyName) ? new SCANStrategy() : new FCFSStrategy();
+        requests = BenchmarkSupport.requestPool(7);
+    }
+
+    @Benchmark
+    public Elevator selectElevator() {
+        Request request = requests[next++ & (BenchmarkSupport.REQUEST_POOL_SIZE - 1)];
+        return strategy.selectElevator(fleet, request);
+    }
+}
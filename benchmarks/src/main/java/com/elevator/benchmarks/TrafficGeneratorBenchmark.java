@@ -0,0 +1,42 @@
+package com.elevator.benchmarks;
+
+import com.elevator.TrafficGenerator;
+import com.elevator.TrafficProfile;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TrafficGeneratorBenchmark {
+    @Param({"UP_PEAK", "INTER_FLOOR"})
+    public TrafficProfile profile;
+
+    private TrafficGenerator generator;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.silenceLogging();
+        generator = new TrafficGenerator(profile, BenchmarkSupport.MIN_FLOOR, BenchmarkSupport.MIN_FLOOR,
+            TrafficGenerator.uniformPopulation(BenchmarkSupport.MIN_FLOOR, BenchmarkSupport.MAX_FLOOR, 50), 600, 42);
+    }
+
+    @Benchmark
+    public int next() {
+        generator.next();
+        return generator.getDestinationFloor();
+    }
+}
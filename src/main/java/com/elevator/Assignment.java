@@ -0,0 +1,19 @@
+package com.elevator;
+
+public class Assignment {
+    private final Request request;
+    private final Elevator elevator;
+
+    public Assignment(Request request, Elevator elevator) {
+        this.request = request;
+        this.elevator = elevator;
+    }
+
+    public Request getRequest() {
+        return request;
+    }
+
+    public Elevator getElevator() {
+        return elevator;
+    }
+}
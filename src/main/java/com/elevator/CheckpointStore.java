@@ -0,0 +1,119 @@
+package com.elevator;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A directory holding a controller's latest checkpoint and the request journals written since.
+ * Each checkpoint starts a new journal generation, and the checkpoint names the generation
+ * holding the requests made after it. Journals use the trace format, one file per generation.
+ * Older generations are deleted once a newer checkpoint is safely on disk, so after a crash
+ * only the journal tail since the last checkpoint has to be replayed.
+ */
+public class CheckpointStore {
+    private static final EventLog logger = EventLog.getLog(CheckpointStore.class);
+    private static final String CHECKPOINT_FILE = "fleet.checkpoint";
+    private static final String JOURNAL_PREFIX = "journal-";
+    private static final String JOURNAL_SUFFIX = ".trace";
+    private final Path directory;
+
+    /**
+     * Opens the store, creating the directory if needed
+     * @param directory The directory holding the checkpoint and journals
+     * @throws IOException If the directory cannot be created
+     */
+    public CheckpointStore(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public boolean hasCheckpoint() {
+        return Files.exists(checkpointPath());
+    }
+
+    public FleetCheckpoint readCheckpoint() throws IOException {
+        return FleetCheckpoint.read(checkpointPath());
+    }
+
+    /**
+     * Replaces the checkpoint, then deletes the journals it supersedes
+     * @param checkpoint The checkpoint
+     * @throws IOException If the checkpoint cannot be written
+     */
+    void writeCheckpoint(FleetCheckpoint checkpoint) throws IOException {
+        checkpoint.write(checkpointPath());
+        for (long generation : journalGenerations()) {
+            if (generation < checkpoint.getJournalGeneration()) {
+                Files.deleteIfExists(journalPath(generation));
+            }
+        }
+    }
+
+    /**
+     * Returns the generation for the next journal
+     * @return The generation after every journal in the store
+     * @throws IOException If the directory cannot be listed
+     */
+    long nextGeneration() throws IOException {
+        List<Long> generations = journalGenerations();
+        return generations.isEmpty() ? 1 : generations.get(generations.size() - 1) + 1;
+    }
+
+    TraceWriter openJournal(long generation) throws IOException {
+        TraceWriter journal = new TraceWriter(journalPath(generation));
+        // The header is flushed straight away, so a crash before the first request leaves a readable journal
+        journal.flush();
+        return journal;
+    }
+
+    /**
+     * Returns the journals holding requests made after the checkpoint. A crash while a checkpoint
+     * was being taken can leave journals from later generations, which are replayed too.
+     * @param checkpoint The checkpoint being restored
+     * @return The journal files, oldest generation first
+     * @throws IOException If the directory cannot be listed
+     */
+    List<Path> journalsSince(FleetCheckpoint checkpoint) throws IOException {
+        List<Path> journals = new ArrayList<>();
+        for (long generation : journalGenerations()) {
+            if (generation >= checkpoint.getJournalGeneration()) {
+                journals.add(journalPath(generation));
+            }
+        }
+        return journals;
+    }
+
+    private Path checkpointPath() {
+        return directory.resolve(CHECKPOINT_FILE);
+    }
+
+    private Path journalPath(long generation) {
+        return directory.resolve(JOURNAL_PREFIX + generation + JOURNAL_SUFFIX);
+    }
+
+    private List<Long> journalGenerations() throws IOException {
+        List<Long> generations = new ArrayList<>();
+        try (DirectoryStream<Path> journals = Files.newDirectoryStream(directory,
+                JOURNAL_PREFIX + "*" + JOURNAL_SUFFIX)) {
+            for (Path journal : journals) {
+                String name = journal.getFileName().toString();
+                try {
+                    generations.add(Long.parseLong(
+                        name.substring(JOURNAL_PREFIX.length(), name.length() - JOURNAL_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    logger.warning("Ignoring unrecognised journal file " + name);
+                }
+            }
+        }
+        Collections.sort(generations);
+        return generations;
+    }
+}
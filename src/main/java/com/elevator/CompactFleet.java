@@ -0,0 +1,564 @@
+package com.elevator;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * A fleet kept as parallel primitive arrays indexed by car number, for simulating tens of thousands
+ * of cars without an object, lock and set of per-floor lists per car. Stops are a bitmap per car,
+ * and passengers live in one shared pool of trips linked into per-car waiting and riding lists.
+ * Cars follow LOOK stop ordering and have no capacity limit. Time advances in fixed ticks on the
+ * caller's thread, stepping every car that is due, so a fleet is confined to one thread.
+ * Dispatch uses the SCAN cost of SCANStrategy, computed for the whole fleet in one pass over the arrays,
+ * or any SchedulingStrategy through lightweight Elevator views of the cars.
+ */
+public class CompactFleet {
+    private static final EventLog logger = EventLog.getLog(CompactFleet.class);
+    // Cars are stepped on a tick that divides both the floor travel time and the door time
+    static final long TICK_MILLIS = gcd(Elevator.FLOOR_TRAVEL_MILLIS, Elevator.DOOR_OPERATION_MILLIS);
+    private static final long PARKED = Long.MAX_VALUE;
+    private static final int NO_TRIP = -1;
+    private static final byte MOVING = (byte) ElevatorState.MOVING.ordinal();
+    private static final byte STOPPED = (byte) ElevatorState.STOPPED.ordinal();
+    private static final byte DOORS_OPEN = (byte) ElevatorState.DOORS_OPEN.ordinal();
+    private static final ElevatorState[] STATES = ElevatorState.values();
+
+    private final int numCars;
+    private final int minFloor;
+    private final int maxFloor;
+    private final int wordsPerCar;
+    private final int[] floors;
+    // +1 up, -1 down, 0 idle
+    private final byte[] directions;
+    private final byte[] states;
+    // Car c's stops are bits floor - minFloor of words [c * wordsPerCar, (c + 1) * wordsPerCar)
+    private final long[] stopWords;
+    private final int[] stopCounts;
+    // Bumped whenever a car's stops change, as DestinationQueue versions are
+    private final long[] stopVersions;
+    private final int[] loads;
+    // Clock time each car takes its next step, or PARKED until it gets a stop
+    private final long[] dueAt;
+    private final int[] waitingHead;
+    private final int[] ridingHead;
+    // Scratch space for the cost pass of selectCar
+    private final int[] costs;
+    // Elevator views of the cars for SchedulingStrategy, created on first use
+    private List<Elevator> views;
+
+    // Trip pool: freed trips are chained through tripNext from freeTrip
+    private int[] tripSource = new int[0];
+    private int[] tripDestination = new int[0];
+    private int[] tripNext = new int[0];
+    private long[] tripRequestTime = new long[0];
+    private long[] tripPickupTime = new long[0];
+    private int tripCount;
+    private int freeTrip = NO_TRIP;
+
+    private final ElevatorMetrics metrics = new ElevatorMetrics();
+    private long now;
+
+    /**
+     * Creates a fleet with every car idle on the lowest floor
+     * @param numCars The number of cars
+     * @param minFloor The lowest floor served
+     * @param maxFloor The highest floor served
+     */
+    public CompactFleet(int numCars, int minFloor, int maxFloor) {
+        this.numCars = numCars;
+        this.minFloor = minFloor;
+        this.maxFloor = maxFloor;
+        this.wordsPerCar = (maxFloor - minFloor + 64) >>> 6;
+        this.floors = new int[numCars];
+        this.directions = new byte[numCars];
+        this.states = new byte[numCars];
+        this.stopWords = new long[numCars * wordsPerCar];
+        this.stopCounts = new int[numCars];
+        this.stopVersions = new long[numCars];
+        this.loads = new int[numCars];
+        this.dueAt = new long[numCars];
+        this.waitingHead = new int[numCars];
+        this.ridingHead = new int[numCars];
+        this.costs = new int[numCars];
+        Arrays.fill(floors, minFloor);
+        Arrays.fill(states, STOPPED);
+        Arrays.fill(dueAt, PARKED);
+        Arrays.fill(waitingHead, NO_TRIP);
+        Arrays.fill(ridingHead, NO_TRIP);
+        logger.log(Level.INFO, "Created compact fleet of {0} cars", numCars);
+    }
+
+    public int size() {
+        return numCars;
+    }
+
+    public long currentTimeMillis() {
+        return now;
+    }
+
+    public int getCurrentFloor(int car) {
+        return floors[car];
+    }
+
+    public Direction getDirection(int car) {
+        return directions[car] > 0 ? Direction.UP : directions[car] < 0 ? Direction.DOWN : Direction.IDLE;
+    }
+
+    public ElevatorState getState(int car) {
+        return STATES[states[car]];
+    }
+
+    public boolean hasStop(int car, int floor) {
+        return floor >= minFloor && floor <= maxFloor && hasStopAt(car, floor);
+    }
+
+    public int getStopCount(int car) {
+        return stopCounts[car];
+    }
+
+    // Passengers on board
+    public int getLoad(int car) {
+        return loads[car];
+    }
+
+    // Metrics of the whole fleet
+    public ElevatorMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Queues a stop for a car, as a passenger pressing a floor button inside it would
+     * @param car The car number
+     * @param floor The floor to stop at
+     */
+    public void addStop(int car, int floor) {
+        if (floor < minFloor || floor > maxFloor || (floor == floors[car] && states[car] == DOORS_OPEN)) {
+            return;
+        }
+        if (setStop(car, floor)) {
+            updateDirection(car);
+            wake(car);
+        }
+    }
+
+    /**
+     * Assigns a request to a car. The destination is only queued once the passenger has boarded.
+     * @param car The car number
+     * @param request The elevator request
+     * @param requestTime The clock time the request was made at
+     * @return true if the request was accepted, false if either floor is out of range
+     */
+    public boolean assignRequest(int car, Request request, long requestTime) {
+        int source = request.getSourceFloor();
+        int destination = request.getDestinationFloor();
+        if (source < minFloor || source > maxFloor || destination < minFloor || destination > maxFloor) {
+            return false;
+        }
+        int trip = allocateTrip(source, destination, requestTime);
+        tripNext[trip] = waitingHead[car];
+        waitingHead[car] = trip;
+        if (source == floors[car] && states[car] == DOORS_OPEN) {
+            // Board straight away while the doors are still open
+            exchangePassengers(car);
+        } else if (setStop(car, source)) {
+            wake(car);
+        }
+        updateDirection(car);
+        return true;
+    }
+
+    /**
+     * Selects the car with the lowest SCAN cost for the request. The costs of all cars are
+     * computed in one branch-free pass over the floor and direction arrays before the minimum is taken.
+     * @param request The elevator request
+     * @return The car number, or -1 if the fleet is empty
+     */
+    public int selectCar(Request request) {
+        int source = request.getSourceFloor();
+        for (int car = 0; car < numCars; car++) {
+            int distance = source - floors[car];
+            int direction = directions[car];
+            // Moving away from the source, or already level with it while moving, as SCANStrategy.calculateCost
+            boolean away = direction != 0 & direction * distance <= 0;
+            costs[car] = Math.abs(distance) + (away ? SCANStrategy.OPPOSITE_DIRECTION_PENALTY : 0);
+        }
+        int best = -1;
+        int minCost = Integer.MAX_VALUE;
+        for (int car = 0; car < numCars; car++) {
+            if (costs[car] < minCost) {
+                minCost = costs[car];
+                best = car;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Assigns a request made now to the car selected for it
+     * @param request The elevator request
+     * @return The car number, or -1 if no car can serve the request
+     */
+    public int requestElevator(Request request) {
+        int car = selectCar(request);
+        if (car < 0 || !assignRequest(car, request, now)) {
+            logger.warning("No available car found for the request");
+            return -1;
+        }
+        return car;
+    }
+
+    /**
+     * Assigns a request made now to the car a scheduling strategy selects from the views of the cars
+     * @param strategy The scheduling strategy
+     * @param request The elevator request
+     * @return The car number, or -1 if no car can serve the request
+     */
+    public int requestElevator(SchedulingStrategy strategy, Request request) {
+        Elevator selected = strategy.selectElevator(asElevators(), request);
+        if (!(selected instanceof CarView) || ((CarView) selected).fleet() != this
+            || !selected.assignRequest(request, now)) {
+            logger.warning("No available car found for the request");
+            return -1;
+        }
+        return ((CarView) selected).car;
+    }
+
+    /**
+     * Returns an Elevator view of every car, so that any SchedulingStrategy can score the fleet.
+     * A view's snapshot is built from the arrays when it is read and assigning a request to a view
+     * assigns it to the car; the cars themselves are still only moved by advancing the fleet.
+     * @return The views in car order, confined to the fleet's thread like the fleet itself
+     */
+    public List<Elevator> asElevators() {
+        if (views == null) {
+            CarView[] cars = new CarView[numCars];
+            for (int car = 0; car < numCars; car++) {
+                cars[car] = new CarView(car);
+            }
+            views = new AbstractList<Elevator>() {
+                @Override
+                public Elevator get(int index) {
+                    return cars[index];
+                }
+
+                @Override
+                public int size() {
+                    return cars.length;
+                }
+            };
+        }
+        return views;
+    }
+
+    /**
+     * Runs every tick up to and including the given time, stepping each car that is due
+     * @param timeMillis The time to advance to
+     */
+    public void advanceTo(long timeMillis) {
+        for (long tick = Math.floorDiv(now + TICK_MILLIS - 1, TICK_MILLIS) * TICK_MILLIS; tick <= timeMillis;
+             tick += TICK_MILLIS) {
+            now = tick;
+            for (int car = 0; car < numCars; car++) {
+                if (dueAt[car] <= tick) {
+                    step(car);
+                }
+            }
+        }
+        now = Math.max(now, timeMillis);
+    }
+
+    public void advanceBy(long millis) {
+        advanceTo(now + millis);
+    }
+
+    // Closes the doors, or travels a floor and opens them if it is a stop, or parks the car
+    private void step(int car) {
+        if (states[car] == DOORS_OPEN) {
+            states[car] = STOPPED;
+            metrics.recordDoorCycle();
+            updateDirection(car);
+            dueAt[car] = now + Elevator.DOOR_OPERATION_MILLIS;
+            return;
+        }
+        if (stopCounts[car] == 0) {
+            states[car] = STOPPED;
+            directions[car] = 0;
+            dueAt[car] = PARKED;
+            return;
+        }
+        int floor = floors[car];
+        int target = nextTarget(car);
+        long stepMillis = 0;
+        if (target != floor) {
+            directions[car] = (byte) (target > floor ? 1 : -1);
+            floor += directions[car];
+            floors[car] = floor;
+            states[car] = MOVING;
+            metrics.recordFloorTravelled();
+            stepMillis = Elevator.FLOOR_TRAVEL_MILLIS;
+        }
+        if (hasStopAt(car, floor)) {
+            clearStop(car, floor);
+            metrics.recordStop();
+            states[car] = DOORS_OPEN;
+            exchangePassengers(car);
+            stepMillis += Elevator.DOOR_OPERATION_MILLIS;
+        }
+        dueAt[car] = now + stepMillis;
+    }
+
+    // Drops off riders for the car's floor, then boards everyone waiting there and queues their destinations
+    private void exchangePassengers(int car) {
+        int floor = floors[car];
+        int previous = NO_TRIP;
+        for (int trip = ridingHead[car]; trip != NO_TRIP; ) {
+            int next = tripNext[trip];
+            if (tripDestination[trip] == floor) {
+                metrics.recordRide(now - tripPickupTime[trip]);
+                loads[car]--;
+                unlink(ridingHead, car, previous, next);
+                freeTrip(trip);
+            } else {
+                previous = trip;
+            }
+            trip = next;
+        }
+
+        previous = NO_TRIP;
+        for (int trip = waitingHead[car]; trip != NO_TRIP; ) {
+            int next = tripNext[trip];
+            if (tripSource[trip] == floor) {
+                unlink(waitingHead, car, previous, next);
+                metrics.recordWait(now - tripRequestTime[trip]);
+                if (tripDestination[trip] == floor) {
+                    metrics.recordRide(0);
+                    freeTrip(trip);
+                } else {
+                    tripPickupTime[trip] = now;
+                    tripNext[trip] = ridingHead[car];
+                    ridingHead[car] = trip;
+                    loads[car]++;
+                    setStop(car, tripDestination[trip]);
+                }
+            } else {
+                previous = trip;
+            }
+            trip = next;
+        }
+    }
+
+    private ElevatorSnapshot snapshotOf(CarView view) {
+        int car = view.car;
+        int[] stops = new int[stopCounts[car]];
+        for (int word = 0, next = 0; next < stops.length; word++) {
+            for (long bits = stopWords[car * wordsPerCar + word]; bits != 0; bits &= bits - 1) {
+                stops[next++] = (word << 6) + Long.numberOfTrailingZeros(bits) + minFloor;
+            }
+        }
+        // Destinations of the passengers waiting for the car and of those on board, sorted without duplicates
+        int waiting = 0;
+        for (int trip = waitingHead[car]; trip != NO_TRIP; trip = tripNext[trip]) {
+            waiting++;
+        }
+        int[] destinations = new int[waiting + loads[car]];
+        int count = 0;
+        for (int trip = waitingHead[car]; trip != NO_TRIP; trip = tripNext[trip]) {
+            destinations[count++] = tripDestination[trip];
+        }
+        for (int trip = ridingHead[car]; trip != NO_TRIP; trip = tripNext[trip]) {
+            destinations[count++] = tripDestination[trip];
+        }
+        Arrays.sort(destinations);
+        int distinct = 0;
+        for (int i = 0; i < destinations.length; i++) {
+            if (i == 0 || destinations[i] != destinations[i - 1]) {
+                destinations[distinct++] = destinations[i];
+            }
+        }
+        return new ElevatorSnapshot(view, floors[car], getDirection(car), getState(car), minFloor, maxFloor,
+            stops, stopVersions[car], view.getCapacity(), loads[car], waiting + loads[car],
+            Arrays.copyOf(destinations, distinct));
+    }
+
+    private void unlink(int[] heads, int car, int previous, int next) {
+        if (previous == NO_TRIP) {
+            heads[car] = next;
+        } else {
+            tripNext[previous] = next;
+        }
+    }
+
+    private int allocateTrip(int source, int destination, long requestTime) {
+        int trip = freeTrip;
+        if (trip != NO_TRIP) {
+            freeTrip = tripNext[trip];
+        } else {
+            if (tripCount == tripSource.length) {
+                int capacity = Math.max(16, tripCount * 2);
+                tripSource = Arrays.copyOf(tripSource, capacity);
+                tripDestination = Arrays.copyOf(tripDestination, capacity);
+                tripNext = Arrays.copyOf(tripNext, capacity);
+                tripRequestTime = Arrays.copyOf(tripRequestTime, capacity);
+                tripPickupTime = Arrays.copyOf(tripPickupTime, capacity);
+            }
+            trip = tripCount++;
+        }
+        tripSource[trip] = source;
+        tripDestination[trip] = destination;
+        tripRequestTime[trip] = requestTime;
+        tripPickupTime[trip] = -1;
+        return trip;
+    }
+
+    private void freeTrip(int trip) {
+        tripNext[trip] = freeTrip;
+        freeTrip = trip;
+    }
+
+    private void wake(int car) {
+        if (dueAt[car] == PARKED) {
+            dueAt[car] = now;
+        }
+    }
+
+    private void updateDirection(int car) {
+        if (stopCounts[car] == 0) {
+            directions[car] = 0;
+            return;
+        }
+        int target = nextTarget(car);
+        if (target != floors[car]) {
+            directions[car] = (byte) (target > floors[car] ? 1 : -1);
+        }
+    }
+
+    // LOOK: on through the stops in the direction of travel, then back; an idle car heads for the nearest stop
+    private int nextTarget(int car) {
+        int floor = floors[car];
+        if (hasStopAt(car, floor)) {
+            return floor;
+        }
+        int above = nextStopAbove(car, floor);
+        int below = nextStopBelow(car, floor);
+        if (directions[car] > 0) {
+            return above != DestinationQueue.NONE ? above : below;
+        }
+        if (directions[car] < 0) {
+            return below != DestinationQueue.NONE ? below : above;
+        }
+        if (above == DestinationQueue.NONE || below == DestinationQueue.NONE) {
+            return above == DestinationQueue.NONE ? below : above;
+        }
+        return above - floor <= floor - below ? above : below;
+    }
+
+    private boolean hasStopAt(int car, int floor) {
+        int index = floor - minFloor;
+        return (stopWords[car * wordsPerCar + (index >>> 6)] & (1L << index)) != 0;
+    }
+
+    private boolean setStop(int car, int floor) {
+        int index = floor - minFloor;
+        int word = car * wordsPerCar + (index >>> 6);
+        long bit = 1L << index;
+        if ((stopWords[word] & bit) != 0) {
+            return false;
+        }
+        stopWords[word] |= bit;
+        stopCounts[car]++;
+        stopVersions[car]++;
+        return true;
+    }
+
+    private void clearStop(int car, int floor) {
+        int index = floor - minFloor;
+        int word = car * wordsPerCar + (index >>> 6);
+        long bit = 1L << index;
+        if ((stopWords[word] & bit) != 0) {
+            stopWords[word] &= ~bit;
+            stopCounts[car]--;
+            stopVersions[car]++;
+        }
+    }
+
+    private int nextStopAbove(int car, int floor) {
+        int index = floor - minFloor + 1;
+        int word = index >>> 6;
+        if (word >= wordsPerCar) {
+            return DestinationQueue.NONE;
+        }
+        int base = car * wordsPerCar;
+        long bits = stopWords[base + word] & (-1L << index);
+        while (bits == 0) {
+            if (++word == wordsPerCar) {
+                return DestinationQueue.NONE;
+            }
+            bits = stopWords[base + word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(bits) + minFloor;
+    }
+
+    private int nextStopBelow(int car, int floor) {
+        int index = floor - minFloor - 1;
+        if (index < 0) {
+            return DestinationQueue.NONE;
+        }
+        int word = index >>> 6;
+        int base = car * wordsPerCar;
+        long bits = stopWords[base + word] & (-1L >>> (63 - (index & 63)));
+        while (bits == 0) {
+            if (--word < 0) {
+                return DestinationQueue.NONE;
+            }
+            bits = stopWords[base + word];
+        }
+        return (word << 6) + 63 - Long.numberOfLeadingZeros(bits) + minFloor;
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    // A car seen as an Elevator: reads and assignments go to the fleet's arrays. Cars have no capacity
+    // limit, and every view reports the metrics of the whole fleet.
+    private final class CarView extends Elevator {
+        private final int car;
+
+        private CarView(int car) {
+            super("car-" + car, minFloor, maxFloor, Integer.MAX_VALUE, metrics);
+            this.car = car;
+        }
+
+        private CompactFleet fleet() {
+            return CompactFleet.this;
+        }
+
+        @Override
+        public ElevatorSnapshot getSnapshot() {
+            return snapshotOf(this);
+        }
+
+        @Override
+        public boolean assignRequest(Request request) {
+            return assignRequest(request, now);
+        }
+
+        @Override
+        public boolean assignRequest(Request request, long requestTime) {
+            return CompactFleet.this.assignRequest(car, request, requestTime);
+        }
+
+        @Override
+        public void addDestination(int floor) {
+            addStop(car, floor);
+        }
+
+        // The fleet's trips are not Trip objects, so there are none to hand out or withdraw
+        @Override
+        public boolean releaseTrip(Trip trip) {
+            return false;
+        }
+    }
+}
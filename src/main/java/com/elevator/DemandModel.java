@@ -0,0 +1,97 @@
+package com.elevator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Learns how many hall calls each floor receives in each time-of-day bucket. Counts from
+ * earlier days fade by a fixed factor per day, so the model follows changes in the traffic.
+ * Time of day is the clock time modulo one day.
+ */
+public class DemandModel {
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    private final int minFloor;
+    private final int maxFloor;
+    private final long bucketMillis;
+    private final double dailyDecay;
+    // Decayed hall-call counts, indexed by [bucket][floor - minFloor]
+    private final double[][] demand;
+    // The day each bucket last received a call, so its counts can be decayed on the next one
+    private final long[] lastDay;
+
+    /**
+     * Creates an empty demand model
+     * @param minFloor The lowest floor tracked
+     * @param maxFloor The highest floor tracked
+     * @param bucketMillis The length of each time-of-day bucket in milliseconds
+     * @param dailyDecay The factor applied to a bucket's counts for each day since it was last updated
+     */
+    public DemandModel(int minFloor, int maxFloor, long bucketMillis, double dailyDecay) {
+        if (bucketMillis <= 0 || bucketMillis > DAY_MILLIS) {
+            throw new IllegalArgumentException("Bucket length must be between 1 ms and one day, got " + bucketMillis);
+        }
+        this.minFloor = minFloor;
+        this.maxFloor = maxFloor;
+        this.bucketMillis = bucketMillis;
+        this.dailyDecay = dailyDecay;
+        int buckets = (int) ((DAY_MILLIS + bucketMillis - 1) / bucketMillis);
+        this.demand = new double[buckets][maxFloor - minFloor + 1];
+        this.lastDay = new long[buckets];
+    }
+
+    /**
+     * Records a hall call
+     * @param floor The floor the call was made from
+     * @param time The clock time of the call
+     */
+    public synchronized void record(int floor, long time) {
+        if (floor < minFloor || floor > maxFloor) {
+            return;
+        }
+        int bucket = bucketOf(time);
+        long day = Math.floorDiv(time, DAY_MILLIS);
+        if (day > lastDay[bucket]) {
+            double factor = Math.pow(dailyDecay, day - lastDay[bucket]);
+            double[] counts = demand[bucket];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] *= factor;
+            }
+            lastDay[bucket] = day;
+        }
+        demand[bucket][floor - minFloor]++;
+    }
+
+    /**
+     * Returns the learned demand for a floor at a time of day
+     * @param floor The floor
+     * @param time A clock time within the time-of-day bucket
+     * @return The decayed number of hall calls seen from the floor in that bucket
+     */
+    public synchronized double getDemand(int floor, long time) {
+        if (floor < minFloor || floor > maxFloor) {
+            return 0;
+        }
+        return demand[bucketOf(time)][floor - minFloor];
+    }
+
+    /**
+     * Returns the floors that have seen hall calls at this time of day, busiest first
+     * @param time A clock time within the time-of-day bucket
+     * @return The floors with any demand, in descending order of demand
+     */
+    public synchronized List<Integer> rankFloors(long time) {
+        double[] counts = demand[bucketOf(time)];
+        List<Integer> floors = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                floors.add(i + minFloor);
+            }
+        }
+        floors.sort((a, b) -> Double.compare(counts[b - minFloor], counts[a - minFloor]));
+        return floors;
+    }
+
+    private int bucketOf(long time) {
+        return (int) (Math.floorMod(time, DAY_MILLIS) / bucketMillis);
+    }
+}
@@ -0,0 +1,125 @@
+package com.elevator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+
+/**
+ * Destination dispatch: groups passengers travelling from the same floor to the same or nearby
+ * destinations into one car, so each trip makes fewer stops and carries more passengers.
+ * A car is scored by its SCAN cost plus the stops the request would add to it and how far the
+ * request's destination lies from the destinations its passengers already have, so a destination
+ * within GROUPING_RANGE_FLOORS of an existing one is cheaper than starting an empty car. Full cars are skipped.
+ */
+public class DestinationDispatchStrategy implements SchedulingStrategy {
+    private static final EventLog logger = EventLog.getLog(DestinationDispatchStrategy.class);
+    // A new stop costs a door cycle, which takes as long as two floors of travel
+    static final int NEW_STOP_PENALTY = (int) (2 * Elevator.DOOR_OPERATION_MILLIS / Elevator.FLOOR_TRAVEL_MILLIS);
+    // Destinations within this many floors of one a car already serves are grouped rather than opening another car
+    static final int GROUPING_RANGE_FLOORS = 3;
+
+    @Override
+    public Elevator selectElevator(List<Elevator> elevators, Request request) {
+        return assignRequests(elevators, Collections.singletonList(request)).get(0);
+    }
+
+    @Override
+    public List<Elevator> assignRequests(List<Elevator> elevators, List<Request> requests) {
+        logger.log(Level.FINE, "Using destination dispatch to assign {0} requests", requests.size());
+
+        List<ElevatorSnapshot> available = new ArrayList<>(elevators.size());
+        for (Elevator elevator : elevators) {
+            ElevatorSnapshot snapshot = elevator.getSnapshot();
+            if (snapshot.getState() != ElevatorState.MAINTENANCE) {
+                available.add(snapshot);
+            }
+        }
+
+        // Requests earlier in the batch are planned into their cars so later ones can be grouped with them
+        Map<Elevator, Plan> plans = new HashMap<>();
+        List<Elevator> assignments = new ArrayList<>(requests.size());
+        for (Request request : requests) {
+            ElevatorSnapshot best = null;
+            Plan bestPlan = null;
+            long minCost = Long.MAX_VALUE;
+            for (ElevatorSnapshot snapshot : available) {
+                Plan plan = plans.get(snapshot.getElevator());
+                if (snapshot.getAssignedPassengers() + (plan != null ? plan.passengers : 0) >= snapshot.getCapacity()) {
+                    continue;
+                }
+                long cost = calculateCost(snapshot, plan, request);
+                if (cost < minCost) {
+                    best = snapshot;
+                    bestPlan = plan;
+                    minCost = cost;
+                }
+            }
+
+            if (best == null) {
+                logger.warning("No available elevator found for the request");
+                assignments.add(null);
+                continue;
+            }
+            if (bestPlan == null) {
+                bestPlan = new Plan();
+                plans.put(best.getElevator(), bestPlan);
+            }
+            bestPlan.add(request);
+            logger.log(Level.FINE, "Selected elevator at floor {0} with cost {1}", best.getCurrentFloor(), minCost);
+            assignments.add(best.getElevator());
+        }
+        return assignments;
+    }
+
+    static long calculateCost(ElevatorSnapshot snapshot, Plan plan, Request request) {
+        int sourceFloor = request.getSourceFloor();
+        int destinationFloor = request.getDestinationFloor();
+        // A car standing at the source floor boards the passenger if it is idle or already headed their way
+        boolean boardingHere = snapshot.getCurrentFloor() == sourceFloor && snapshot.getState() != ElevatorState.MOVING
+            && (snapshot.getDirection() == Direction.IDLE || snapshot.getDirection() == request.getDirection());
+        long cost = boardingHere ? 0 : SCANStrategy.calculateCost(snapshot, request);
+
+        boolean stopsAtSource = snapshot.getCurrentFloor() == sourceFloor || snapshot.hasStop(sourceFloor)
+            || (plan != null && plan.sources.contains(sourceFloor));
+        if (!stopsAtSource) {
+            cost += NEW_STOP_PENALTY;
+        }
+
+        int spread = snapshot.distanceToPassengerDestination(destinationFloor);
+        if (plan != null) {
+            spread = Math.min(spread, plan.distanceToDestination(destinationFloor));
+        }
+        if (spread == Integer.MAX_VALUE) {
+            cost += NEW_STOP_PENALTY + GROUPING_RANGE_FLOORS;
+        } else if (spread > 0) {
+            // Every floor between this destination and the nearest existing one lengthens the trip,
+            // and past the grouping range an empty car is the better choice
+            cost += NEW_STOP_PENALTY + Math.min(spread, GROUPING_RANGE_FLOORS + 1);
+        }
+        return cost;
+    }
+
+    // The requests already assigned to one elevator in the current batch
+    static final class Plan {
+        private final List<Integer> sources = new ArrayList<>();
+        private final List<Integer> destinations = new ArrayList<>();
+        private int passengers;
+
+        void add(Request request) {
+            sources.add(request.getSourceFloor());
+            destinations.add(request.getDestinationFloor());
+            passengers++;
+        }
+
+        int distanceToDestination(int floor) {
+            int distance = Integer.MAX_VALUE;
+            for (int destination : destinations) {
+                distance = Math.min(distance, Math.abs(destination - floor));
+            }
+            return distance;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.elevator;
+
+import java.util.Arrays;
+
+/**
+ * Set of destination floors over a fixed floor range, backed by a bitset so that
+ * add, contains and remove are constant time and never box a floor. Floors are also
+ * remembered in the order they were added, so the oldest pending floor can be found
+ * without scanning. Not thread-safe; the owning elevator guards it with its lock.
+ */
+public class DestinationQueue {
+    // Returned when there is no floor to report
+    public static final int NONE = Integer.MIN_VALUE;
+
+    private final int minFloor;
+    private final int maxFloor;
+    private final long[] words;
+    private int size;
+
+    // Insertion order as a ring of floor indexes. Removing a floor leaves its entry behind;
+    // an entry only counts while its stamp still matches the stamp of that floor.
+    private final int[] orderIndex;
+    private final int[] orderStamp;
+    private final int[] stampOf;
+    private int head;
+    private int count;
+    private int nextStamp;
+    // Bumped on every change, so callers can tell whether a cached view of the queue is stale
+    private long version;
+
+    public DestinationQueue(int minFloor, int maxFloor) {
+        this.minFloor = minFloor;
+        this.maxFloor = maxFloor;
+        int floors = maxFloor - minFloor + 1;
+        this.words = new long[(floors + 63) >>> 6];
+        this.stampOf = new int[floors];
+        int capacity = Math.max(16, floors * 2);
+        this.orderIndex = new int[capacity];
+        this.orderStamp = new int[capacity];
+    }
+
+    public boolean contains(int floor) {
+        if (floor < minFloor || floor > maxFloor) {
+            return false;
+        }
+        int index = floor - minFloor;
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Adds a floor to the queue
+     * @param floor The floor to add
+     * @return true if the floor was added, false if it is out of range or already queued
+     */
+    public boolean add(int floor) {
+        if (floor < minFloor || floor > maxFloor || contains(floor)) {
+            return false;
+        }
+        int index = floor - minFloor;
+        words[index >>> 6] |= 1L << index;
+        size++;
+        version++;
+
+        if (count == orderIndex.length) {
+            compact();
+        }
+        int stamp = ++nextStamp;
+        stampOf[index] = stamp;
+        int slot = (head + count) % orderIndex.length;
+        orderIndex[slot] = index;
+        orderStamp[slot] = stamp;
+        count++;
+        return true;
+    }
+
+    /**
+     * Removes a floor from the queue
+     * @param floor The floor to remove
+     * @return true if the floor was queued
+     */
+    public boolean remove(int floor) {
+        if (!contains(floor)) {
+            return false;
+        }
+        int index = floor - minFloor;
+        words[index >>> 6] &= ~(1L << index);
+        size--;
+        version++;
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(words, 0L);
+        size = 0;
+        head = 0;
+        count = 0;
+        version++;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the floor that has been queued the longest
+     * @return The oldest queued floor, or NONE if the queue is empty
+     */
+    public int first() {
+        while (count > 0) {
+            if (isLive(head)) {
+                return orderIndex[head] + minFloor;
+            }
+            head = (head + 1) % orderIndex.length;
+            count--;
+        }
+        return NONE;
+    }
+
+    /**
+     * Returns the nearest queued floor strictly above the given floor
+     * @param floor The floor to search from
+     * @return The next floor up, or NONE if there is none
+     */
+    public int nextAbove(int floor) {
+        int from = Math.max(floor + 1, minFloor) - minFloor;
+        if (from > maxFloor - minFloor) {
+            return NONE;
+        }
+        int wordIndex = from >>> 6;
+        long word = words[wordIndex] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return (wordIndex << 6) + Long.numberOfTrailingZeros(word) + minFloor;
+            }
+            if (++wordIndex == words.length) {
+                return NONE;
+            }
+            word = words[wordIndex];
+        }
+    }
+
+    /**
+     * Returns the nearest queued floor strictly below the given floor
+     * @param floor The floor to search from
+     * @return The next floor down, or NONE if there is none
+     */
+    public int nextBelow(int floor) {
+        int from = Math.min(floor - 1, maxFloor) - minFloor;
+        if (from < 0) {
+            return NONE;
+        }
+        int wordIndex = from >>> 6;
+        long word = words[wordIndex] & (-1L >>> (63 - (from & 63)));
+        while (true) {
+            if (word != 0) {
+                return (wordIndex << 6) + 63 - Long.numberOfLeadingZeros(word) + minFloor;
+            }
+            if (--wordIndex < 0) {
+                return NONE;
+            }
+            word = words[wordIndex];
+        }
+    }
+
+    /**
+     * Returns the queued floor at the given position in ascending floor order
+     * @param position The zero-based position
+     * @return The floor at that position
+     */
+    public int get(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Position " + position + " out of range for size " + size);
+        }
+        int floor = nextAbove(minFloor - 1);
+        for (int i = 0; i < position; i++) {
+            floor = nextAbove(floor);
+        }
+        return floor;
+    }
+
+    /**
+     * Copies the queued floors into a new array
+     * @return The queued floors in ascending order
+     */
+    public int[] toArray() {
+        int[] floors = new int[size];
+        int floor = minFloor - 1;
+        for (int i = 0; i < size; i++) {
+            floor = nextAbove(floor);
+            floors[i] = floor;
+        }
+        return floors;
+    }
+
+    private boolean isLive(int slot) {
+        int index = orderIndex[slot];
+        return (words[index >>> 6] & (1L << index)) != 0 && stampOf[index] == orderStamp[slot];
+    }
+
+    // Drops stale entries from the order ring, keeping the live ones in order
+    private void compact() {
+        int live = 0;
+        for (int i = 0; i < count; i++) {
+            int slot = (head + i) % orderIndex.length;
+            if (isLive(slot)) {
+                // The write position never passes the read position, so nothing unread is overwritten
+                int target = (head + live) % orderIndex.length;
+                orderIndex[target] = orderIndex[slot];
+                orderStamp[target] = orderStamp[slot];
+                live++;
+            }
+        }
+        count = live;
+    }
+}
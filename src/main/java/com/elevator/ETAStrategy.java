@@ -0,0 +1,226 @@
+package com.elevator;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.logging.Level;
+
+/**
+ * Selects the elevator that would deliver the passenger soonest. Each car's pending stops are
+ * laid out as a LOOK sweep with the arrival time at every stop, using a precomputed travel-time
+ * table and a door dwell per stop. Routes are cached per car and rebuilt only when its stops
+ * change, so scoring a car is a few binary searches rather than a walk over its stops.
+ * A new pickup is also charged one dwell for every stop it delays for passengers already assigned.
+ */
+public class ETAStrategy implements SchedulingStrategy {
+    private static final EventLog logger = EventLog.getLog(ETAStrategy.class);
+    // Longest trip precomputed for the default table; longer trips are extrapolated
+    private static final int DEFAULT_TABLE_FLOORS = 200;
+    private final TravelTimeTable travelTimes;
+    private final long dwellMillis;
+    private final Map<Elevator, Route> routes = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Creates a strategy matching the simulated elevators: one floor per FLOOR_TRAVEL_MILLIS
+     * and a full door cycle at every stop
+     */
+    public ETAStrategy() {
+        this(TravelTimeTable.linear(DEFAULT_TABLE_FLOORS, Elevator.FLOOR_TRAVEL_MILLIS),
+            2 * Elevator.DOOR_OPERATION_MILLIS);
+    }
+
+    public ETAStrategy(TravelTimeTable travelTimes, long dwellMillis) {
+        this.travelTimes = travelTimes;
+        this.dwellMillis = dwellMillis;
+    }
+
+    @Override
+    public Elevator selectElevator(List<Elevator> elevators, Request request) {
+        logger.log(Level.FINE, "Using ETA strategy to select elevator for request: Floor {0} -> Floor {1}",
+            request.getSourceFloor(), request.getDestinationFloor());
+
+        ElevatorSnapshot best = null;
+        long minCost = Long.MAX_VALUE;
+        for (Elevator elevator : elevators) {
+            ElevatorSnapshot snapshot = elevator.getSnapshot();
+            if (snapshot.getState() == ElevatorState.MAINTENANCE
+                || snapshot.getAssignedPassengers() >= snapshot.getCapacity()) {
+                continue;
+            }
+            long cost = estimateCost(snapshot, request);
+            if (cost < minCost) {
+                best = snapshot;
+                minCost = cost;
+            }
+        }
+
+        if (best != null) {
+            logger.log(Level.FINE, "Selected elevator at floor {0} with estimated cost {1} ms",
+                best.getCurrentFloor(), minCost);
+            return best.getElevator();
+        }
+        logger.warning("No available elevator found for the request");
+        return null;
+    }
+
+    /**
+     * Estimates the time until the car would deliver the request, plus the delay the request
+     * would add to the passengers already assigned to it
+     * @param snapshot The car
+     * @param request The elevator request
+     * @return The cost in milliseconds
+     */
+    long estimateCost(ElevatorSnapshot snapshot, Request request) {
+        return routeOf(snapshot).estimate(snapshot.getCurrentFloor(), request);
+    }
+
+    private Route routeOf(ElevatorSnapshot snapshot) {
+        Elevator elevator = snapshot.getElevator();
+        Route route = routes.get(elevator);
+        if (route == null || route.stopsVersion != snapshot.getStopsVersion()) {
+            route = new Route(snapshot);
+            routes.put(elevator, route);
+        }
+        return route;
+    }
+
+    // A car's pending stops in sweep order: the first segment runs on in the car's direction,
+    // the second runs back the other way. Times are relative to arriving at the first stop,
+    // so the route stays valid as the car closes in on that stop.
+    private final class Route {
+        private final long stopsVersion;
+        private final int[] floors;
+        // Floors multiplied by the segment's direction, so both segments are ascending for binary search
+        private final int[] keys;
+        private final long[] arrival;
+        private final int firstSegmentEnd;
+        private final int firstSign;
+
+        private Route(ElevatorSnapshot snapshot) {
+            this.stopsVersion = snapshot.getStopsVersion();
+            int[] stops = snapshot.stopArray();
+            int floor = snapshot.getCurrentFloor();
+            // Stops below the car end at 'lower', stops above it start at 'upper'; a stop at its floor lies between
+            int lower = firstAtOrAbove(stops, floor);
+            int upper = firstAtOrAbove(stops, floor + 1);
+            boolean up = sweepsUp(snapshot.getDirection(), stops, floor, lower, upper);
+
+            this.floors = new int[stops.length];
+            int next = 0;
+            if (up) {
+                // Up through the stops at and above the car, then down through those below it
+                for (int i = lower; i < stops.length; i++) {
+                    floors[next++] = stops[i];
+                }
+                this.firstSegmentEnd = next;
+                for (int i = lower - 1; i >= 0; i--) {
+                    floors[next++] = stops[i];
+                }
+            } else {
+                for (int i = upper - 1; i >= 0; i--) {
+                    floors[next++] = stops[i];
+                }
+                this.firstSegmentEnd = next;
+                for (int i = upper; i < stops.length; i++) {
+                    floors[next++] = stops[i];
+                }
+            }
+            this.firstSign = up ? 1 : -1;
+
+            this.keys = new int[floors.length];
+            this.arrival = new long[floors.length];
+            for (int i = 0; i < floors.length; i++) {
+                keys[i] = floors[i] * (i < firstSegmentEnd ? firstSign : -firstSign);
+                if (i > 0) {
+                    arrival[i] = arrival[i - 1] + dwellMillis + travelTimes.travelMillis(floors[i - 1], floors[i]);
+                }
+            }
+        }
+
+        private boolean sweepsUp(Direction direction, int[] stops, int floor, int lower, int upper) {
+            boolean hasBelow = lower > 0;
+            boolean atFloor = upper > lower;
+            boolean hasAbove = upper < stops.length;
+            if (direction == Direction.UP) {
+                return hasAbove || atFloor || !hasBelow;
+            }
+            if (direction == Direction.DOWN) {
+                return hasAbove && !atFloor && !hasBelow;
+            }
+            // An idle car heads for its nearest stop first
+            if (!hasBelow || !hasAbove) {
+                return !hasBelow;
+            }
+            return stops[upper] - floor <= floor - stops[lower - 1];
+        }
+
+        private int firstAtOrAbove(int[] stops, int floor) {
+            int position = Arrays.binarySearch(stops, floor);
+            return position >= 0 ? position : -position - 1;
+        }
+
+        private long estimate(int currentFloor, Request request) {
+            int source = request.getSourceFloor();
+            int destination = request.getDestinationFloor();
+            int requestSign = destination >= source ? 1 : -1;
+            long ride = travelTimes.travelMillis(source, destination);
+            if (floors.length == 0) {
+                return travelTimes.travelMillis(currentFloor, source) + dwellMillis + ride;
+            }
+
+            long toFirstStop = travelTimes.travelMillis(currentFloor, floors[0]);
+            int last = floors.length - 1;
+            int start;
+            int end;
+            int sign;
+            long segmentStart;
+            int segmentStartFloor;
+            if (requestSign == firstSign && firstSign * (source - currentFloor) >= 0
+                && firstSign * (source - floors[firstSegmentEnd - 1]) <= 0) {
+                // Picked up on the way out
+                start = 0;
+                end = firstSegmentEnd;
+                sign = firstSign;
+                segmentStart = 0;
+                segmentStartFloor = currentFloor;
+            } else if (requestSign == -firstSign && firstSegmentEnd < floors.length
+                && -firstSign * (source - floors[firstSegmentEnd - 1]) >= 0
+                && -firstSign * (source - floors[last]) <= 0) {
+                // Picked up on the way back
+                start = firstSegmentEnd;
+                end = floors.length;
+                sign = -firstSign;
+                segmentStart = toFirstStop + arrival[firstSegmentEnd - 1] + dwellMillis;
+                segmentStartFloor = floors[firstSegmentEnd - 1];
+            } else {
+                // Picked up once every queued stop has been served
+                long pickup = toFirstStop + arrival[last] + dwellMillis + travelTimes.travelMillis(floors[last], source);
+                return pickup + dwellMillis + ride;
+            }
+
+            int position = Arrays.binarySearch(keys, start, end, sign * source);
+            long pickup;
+            long delay = 0;
+            int afterPickup;
+            if (position >= 0) {
+                pickup = toFirstStop + arrival[position];
+                afterPickup = position + 1;
+            } else {
+                afterPickup = -position - 1;
+                pickup = afterPickup == start
+                    ? segmentStart + travelTimes.travelMillis(segmentStartFloor, source)
+                    : toFirstStop + arrival[afterPickup - 1] + dwellMillis
+                        + travelTimes.travelMillis(floors[afterPickup - 1], source);
+                // The new stop holds up everyone due at a later stop
+                delay = dwellMillis * (floors.length - afterPickup);
+            }
+
+            // Stops between the pickup and the destination in the same segment each add a dwell
+            int beforeDestination = Arrays.binarySearch(keys, afterPickup, end, sign * destination);
+            int between = (beforeDestination >= 0 ? beforeDestination : -beforeDestination - 1) - afterPickup;
+            return pickup + dwellMillis + ride + between * dwellMillis + delay;
+        }
+    }
+}
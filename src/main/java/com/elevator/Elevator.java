@@ -1,44 +1,452 @@
 package com.elevator;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.logging.Logger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.logging.Level;
 
 public class Elevator implements Runnable {
-    private static final Logger logger = Logger.getLogger(Elevator.class.getName());
+    private static final EventLog logger = EventLog.getLog(Elevator.class);
+    public static final long FLOOR_TRAVEL_MILLIS = 1000;
+    public static final long DOOR_OPERATION_MILLIS = 1000;
+    // Returned by step() when the elevator has nothing to do until a new destination arrives
+    public static final long PARKED = -1;
+    public static final int DEFAULT_CAPACITY = 20;
     private String id;
     private int currentFloor;
     private Direction direction;
     private ElevatorState state;
-    private List<Integer> destinationFloors;
+    private DestinationQueue destinationFloors;
+    // Republished after every change so readers never need the lock
+    private volatile ElevatorSnapshot snapshot;
+    // Trips waiting to be picked up, indexed by source floor; their destinations are queued on pickup
+    private final List<List<Trip>> waitingTrips;
+    // Trips on board, indexed by destination floor
+    private final List<List<Trip>> ridingTrips;
+    // Floors queued through addDestination rather than for a passenger, indexed by floor - minFloor
+    private final boolean[] carCalls;
+    private final int capacity;
+    // Passengers currently on board
+    private int load;
+    // Passengers assigned to this elevator, waiting or on board, counted by destination floor
+    private final int[] passengersByDestination;
+    private int assignedPassengers;
+    // Distinct destinations of the assigned passengers, rebuilt on the next publish once set to null
+    private int[] passengerDestinations = new int[0];
+    // Floor whose waiting passengers did not fit, queued again once the elevator has moved on
+    private int deferredStop = DestinationQueue.NONE;
+    private final ElevatorMetrics metrics;
+    private SimulationClock clock = new RealTimeClock();
+    private final StopOrderingPolicy stopOrderingPolicy;
     private int maxFloor;
     private int minFloor;
     private final Object lock = new Object();
     private boolean running = true;
+    private long doorMillis;
+    private boolean parked;
+    // Thread of a thread-driven elevator while it waits for work, unparked by whatever gives it some
+    private volatile Thread parkedThread;
+    private Runnable wakeUpListener;
+    private Runnable idleListener;
+    private Consumer<ElevatorSnapshot> snapshotListener;
+    private ElevatorEventStream eventStream;
+    private Consumer<Request> dropOffListener;
+    // Floors this car stops at, or null for every floor in its range; read without the lock by strategies
+    private volatile ServedFloors servedFloors;
 
     public Elevator(int minFloor, int maxFloor) {
+        this(minFloor, maxFloor, StopOrderingPolicy.LOOK);
+    }
+
+    public Elevator(int minFloor, int maxFloor, StopOrderingPolicy stopOrderingPolicy) {
+        this(minFloor, maxFloor, stopOrderingPolicy, DEFAULT_CAPACITY);
+    }
+
+    public Elevator(int minFloor, int maxFloor, StopOrderingPolicy stopOrderingPolicy, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Elevator capacity must be at least 1, got " + capacity);
+        }
         this.id = UUID.randomUUID().toString();
         this.currentFloor = minFloor;
         this.direction = Direction.IDLE;
         this.state = ElevatorState.STOPPED;
-        this.destinationFloors = new ArrayList<>();
+        this.destinationFloors = new DestinationQueue(minFloor, maxFloor);
+        this.maxFloor = maxFloor;
+        this.minFloor = minFloor;
+        this.stopOrderingPolicy = stopOrderingPolicy;
+        this.capacity = capacity;
+        this.metrics = new ElevatorMetrics();
+        this.passengersByDestination = new int[maxFloor - minFloor + 1];
+        this.carCalls = new boolean[maxFloor - minFloor + 1];
+        this.waitingTrips = new ArrayList<>(maxFloor - minFloor + 1);
+        this.ridingTrips = new ArrayList<>(maxFloor - minFloor + 1);
+        for (int floor = minFloor; floor <= maxFloor; floor++) {
+            waitingTrips.add(new ArrayList<>());
+            ridingTrips.add(new ArrayList<>());
+        }
+        publishSnapshot();
+        logger.log(Level.INFO, "Elevator {0} initialized at floor {1}", id, currentFloor);
+    }
+
+    // For views of cars simulated elsewhere, such as CompactFleet cars: the view keeps no trips, stops or
+    // per-floor state of its own and overrides getSnapshot and the methods that assign it work
+    Elevator(String id, int minFloor, int maxFloor, int capacity, ElevatorMetrics metrics) {
+        this.id = id;
+        this.currentFloor = minFloor;
+        this.direction = Direction.IDLE;
+        this.state = ElevatorState.STOPPED;
+        this.destinationFloors = new DestinationQueue(minFloor, minFloor);
         this.maxFloor = maxFloor;
         this.minFloor = minFloor;
-        logger.log(Level.INFO, "Elevator {0} initialized at floor {1}", new Object[]{id, currentFloor});
+        this.stopOrderingPolicy = StopOrderingPolicy.LOOK;
+        this.capacity = capacity;
+        this.metrics = metrics;
+        this.passengersByDestination = new int[0];
+        this.carCalls = new boolean[0];
+        this.waitingTrips = Collections.emptyList();
+        this.ridingTrips = Collections.emptyList();
+        this.running = false;
     }
 
     public void addDestination(int floor) {
+        Runnable wakeUp = null;
         synchronized (lock) {
-            if (floor >= minFloor && floor <= maxFloor && !destinationFloors.contains(floor)) {
-                destinationFloors.add(floor);
-                logger.log(Level.INFO, "Elevator {0} added destination floor {1}", new Object[]{id, floor});
-                updateDirection();
+            if (floor == currentFloor && state == ElevatorState.DOORS_OPEN) {
+                logger.log(Level.FINE, "Elevator {0} already has its doors open at floor {1}", id, floor);
+            } else if (serves(floor) && !destinationFloors.contains(floor)) {
+                carCalls[floor - minFloor] = true;
+                wakeUp = queueStop(floor);
             } else {
                 logger.log(Level.WARNING, "Invalid destination floor {0} for elevator {1}", 
-                    new Object[]{floor, id});
+                    floor, id);
+            }
+        }
+        // Called outside the lock so the listener is free to step this elevator right away
+        if (wakeUp != null) {
+            wakeUp.run();
+        }
+    }
+
+    /**
+     * Assigns a request to this elevator. The source floor is queued as a stop right away;
+     * the destination floor is only queued once the passenger has been picked up, so the
+     * elevator never serves the destination before the source.
+     * @param request The elevator request
+     * @return true if the request was accepted, false if this elevator does not serve either floor
+     */
+    public boolean assignRequest(Request request) {
+        return assignRequest(request, getClock().currentTimeMillis());
+    }
+
+    /**
+     * Assigns a request to this elevator, measuring its wait from the given time
+     * @param request The elevator request
+     * @param requestTime The clock time the request was made at
+     * @return true if the request was accepted, false if this elevator does not serve either floor
+     */
+    public boolean assignRequest(Request request, long requestTime) {
+        int sourceFloor = request.getSourceFloor();
+        int destinationFloor = request.getDestinationFloor();
+        Runnable wakeUp;
+        synchronized (lock) {
+            if (!serves(sourceFloor) || !serves(destinationFloor)) {
+                logger.log(Level.WARNING, "Elevator {0} cannot serve request: Floor {1} -> Floor {2}",
+                    id, sourceFloor, destinationFloor);
+                return false;
+            }
+            waitingTrips.get(sourceFloor - minFloor).add(new Trip(request, requestTime));
+            countPassenger(destinationFloor, 1);
+            logger.log(Level.FINE, "Elevator {0} assigned request: Floor {1} -> Floor {2}",
+                id, sourceFloor, destinationFloor);
+            emit(ElevatorEvent.Type.REQUEST_ASSIGNED, request);
+            if (sourceFloor == currentFloor && state == ElevatorState.DOORS_OPEN) {
+                // Board straight away while the doors are still open
+                exchangePassengers();
+                updateDirection();
+                wakeUp = null;
+            } else {
+                // A full car that just left passengers here will come back once it has moved on
+                wakeUp = sourceFloor == deferredStop ? null : queueStop(sourceFloor);
+            }
+            // Republished even when the stop was already queued, since the passenger count changed
+            publishSnapshot();
+        }
+        if (wakeUp != null) {
+            wakeUp.run();
+        }
+        return true;
+    }
+
+    /**
+     * Returns the hall calls assigned to this elevator whose passengers have not been picked up yet
+     * @return A copy of the waiting trips
+     */
+    public List<Trip> getWaitingTrips() {
+        synchronized (lock) {
+            List<Trip> waiting = new ArrayList<>();
+            for (List<Trip> trips : waitingTrips) {
+                waiting.addAll(trips);
+            }
+            return waiting;
+        }
+    }
+
+    // Whether a passenger assigned to this elevator is still waiting at the floor to travel in the direction
+    boolean hasWaitingCall(int floor, Direction direction) {
+        synchronized (lock) {
+            if (floor < minFloor || floor > maxFloor) {
+                return false;
+            }
+            for (Trip trip : waitingTrips.get(floor - minFloor)) {
+                if (trip.getRequest().getDirection() == direction) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Withdraws a hall call so it can be assigned to another elevator. The stop at its floor is
+     * dropped too unless other passengers are waiting there or riding to it.
+     * @param trip The waiting trip
+     * @return true if the trip was withdrawn, false if it was already picked up or is not assigned here
+     */
+    public boolean releaseTrip(Trip trip) {
+        int sourceFloor = trip.getRequest().getSourceFloor();
+        synchronized (lock) {
+            if (sourceFloor < minFloor || sourceFloor > maxFloor) {
+                return false;
+            }
+            List<Trip> waiting = waitingTrips.get(sourceFloor - minFloor);
+            if (!waiting.remove(trip)) {
+                return false;
+            }
+            countPassenger(trip.getRequest().getDestinationFloor(), -1);
+            if (waiting.isEmpty()) {
+                if (deferredStop == sourceFloor) {
+                    deferredStop = DestinationQueue.NONE;
+                }
+                if (ridingTrips.get(sourceFloor - minFloor).isEmpty() && !carCalls[sourceFloor - minFloor]
+                    && destinationFloors.remove(sourceFloor)) {
+                    logger.log(Level.FINE, "Elevator {0} removed stop at floor {1}", id, sourceFloor);
+                    updateDirection();
+                }
+            }
+            publishSnapshot();
+            return true;
+        }
+    }
+
+    /**
+     * Captures this elevator's position, stops and passengers for a checkpoint
+     * @return The elevator's state
+     */
+    FleetCheckpoint.CarState saveState(Function<Request, int[]> onwardFloors) {
+        synchronized (lock) {
+            Map<Trip, int[]> onward = new IdentityHashMap<>();
+            // Waiting trips are copied, since they change on pickup while the checkpoint is being written
+            List<Trip> waiting = new ArrayList<>();
+            for (List<Trip> trips : waitingTrips) {
+                for (Trip trip : trips) {
+                    Trip copy = new Trip(trip.getRequest(), trip.getRequestTime());
+                    waiting.add(copy);
+                    saveOnward(onward, copy, onwardFloors);
+                }
+            }
+            List<Trip> riding = new ArrayList<>();
+            for (List<Trip> trips : ridingTrips) {
+                for (Trip trip : trips) {
+                    riding.add(trip);
+                    saveOnward(onward, trip, onwardFloors);
+                }
             }
+            int[] calls = new int[carCalls.length];
+            int callCount = 0;
+            for (int index = 0; index < carCalls.length; index++) {
+                if (carCalls[index]) {
+                    calls[callCount++] = index + minFloor;
+                }
+            }
+            return new FleetCheckpoint.CarState(id, capacity, stopOrderingPolicy, getServedFloors(), currentFloor,
+                direction, deferredStop, destinationFloors.toArray(), Arrays.copyOf(calls, callCount), waiting, riding,
+                onward);
+        }
+    }
+
+    private static void saveOnward(Map<Trip, int[]> onward, Trip trip, Function<Request, int[]> onwardFloors) {
+        int[] floors = onwardFloors.apply(trip.getRequest());
+        if (floors.length > 0) {
+            onward.put(trip, floors);
+        }
+    }
+
+    /**
+     * Replaces this elevator's state with one captured by saveState, waking the elevator if it
+     * has stops to serve. Any stops and passengers it already had are dropped.
+     * @param saved The captured state
+     */
+    void restoreState(FleetCheckpoint.CarState saved) {
+        Runnable wakeUp = null;
+        synchronized (lock) {
+            clearDestinations();
+            this.id = saved.id;
+            this.currentFloor = saved.currentFloor;
+            for (int floor : saved.stops) {
+                destinationFloors.add(floor);
+            }
+            for (int floor : saved.carCalls) {
+                carCalls[floor - minFloor] = true;
+            }
+            for (Trip trip : saved.waiting) {
+                waitingTrips.get(trip.getRequest().getSourceFloor() - minFloor).add(trip);
+                countPassenger(trip.getRequest().getDestinationFloor(), 1);
+            }
+            for (Trip trip : saved.riding) {
+                ridingTrips.get(trip.getRequest().getDestinationFloor() - minFloor).add(trip);
+                countPassenger(trip.getRequest().getDestinationFloor(), 1);
+                load++;
+            }
+            this.deferredStop = saved.deferredStop;
+            this.direction = saved.direction;
+            publishSnapshot();
+            if (parked && !destinationFloors.isEmpty()) {
+                parked = false;
+                unparkThread();
+                wakeUp = wakeUpListener;
+            }
+            logger.log(Level.INFO, "Elevator {0} restored at floor {1}", id, currentFloor);
+        }
+        if (wakeUp != null) {
+            wakeUp.run();
+        }
+    }
+
+    // Must be called while holding the lock. Returns the wake-up listener to call once the lock is released.
+    private Runnable queueStop(int floor) {
+        if (!destinationFloors.add(floor)) {
+            return null;
+        }
+        logger.log(Level.FINE, "Elevator {0} added destination floor {1}", id, floor);
+        updateDirection();
+        publishSnapshot();
+        if (parked) {
+            parked = false;
+            unparkThread();
+            return wakeUpListener;
+        }
+        return null;
+    }
+
+    /**
+     * Sets the listener called when a parked elevator receives a new destination
+     * @param listener The listener, or null to clear it
+     */
+    public void setWakeUpListener(Runnable listener) {
+        synchronized (lock) {
+            this.wakeUpListener = listener;
+        }
+    }
+
+    /**
+     * Sets the listener called, outside the elevator's lock, when the elevator runs out of stops and parks
+     * @param listener The listener, or null to clear it
+     */
+    public void setIdleListener(Runnable listener) {
+        synchronized (lock) {
+            this.idleListener = listener;
+        }
+    }
+
+    /**
+     * Sets the listener that receives every snapshot this elevator publishes, starting with the
+     * current one. The listener is called while the elevator holds its lock, so it must not block.
+     * @param listener The listener, or null to clear it
+     */
+    public void setSnapshotListener(Consumer<ElevatorSnapshot> listener) {
+        synchronized (lock) {
+            this.snapshotListener = listener;
+            if (listener != null) {
+                listener.accept(snapshot);
+            }
+        }
+    }
+
+    /**
+     * Sets the stream this elevator publishes its moves, stops, door cycles and passengers to.
+     * Events are published while the elevator holds its lock, but publishing never blocks.
+     * @param stream The stream, or null to stop publishing
+     */
+    public void setEventStream(ElevatorEventStream stream) {
+        synchronized (lock) {
+            this.eventStream = stream;
+        }
+    }
+
+    /**
+     * Sets the listener told about every passenger this elevator drops off. The listener is called
+     * while the elevator holds its lock, so it must not block.
+     * @param listener The listener, given the request whose passenger left the car, or null to clear it
+     */
+    public void setDropOffListener(Consumer<Request> listener) {
+        synchronized (lock) {
+            this.dropOffListener = listener;
+        }
+    }
+
+    /**
+     * Restricts the floors this elevator stops at, for example to make it an express car
+     * @param floors The floors served, all within this elevator's range
+     */
+    public void setServedFloors(ServedFloors floors) {
+        if (floors.getMinFloor() < minFloor || floors.getMaxFloor() > maxFloor) {
+            throw new IllegalArgumentException("Floors " + floors + " are outside the range of elevator " + id);
+        }
+        synchronized (lock) {
+            this.servedFloors = floors;
+            logger.log(Level.INFO, "Elevator {0} serves floors {1}", id, floors);
+        }
+    }
+
+    public ServedFloors getServedFloors() {
+        ServedFloors floors = servedFloors;
+        return floors != null ? floors : ServedFloors.range(minFloor, maxFloor);
+    }
+
+    public boolean serves(int floor) {
+        ServedFloors floors = servedFloors;
+        return floors != null ? floors.serves(floor) : floor >= minFloor && floor <= maxFloor;
+    }
+
+    /**
+     * Returns whether this elevator stops at both floors of the request
+     * @param request The elevator request
+     * @return true if the request can be assigned to this elevator
+     */
+    public boolean canServe(Request request) {
+        return serves(request.getSourceFloor()) && serves(request.getDestinationFloor());
+    }
+
+    // Must be called while holding the lock
+    private void dropOff(Request request) {
+        emit(ElevatorEvent.Type.REQUEST_SERVED, request);
+        if (dropOffListener != null) {
+            dropOffListener.accept(request);
+        }
+    }
+
+    // Must be called while holding the lock
+    private void emit(ElevatorEvent.Type type, Request request) {
+        ElevatorEventStream stream = eventStream;
+        if (stream != null && stream.hasSubscribers()) {
+            stream.publish(new ElevatorEvent(type, this, currentFloor, direction, request, clock.currentTimeMillis()));
         }
     }
 
@@ -46,18 +454,36 @@ public class Elevator implements Runnable {
         synchronized (lock) {
             if (destinationFloors.isEmpty()) {
                 direction = Direction.IDLE;
-                logger.log(Level.INFO, "Elevator {0} is now idle", id);
+                logger.log(Level.FINE, "Elevator {0} is now idle", id);
                 return;
             }
 
-            int nextFloor = destinationFloors.get(0);
-            direction = nextFloor > currentFloor ? Direction.UP : Direction.DOWN;
-            logger.log(Level.INFO, "Elevator {0} direction set to {1}", new Object[]{id, direction});
+            int nextFloor = nextTarget();
+            if (nextFloor != currentFloor) {
+                direction = nextFloor > currentFloor ? Direction.UP : Direction.DOWN;
+            }
+            logger.log(Level.FINE, "Elevator {0} direction set to {1}", id, direction);
         }
     }
 
+    /**
+     * Advances the elevator by one floor, running the whole door cycle if it stops there.
+     * An open door from an earlier step is closed first.
+     */
     public void move() {
         synchronized (lock) {
+            if (state == ElevatorState.DOORS_OPEN) {
+                closeDoors();
+            }
+            advance(true);
+            publishSnapshot();
+        }
+    }
+
+    // Must be called while holding the lock
+    private void advance(boolean completeStop) {
+        synchronized (lock) {
+            doorMillis = 0;
             if (destinationFloors.isEmpty()) {
                 direction = Direction.IDLE;
                 state = ElevatorState.STOPPED;
@@ -65,10 +491,10 @@ public class Elevator implements Runnable {
             }
 
             state = ElevatorState.MOVING;
-            int nextFloor = destinationFloors.get(0);
+            int nextFloor = nextTarget();
 
             if (currentFloor == nextFloor) {
-                stop();
+                stop(completeStop);
                 if (destinationFloors.isEmpty()) {
                     direction = Direction.IDLE;
                 }
@@ -77,10 +503,17 @@ public class Elevator implements Runnable {
 
             direction = nextFloor > currentFloor ? Direction.UP : Direction.DOWN;
             currentFloor = direction == Direction.UP ? currentFloor + 1 : currentFloor - 1;
-            logger.log(Level.INFO, "Elevator {0} moved to floor {1}", new Object[]{id, currentFloor});
+            metrics.recordFloorTravelled();
+            logger.log(Level.FINE, "Elevator {0} moved to floor {1}", id, currentFloor);
+            emit(ElevatorEvent.Type.MOVED, null);
+            if (deferredStop != DestinationQueue.NONE) {
+                // Come back for the passengers left behind at the last stop
+                destinationFloors.add(deferredStop);
+                deferredStop = DestinationQueue.NONE;
+            }
 
-            if (destinationFloors.contains(currentFloor)) {
-                stop();
+            if (nextTarget() == currentFloor) {
+                stop(completeStop);
                 if (destinationFloors.isEmpty()) {
                     direction = Direction.IDLE;
                 }
@@ -88,43 +521,113 @@ public class Elevator implements Runnable {
         }
     }
 
-    private void stop() {
+    // Opens the doors and exchanges passengers; the doors stay open until closeDoors unless completeStop is set
+    private void stop(boolean completeStop) {
         synchronized (lock) {
             state = ElevatorState.STOPPED;
-            destinationFloors.remove(Integer.valueOf(currentFloor));
-            logger.log(Level.INFO, "Elevator {0} stopped at floor {1}", new Object[]{id, currentFloor});
+            destinationFloors.remove(currentFloor);
+            carCalls[currentFloor - minFloor] = false;
+            logger.log(Level.FINE, "Elevator {0} stopped at floor {1}", id, currentFloor);
+            emit(ElevatorEvent.Type.STOPPED, null);
+            metrics.recordStop();
             openDoors();
-            closeDoors();
-            state = ElevatorState.STOPPED;
-            updateDirection();
+            exchangePassengers();
+            if (completeStop) {
+                closeDoors();
+            }
+        }
+    }
+
+    private int nextTarget() {
+        return stopOrderingPolicy.nextTarget(destinationFloors, currentFloor, direction, minFloor, maxFloor);
+    }
+
+    // Drops off riders for this floor, then boards waiting passengers up to capacity and queues their destinations
+    private void exchangePassengers() {
+        long now = clock.currentTimeMillis();
+        List<Trip> leaving = ridingTrips.get(currentFloor - minFloor);
+        for (Trip trip : leaving) {
+            metrics.recordRide(now - trip.getPickupTime());
+            dropOff(trip.getRequest());
+        }
+        load -= leaving.size();
+        countPassenger(currentFloor, -leaving.size());
+        leaving.clear();
+
+        List<Trip> boarding = waitingTrips.get(currentFloor - minFloor);
+        int boarded = 0;
+        while (boarded < boarding.size() && load < capacity) {
+            Trip trip = boarding.get(boarded++);
+            trip.pickUp(now);
+            metrics.recordWait(now - trip.getRequestTime());
+            int destinationFloor = trip.getRequest().getDestinationFloor();
+            if (destinationFloor == currentFloor) {
+                metrics.recordRide(0);
+                countPassenger(destinationFloor, -1);
+                dropOff(trip.getRequest());
+                continue;
+            }
+            ridingTrips.get(destinationFloor - minFloor).add(trip);
+            load++;
+            if (destinationFloors.add(destinationFloor)) {
+                logger.log(Level.FINE, "Elevator {0} added destination floor {1}",
+                    id, destinationFloor);
+            }
+        }
+        boarding.subList(0, boarded).clear();
+        if (!boarding.isEmpty()) {
+            logger.log(Level.FINE, "Elevator {0} is full, leaving {1} passengers at floor {2}",
+                id, boarding.size(), currentFloor);
+            deferredStop = currentFloor;
+        }
+    }
+
+    private void countPassenger(int destinationFloor, int delta) {
+        int index = destinationFloor - minFloor;
+        int before = passengersByDestination[index];
+        passengersByDestination[index] += delta;
+        assignedPassengers += delta;
+        if ((before == 0) != (passengersByDestination[index] == 0)) {
+            passengerDestinations = null;
         }
     }
 
     private void openDoors() {
         state = ElevatorState.DOORS_OPEN;
-        logger.log(Level.INFO, "Elevator {0} doors opening at floor {1}", new Object[]{id, currentFloor});
-        try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        logger.log(Level.FINE, "Elevator {0} doors opening at floor {1}", id, currentFloor);
+        emit(ElevatorEvent.Type.DOORS_OPENED, null);
+        doorMillis += DOOR_OPERATION_MILLIS;
     }
 
+    // Ends the stop: closes the doors and picks the next direction
     private void closeDoors() {
         state = ElevatorState.DOORS_CLOSED;
-        logger.log(Level.INFO, "Elevator {0} doors closing at floor {1}", new Object[]{id, currentFloor});
-        try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        logger.log(Level.FINE, "Elevator {0} doors closing at floor {1}", id, currentFloor);
+        emit(ElevatorEvent.Type.DOORS_CLOSED, null);
+        doorMillis += DOOR_OPERATION_MILLIS;
+        metrics.recordDoorCycle();
+        state = ElevatorState.STOPPED;
+        updateDirection();
     }
 
     public void clearDestinations() {
         synchronized (lock) {
             destinationFloors.clear();
+            for (List<Trip> waiting : waitingTrips) {
+                waiting.clear();
+            }
+            for (List<Trip> riding : ridingTrips) {
+                riding.clear();
+            }
+            Arrays.fill(passengersByDestination, 0);
+            Arrays.fill(carCalls, false);
+            assignedPassengers = 0;
+            load = 0;
+            passengerDestinations = null;
+            deferredStop = DestinationQueue.NONE;
             direction = Direction.IDLE;
             state = ElevatorState.STOPPED;
+            publishSnapshot();
         }
     }
 
@@ -132,23 +635,62 @@ public class Elevator implements Runnable {
         synchronized (lock) {
             running = false;
             clearDestinations();
+            unparkThread();
             logger.log(Level.INFO, "Elevator {0} shutting down", id);
         }
     }
 
+    /**
+     * Runs the next step of the elevator: a floor of travel, opening the doors on arrival at a stop,
+     * or closing the doors of the previous stop. The doors stay open for a whole step, during which
+     * passengers for this floor board straight away and the lock is free.
+     * @return The time in milliseconds the step takes, or PARKED if there is nothing to do
+     *         until a new destination is added
+     */
+    public long step() {
+        Runnable idle;
+        synchronized (lock) {
+            if (state == ElevatorState.DOORS_OPEN) {
+                closeDoors();
+                publishSnapshot();
+                return DOOR_OPERATION_MILLIS;
+            }
+            if (!destinationFloors.isEmpty()) {
+                advance(false);
+                publishSnapshot();
+                return FLOOR_TRAVEL_MILLIS + doorMillis;
+            }
+            direction = Direction.IDLE;
+            state = ElevatorState.STOPPED;
+            idle = parked ? null : idleListener;
+            parked = true;
+            publishSnapshot();
+        }
+        // Called outside the lock so the listener is free to send the elevator elsewhere right away
+        if (idle != null) {
+            idle.run();
+        }
+        return PARKED;
+    }
+
+    public boolean isRunning() {
+        synchronized (lock) {
+            return running;
+        }
+    }
+
     @Override
     public void run() {
         logger.log(Level.INFO, "Elevator {0} thread started", id);
-        while (running) {
-            synchronized (lock) {
-                if (destinationFloors.isEmpty()) {
-                    direction = Direction.IDLE;
-                    state = ElevatorState.STOPPED;
-                }
-            }
-            move();
+        while (isRunning()) {
+            long stepMillis = step();
             try {
-                Thread.sleep(1000);
+                if (stepMillis == PARKED) {
+                    awaitWork();
+                    continue;
+                }
+                // Wait out the step in real time, outside the lock
+                Thread.sleep(stepMillis);
             } catch (InterruptedException e) {
                 logger.log(Level.SEVERE, "Elevator {0} thread interrupted", id);
                 Thread.currentThread().interrupt();
@@ -158,27 +700,139 @@ public class Elevator implements Runnable {
         logger.log(Level.INFO, "Elevator {0} thread stopped", id);
     }
 
-    public int getCurrentFloor() {
-        synchronized (lock) {
-            return currentFloor;
+    // Blocks an idle elevator thread until addDestination or shutdown wakes it. Parked rather than
+    // waiting on the lock's monitor, so a virtual thread releases its carrier while it waits.
+    private void awaitWork() throws InterruptedException {
+        // Published before the check, so a wake-up after the check always finds the thread to unpark
+        parkedThread = Thread.currentThread();
+        try {
+            while (isWaitingForWork()) {
+                LockSupport.park(this);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            parkedThread = null;
         }
     }
 
-    public Direction getDirection() {
+    private boolean isWaitingForWork() {
         synchronized (lock) {
-            return direction;
+            return running && parked;
         }
     }
 
-    public ElevatorState getState() {
+    // Must be called while holding the lock, after clearing parked or running
+    private void unparkThread() {
+        Thread thread = parkedThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    // Must be called while holding the lock, after every change to the elevator's state
+    private void publishSnapshot() {
+        if (passengerDestinations == null) {
+            passengerDestinations = collectPassengerDestinations();
+        }
+        snapshot = new ElevatorSnapshot(this, currentFloor, direction, state, minFloor, maxFloor,
+            destinationFloors.toArray(), destinationFloors.getVersion(), capacity, load, assignedPassengers,
+            passengerDestinations);
+        if (snapshotListener != null) {
+            snapshotListener.accept(snapshot);
+        }
+    }
+
+    private int[] collectPassengerDestinations() {
+        int count = 0;
+        for (int passengers : passengersByDestination) {
+            if (passengers > 0) {
+                count++;
+            }
+        }
+        int[] floors = new int[count];
+        for (int index = 0, next = 0; next < count; index++) {
+            if (passengersByDestination[index] > 0) {
+                floors[next++] = index + minFloor;
+            }
+        }
+        return floors;
+    }
+
+    /**
+     * Returns the latest published state of the elevator without taking its lock
+     * @return A consistent snapshot of the elevator
+     */
+    public ElevatorSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public ElevatorMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets the clock used to timestamp pickups and drop-offs
+     * @param clock The clock of the controller driving this elevator
+     */
+    public void setClock(SimulationClock clock) {
         synchronized (lock) {
-            return state;
+            this.clock = clock;
         }
     }
 
-    public List<Integer> getDestinationFloors() {
+    public SimulationClock getClock() {
         synchronized (lock) {
-            return new ArrayList<>(destinationFloors);
+            return clock;
         }
     }
-} 
\ No newline at end of file
+
+    public String getId() {
+        return id;
+    }
+
+    public int getMinFloor() {
+        return minFloor;
+    }
+
+    public int getMaxFloor() {
+        return maxFloor;
+    }
+
+    public int getCurrentFloor() {
+        return getSnapshot().getCurrentFloor();
+    }
+
+    public Direction getDirection() {
+        return getSnapshot().getDirection();
+    }
+
+    public ElevatorState getState() {
+        return getSnapshot().getState();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of passengers on board as of the latest snapshot
+     * @return The current load
+     */
+    public int getLoad() {
+        return getSnapshot().getLoad();
+    }
+
+    public StopOrderingPolicy getStopOrderingPolicy() {
+        return stopOrderingPolicy;
+    }
+
+    /**
+     * Returns the pending destination floors as of the latest snapshot, in ascending floor order
+     * @return An unmodifiable list of the destination floors
+     */
+    public List<Integer> getDestinationFloors() {
+        return getSnapshot().getStops();
+    }
+}
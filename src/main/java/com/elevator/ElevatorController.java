@@ -1,50 +1,648 @@
 package com.elevator;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.logging.Logger;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Level;
 
 public class ElevatorController {
-    private static final Logger logger = Logger.getLogger(ElevatorController.class.getName());
+    private static final EventLog logger = EventLog.getLog(ElevatorController.class);
+    private static final int MAX_DISPATCH_BATCH_SIZE = 256;
     private static volatile ElevatorController instance; // Singleton instance
 
-    private List<Elevator> elevators;
+    private final List<Elevator> elevators;
+    private final int minFloor;
+    private final int maxFloor;
     private ExecutorService executorService;
     private final Object lock = new Object();
+    // Held shared while requests are journaled and assigned, and exclusively while a checkpoint
+    // is captured or journaling changes; taken before lock
+    private final ReentrantReadWriteLock intakeLock = new ReentrantReadWriteLock();
     private SchedulingStrategy schedulingStrategy;
+    // Used instead of the scheduling strategy while the dispatcher is overloaded under OverloadPolicy.DEGRADE
+    private SchedulingStrategy overloadStrategy = new SCANStrategy();
+    // With coalescing on, the car last given a requestElevator hall call from each floor and direction,
+    // indexed as the dispatcher's table is; guarded by lock
+    private Elevator[] hallCalls;
+    private volatile ParkingPolicy parkingPolicy = ParkingPolicy.STAY;
+    private volatile TraceWriter traceWriter;
+    private volatile ReassignmentEngine reassignmentEngine;
+    private final AtomicReference<TraceWriter> journal = new AtomicReference<>();
+    private volatile CheckpointStore checkpointStore;
+    private long journalGeneration; // Guarded by the intake write lock
     private ElevatorFactory elevatorFactory;
+    private final SimulationClock clock;
+    private final boolean ownsClock;
+    private final ExecutorService dispatchExecutor;
+    private final RequestDispatcher requestDispatcher;
+    private final MetricsRegistry metrics;
+    private final FleetIndex fleetIndex = new FleetIndex();
+    private final ElevatorEventStream eventStream = new ElevatorEventStream();
+    private final ReachabilityIndex reachability;
+    // The next leg of each routed trip, keyed by the leg the passenger is riding now
+    private final Map<Request, Request> onwardLegs = new ConcurrentHashMap<>();
+    private volatile boolean running = true;
 
     // Make constructor private for Singleton
-    private ElevatorController(int numElevators, int minFloor, int maxFloor) {
-        logger.log(Level.INFO, "Creating elevator controller with {0} elevators", numElevators);
+    private ElevatorController(int numElevators, int minFloor, int maxFloor, SimulationClock clock,
+                               boolean ownsClock, ExecutionMode executionMode, ElevatorFactory elevatorFactory) {
+        this(Collections.nCopies(numElevators, ServedFloors.range(minFloor, maxFloor)), minFloor, maxFloor, clock,
+            ownsClock, executionMode, elevatorFactory);
+    }
+
+    private ElevatorController(List<ServedFloors> cars, int minFloor, int maxFloor, SimulationClock clock,
+                               boolean ownsClock, ExecutionMode executionMode, ElevatorFactory elevatorFactory) {
+        int numElevators = cars.size();
+        logger.log(Level.INFO, "Creating elevator controller with {0} elevators in {1} mode",
+            numElevators, executionMode);
         this.elevators = new ArrayList<>();
-        this.executorService = Executors.newFixedThreadPool(numElevators);
+        this.minFloor = minFloor;
+        this.maxFloor = maxFloor;
+        this.clock = clock;
+        this.ownsClock = ownsClock;
+        this.metrics = new MetricsRegistry(elevators, clock);
+        this.executorService = createExecutorService(numElevators, executionMode);
         this.schedulingStrategy = new SCANStrategy(); // Default strategy
-        this.elevatorFactory = new StandardElevatorFactory(); // Default factory
+        this.elevatorFactory = elevatorFactory;
+        // Virtual-time controllers dispatch on the clock so simulations stay single-threaded and deterministic
+        this.dispatchExecutor = clock instanceof VirtualClock ? null : Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "elevator-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.requestDispatcher = new RequestDispatcher(clock,
+            dispatchExecutor != null ? dispatchExecutor : task -> clock.schedule(0, task),
+            MAX_DISPATCH_BATCH_SIZE, this::dispatchBatch);
         
         for (int i = 0; i < numElevators; i++) {
-            Elevator elevator = elevatorFactory.createElevator(minFloor, maxFloor);
+            ServedFloors floors = cars.get(i);
+            Elevator elevator = elevatorFactory.createElevator(floors.getMinFloor(), floors.getMaxFloor());
+            if (!floors.isContinuous()) {
+                elevator.setServedFloors(floors);
+            }
+            elevator.setClock(clock);
+            elevator.setEventStream(eventStream);
+            fleetIndex.add(elevator, elevators.size());
             elevators.add(elevator);
-            executorService.submit(elevator);
+            elevator.setIdleListener(() -> park(elevator));
+            if (executorService != null) {
+                executorService.submit(elevator);
+            } else {
+                // Parked elevators are only stepped again once a new destination wakes them up
+                elevator.setWakeUpListener(() -> scheduleStep(elevator, 0));
+                scheduleStep(elevator, 0);
+            }
             logger.log(Level.INFO, "Elevator {0} started", i + 1);
         }
+        this.reachability = new ReachabilityIndex(elevators, minFloor, maxFloor);
+        if (!reachability.isUniform()) {
+            for (Elevator elevator : elevators) {
+                elevator.setDropOffListener(this::transfer);
+            }
+        }
     }
 
-    // Thread-safe Singleton accessor
+    private static ExecutorService createExecutorService(int numElevators, ExecutionMode executionMode) {
+        switch (executionMode) {
+            case THREAD_PER_ELEVATOR:
+                return Executors.newFixedThreadPool(numElevators);
+            case VIRTUAL_THREADS:
+                try {
+                    // Looked up reflectively so the project still builds and runs on older JDKs
+                    return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+                } catch (ReflectiveOperationException e) {
+                    logger.warning("Virtual threads are not supported by this runtime, using platform threads");
+                    return Executors.newFixedThreadPool(numElevators);
+                }
+            default:
+                return null;
+        }
+    }
+
+    // Thread-safe Singleton accessor. A controller that has been shut down rejects requests, so it is replaced.
     public static ElevatorController getInstance(int numElevators, int minFloor, int maxFloor) {
-        if (instance == null) {
+        if (instance == null || !instance.running) {
             synchronized (ElevatorController.class) {
-                if (instance == null) {
-                    instance = new ElevatorController(numElevators, minFloor, maxFloor);
+                if (instance == null || !instance.running) {
+                    instance = new ElevatorController(numElevators, minFloor, maxFloor, new RealTimeClock(), true,
+                        ExecutionMode.THREAD_PER_ELEVATOR, new StandardElevatorFactory());
                 }
             }
         }
+        if (instance.elevators.size() != numElevators || instance.minFloor != minFloor || instance.maxFloor != maxFloor) {
+            logger.log(Level.WARNING, "Elevator controller already exists, ignoring requested fleet of {0} elevators; "
+                + "use newController for independent controllers", numElevators);
+        }
         return instance;
     }
 
+    /**
+     * Creates a standalone controller whose elevators are stepped by the given virtual clock
+     * instead of by their own threads. Nothing moves until the clock is advanced.
+     * @param numElevators The number of elevators
+     * @param minFloor The lowest floor served
+     * @param maxFloor The highest floor served
+     * @param clock The virtual clock driving the simulation
+     * @return A new controller, independent of the singleton instance
+     */
+    public static ElevatorController newSimulation(int numElevators, int minFloor, int maxFloor, VirtualClock clock) {
+        return newSimulation(numElevators, minFloor, maxFloor, clock, new StandardElevatorFactory());
+    }
+
+    /**
+     * Creates a standalone virtual-time controller whose elevators are built by the given factory
+     * @param numElevators The number of elevators
+     * @param minFloor The lowest floor served
+     * @param maxFloor The highest floor served
+     * @param clock The virtual clock driving the simulation
+     * @param elevatorFactory The factory used to build each elevator
+     * @return A new controller, independent of the singleton instance
+     */
+    public static ElevatorController newSimulation(int numElevators, int minFloor, int maxFloor, VirtualClock clock,
+                                                   ElevatorFactory elevatorFactory) {
+        return new ElevatorController(numElevators, minFloor, maxFloor, clock, false, ExecutionMode.SCHEDULED,
+            elevatorFactory);
+    }
+
+    /**
+     * Creates a standalone real-time controller using the given execution engine
+     * @param numElevators The number of elevators
+     * @param minFloor The lowest floor served
+     * @param maxFloor The highest floor served
+     * @param executionMode How the elevators are driven
+     * @return A new controller, independent of the singleton instance
+     */
+    public static ElevatorController newController(int numElevators, int minFloor, int maxFloor,
+                                                   ExecutionMode executionMode) {
+        return newController(numElevators, minFloor, maxFloor, executionMode, new StandardElevatorFactory());
+    }
+
+    /**
+     * Creates a standalone real-time controller whose elevators are built by the given factory,
+     * for example one zone of a building with its own bank of cars
+     * @param numElevators The number of elevators
+     * @param minFloor The lowest floor served
+     * @param maxFloor The highest floor served
+     * @param executionMode How the elevators are driven
+     * @param elevatorFactory The factory used to build each elevator
+     * @return A new controller, independent of the singleton instance
+     */
+    public static ElevatorController newController(int numElevators, int minFloor, int maxFloor,
+                                                   ExecutionMode executionMode, ElevatorFactory elevatorFactory) {
+        return new ElevatorController(numElevators, minFloor, maxFloor, new RealTimeClock(), true, executionMode,
+            elevatorFactory);
+    }
+
+    /**
+     * Creates a standalone virtual-time controller over a group of cars that each stop at their own floors,
+     * for example local cars, express cars and sky-lobby shuttles
+     * @param cars The floors each car serves, one entry per car
+     * @param clock The virtual clock driving the simulation
+     * @return A new controller, independent of the singleton instance
+     */
+    public static ElevatorController newGroupSimulation(List<ServedFloors> cars, VirtualClock clock) {
+        return newGroupSimulation(cars, clock, new StandardElevatorFactory());
+    }
+
+    /**
+     * Creates a standalone virtual-time controller over a group of cars whose elevators are built by the given factory
+     * @param cars The floors each car serves, one entry per car
+     * @param clock The virtual clock driving the simulation
+     * @param elevatorFactory The factory used to build each elevator
+     * @return A new controller, independent of the singleton instance
+     */
+    public static ElevatorController newGroupSimulation(List<ServedFloors> cars, VirtualClock clock,
+                                                        ElevatorFactory elevatorFactory) {
+        return new ElevatorController(cars, lowestFloor(cars), highestFloor(cars), clock, false,
+            ExecutionMode.SCHEDULED, elevatorFactory);
+    }
+
+    /**
+     * Creates a standalone real-time controller over a group of cars that each stop at their own floors
+     * @param cars The floors each car serves, one entry per car
+     * @param executionMode How the elevators are driven
+     * @return A new controller, independent of the singleton instance
+     */
+    public static ElevatorController newGroupController(List<ServedFloors> cars, ExecutionMode executionMode) {
+        return newGroupController(cars, executionMode, new StandardElevatorFactory());
+    }
+
+    /**
+     * Creates a standalone real-time controller over a group of cars whose elevators are built by the given factory
+     * @param cars The floors each car serves, one entry per car
+     * @param executionMode How the elevators are driven
+     * @param elevatorFactory The factory used to build each elevator
+     * @return A new controller, independent of the singleton instance
+     */
+    public static ElevatorController newGroupController(List<ServedFloors> cars, ExecutionMode executionMode,
+                                                        ElevatorFactory elevatorFactory) {
+        return new ElevatorController(cars, lowestFloor(cars), highestFloor(cars), new RealTimeClock(), true,
+            executionMode, elevatorFactory);
+    }
+
+    private static int lowestFloor(List<ServedFloors> cars) {
+        return cars.stream().mapToInt(ServedFloors::getMinFloor).min()
+            .orElseThrow(() -> new IllegalArgumentException("A group needs at least one car"));
+    }
+
+    private static int highestFloor(List<ServedFloors> cars) {
+        return cars.stream().mapToInt(ServedFloors::getMaxFloor).max()
+            .orElseThrow(() -> new IllegalArgumentException("A group needs at least one car"));
+    }
+
+    /**
+     * Rebuilds a real-time controller from the latest checkpoint in the store
+     * @param store The store the crashed controller checkpointed to
+     * @param executionMode How the elevators are driven
+     * @return A new controller in the state the old one was in when its journal ends
+     * @throws IOException If the checkpoint or a journal cannot be read
+     */
+    public static ElevatorController restore(CheckpointStore store, ExecutionMode executionMode) throws IOException {
+        return restore(store, executionMode, null);
+    }
+
+    /**
+     * Rebuilds a real-time controller from the latest checkpoint in the store, then assigns the requests
+     * queued at the checkpoint and those journaled after it. Checkpointing is not resumed until
+     * enableCheckpoints is called again. Each car is rebuilt serving the floors it served before.
+     * @param store The store the crashed controller checkpointed to
+     * @param executionMode How the elevators are driven
+     * @param elevatorFactory The factory used to build each elevator, or null to build standard
+     *                        elevators with the stop ordering and capacities they were checkpointed with
+     * @return A new controller in the state the old one was in when its journal ends
+     * @throws IOException If the checkpoint or a journal cannot be read, or the factory builds cars
+     *                     of a different capacity than the checkpointed ones
+     */
+    public static ElevatorController restore(CheckpointStore store, ExecutionMode executionMode,
+                                             ElevatorFactory elevatorFactory) throws IOException {
+        FleetCheckpoint checkpoint = store.readCheckpoint();
+        List<Trip> journaled = readJournals(store, checkpoint);
+        ElevatorController controller = new ElevatorController(servedFloors(checkpoint), checkpoint.getMinFloor(),
+            checkpoint.getMaxFloor(), new RealTimeClock(), true, executionMode,
+            elevatorFactory != null ? elevatorFactory : savedCars(checkpoint));
+        controller.restore(checkpoint, journaled);
+        return controller;
+    }
+
+    /**
+     * Rebuilds a virtual-time controller from the latest checkpoint in the store
+     * @param store The store the crashed controller checkpointed to
+     * @param clock The virtual clock driving the simulation
+     * @return A new controller in the state the old one was in when its journal ends
+     * @throws IOException If the checkpoint or a journal cannot be read
+     */
+    public static ElevatorController restoreSimulation(CheckpointStore store, VirtualClock clock) throws IOException {
+        return restoreSimulation(store, clock, null);
+    }
+
+    /**
+     * Rebuilds a virtual-time controller from the latest checkpoint in the store. The clock is first
+     * advanced to the last recorded request, so restored waits are measured as they were before.
+     * @param store The store the crashed controller checkpointed to
+     * @param clock The virtual clock driving the simulation
+     * @param elevatorFactory The factory used to build each elevator, or null to build standard
+     *                        elevators with the stop ordering and capacities they were checkpointed with
+     * @return A new controller in the state the old one was in when its journal ends
+     * @throws IOException If the checkpoint or a journal cannot be read, or the factory builds cars
+     *                     of a different capacity than the checkpointed ones
+     */
+    public static ElevatorController restoreSimulation(CheckpointStore store, VirtualClock clock,
+                                                       ElevatorFactory elevatorFactory) throws IOException {
+        FleetCheckpoint checkpoint = store.readCheckpoint();
+        List<Trip> journaled = readJournals(store, checkpoint);
+        long resumeAt = checkpoint.getTakenAt();
+        for (Trip trip : journaled) {
+            resumeAt = Math.max(resumeAt, trip.getRequestTime());
+        }
+        clock.advanceTo(resumeAt);
+        ElevatorController controller = new ElevatorController(servedFloors(checkpoint), checkpoint.getMinFloor(),
+            checkpoint.getMaxFloor(), clock, false, ExecutionMode.SCHEDULED,
+            elevatorFactory != null ? elevatorFactory : savedCars(checkpoint));
+        controller.restore(checkpoint, journaled);
+        return controller;
+    }
+
+    private static List<ServedFloors> servedFloors(FleetCheckpoint checkpoint) {
+        List<ServedFloors> cars = new ArrayList<>(checkpoint.getElevatorCount());
+        for (FleetCheckpoint.CarState car : checkpoint.getCars()) {
+            cars.add(car.servedFloors);
+        }
+        return cars;
+    }
+
+    // Builds the cars in fleet order, each with the stop ordering and capacity it was checkpointed with
+    private static ElevatorFactory savedCars(FleetCheckpoint checkpoint) {
+        Iterator<FleetCheckpoint.CarState> cars = checkpoint.getCars().iterator();
+        return (minFloor, maxFloor) -> {
+            FleetCheckpoint.CarState car = cars.next();
+            return new StandardElevatorFactory(car.stopOrderingPolicy, car.capacity).createElevator(minFloor, maxFloor);
+        };
+    }
+
+    private static List<Trip> readJournals(CheckpointStore store, FleetCheckpoint checkpoint) throws IOException {
+        List<Trip> journaled = new ArrayList<>();
+        for (Path journal : store.journalsSince(checkpoint)) {
+            if (Files.size(journal) == 0) {
+                // Created by a crash that came before its header was written
+                continue;
+            }
+            try (TraceReader reader = new TraceReader(journal)) {
+                while (reader.next()) {
+                    journaled.add(new Trip(reader.toRequest(), reader.getTimestamp()));
+                }
+            }
+        }
+        return journaled;
+    }
+
+    private void restore(FleetCheckpoint checkpoint, List<Trip> journaled) throws IOException {
+        List<FleetCheckpoint.CarState> cars = checkpoint.getCars();
+        for (int i = 0; i < cars.size(); i++) {
+            if (elevators.get(i).getCapacity() != cars.get(i).capacity) {
+                shutdown();
+                throw new IOException("Elevator " + cars.get(i).id + " was checkpointed with capacity "
+                    + cars.get(i).capacity + " but the factory builds capacity " + elevators.get(i).getCapacity());
+            }
+        }
+        synchronized (lock) {
+            for (int i = 0; i < cars.size(); i++) {
+                FleetCheckpoint.CarState car = cars.get(i);
+                elevators.get(i).restoreState(car);
+                for (Map.Entry<Trip, int[]> onward : car.onwardFloors.entrySet()) {
+                    Request leg = onward.getKey().getRequest();
+                    for (int floor : onward.getValue()) {
+                        Request next = new Request(leg.getDestinationFloor(), floor);
+                        onwardLegs.put(leg, next);
+                        leg = next;
+                    }
+                }
+            }
+            for (Trip queued : checkpoint.getQueuedRequests()) {
+                assign(queued.getRequest(), queued.getRequestTime());
+            }
+            for (Trip trip : journaled) {
+                assign(trip.getRequest(), trip.getRequestTime());
+            }
+        }
+        logger.log(Level.INFO, "Restored {0} elevators and replayed {1} journaled requests",
+            checkpoint.getElevatorCount(), journaled.size());
+    }
+
+    // Runs one step of the elevator after the delay, then reschedules it for when that step completes
+    private void scheduleStep(Elevator elevator, long delayMillis) {
+        if (!running) {
+            return;
+        }
+        clock.schedule(delayMillis, () -> {
+            if (running && elevator.isRunning()) {
+                long stepMillis = elevator.step();
+                if (stepMillis != Elevator.PARKED) {
+                    scheduleStep(elevator, stepMillis);
+                }
+            }
+        });
+    }
+
+    public int getMinFloor() {
+        return minFloor;
+    }
+
+    public int getMaxFloor() {
+        return maxFloor;
+    }
+
+    /**
+     * Returns whether this controller's elevators can carry the request, changing cars if they have to
+     * @param request The elevator request
+     * @return true if one car, or a route through transfer floors, connects both floors of the request
+     */
+    public boolean serves(Request request) {
+        if (!serves(request.getSourceFloor()) || !serves(request.getDestinationFloor())) {
+            return false;
+        }
+        return reachability.isUniform() || reachability.canServe(request)
+            || !reachability.route(request.getSourceFloor(), request.getDestinationFloor()).isEmpty();
+    }
+
+    public boolean serves(int floor) {
+        if (floor < minFloor || floor > maxFloor) {
+            return false;
+        }
+        for (Elevator elevator : elevators) {
+            if (elevator.serves(floor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public ReachabilityIndex getReachabilityIndex() {
+        return reachability;
+    }
+
+    // Sends an elevator that has just run out of stops to wherever the parking policy wants it
+    private void park(Elevator elevator) {
+        if (!running) {
+            return;
+        }
+        ElevatorSnapshot snapshot = elevator.getSnapshot();
+        int floor = parkingPolicy.selectParkingFloor(snapshot, getFleetSnapshot(), clock.currentTimeMillis());
+        if (floor != snapshot.getCurrentFloor() && elevator.serves(floor)) {
+            logger.log(Level.FINE, "Parking elevator {0} at floor {1}", elevator.getId(), floor);
+            elevator.addDestination(floor);
+        }
+    }
+
+    /**
+     * Starts re-optimizing pending hall calls on a background pass on the controller's clock.
+     * Calls still waiting for pickup move to another car when that would save more than the threshold.
+     * @param intervalMillis The time between passes
+     * @param thresholdMillis The estimated time a move must save
+     */
+    public void enableReassignment(long intervalMillis, long thresholdMillis) {
+        ReassignmentEngine engine = new ReassignmentEngine(elevators, thresholdMillis);
+        this.reassignmentEngine = engine;
+        scheduleReassignment(engine, intervalMillis);
+        logger.log(Level.INFO, "Hall call reassignment every {0} ms above {1} ms saved", intervalMillis,
+            thresholdMillis);
+    }
+
+    public void disableReassignment() {
+        this.reassignmentEngine = null;
+    }
+
+    public ReassignmentEngine getReassignmentEngine() {
+        return reassignmentEngine;
+    }
+
+    // Runs a pass after the interval and reschedules itself until the engine is replaced or disabled
+    private void scheduleReassignment(ReassignmentEngine engine, long intervalMillis) {
+        if (!running) {
+            return;
+        }
+        clock.schedule(intervalMillis, () -> {
+            if (running && reassignmentEngine == engine) {
+                engine.rebalance();
+                scheduleReassignment(engine, intervalMillis);
+            }
+        });
+    }
+
+    /**
+     * Starts checkpointing to the store: takes a checkpoint now and then after every interval on the
+     * controller's clock, journaling every request made in between
+     * @param store The store to checkpoint to
+     * @param intervalMillis The time between checkpoints
+     * @throws IOException If the first checkpoint cannot be written
+     */
+    public void enableCheckpoints(CheckpointStore store, long intervalMillis) throws IOException {
+        intakeLock.writeLock().lock();
+        try {
+            this.checkpointStore = store;
+            this.journalGeneration = store.nextGeneration() - 1;
+        } finally {
+            intakeLock.writeLock().unlock();
+        }
+        checkpoint();
+        scheduleCheckpoint(store, intervalMillis);
+        logger.log(Level.INFO, "Checkpointing every {0} ms to {1}", intervalMillis, store.getDirectory());
+    }
+
+    public void disableCheckpoints() {
+        TraceWriter closing;
+        intakeLock.writeLock().lock();
+        try {
+            checkpointStore = null;
+            closing = journal.getAndSet(null);
+        } finally {
+            intakeLock.writeLock().unlock();
+        }
+        closeJournal(closing);
+    }
+
+    /**
+     * Writes a checkpoint of the fleet and starts a new journal. The state is captured on the dispatcher,
+     * between batches, with intake held, so every request is either in the checkpoint or in the new journal.
+     * @return The checkpoint written
+     * @throws IOException If the checkpoint or the new journal cannot be written
+     */
+    public FleetCheckpoint checkpoint() throws IOException {
+        FleetCheckpoint checkpoint;
+        if (dispatchExecutor == null) {
+            checkpoint = captureCheckpoint();
+        } else {
+            Callable<FleetCheckpoint> capture = this::captureCheckpoint;
+            try {
+                checkpoint = dispatchExecutor.submit(capture).get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while taking a checkpoint", e);
+            }
+        }
+        CheckpointStore store = checkpointStore;
+        if (store != null) {
+            store.writeCheckpoint(checkpoint);
+        }
+        return checkpoint;
+    }
+
+    private FleetCheckpoint captureCheckpoint() throws IOException {
+        TraceWriter previous;
+        FleetCheckpoint checkpoint;
+        intakeLock.writeLock().lock();
+        try {
+            CheckpointStore store = checkpointStore;
+            if (store == null) {
+                throw new IllegalStateException("Checkpoints are not enabled");
+            }
+            TraceWriter next = store.openJournal(journalGeneration + 1);
+            synchronized (lock) {
+                List<FleetCheckpoint.CarState> cars = new ArrayList<>(elevators.size());
+                for (Elevator elevator : elevators) {
+                    cars.add(elevator.saveState(this::onwardFloors));
+                }
+                List<Trip> queued = new ArrayList<>();
+                for (RequestDispatcher.PendingRequest pending : requestDispatcher.getPendingRequests()) {
+                    queued.add(new Trip(pending.getRequest(), pending.getSubmitTime()));
+                    // Held by the checkpoint, so it is not journaled again when drained
+                    pending.markCheckpointed();
+                }
+                journalGeneration++;
+                checkpoint = new FleetCheckpoint(clock.currentTimeMillis(), journalGeneration, minFloor, maxFloor,
+                    cars, queued);
+                // Swapped before the controller lock is released, so no request lands in the old journal
+                previous = journal.getAndSet(next);
+            }
+        } finally {
+            intakeLock.writeLock().unlock();
+        }
+        closeJournal(previous);
+        return checkpoint;
+    }
+
+    // The destinations of the legs after this one, for a passenger routed through transfer floors
+    private int[] onwardFloors(Request leg) {
+        if (!onwardLegs.containsKey(leg)) {
+            return new int[0];
+        }
+        List<Integer> floors = new ArrayList<>();
+        for (Request next = onwardLegs.get(leg); next != null; next = onwardLegs.get(next)) {
+            floors.add(next.getDestinationFloor());
+        }
+        return floors.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private void closeJournal(TraceWriter closing) {
+        if (closing == null) {
+            return;
+        }
+        try {
+            closing.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to close request journal: {0}", e.getMessage());
+        }
+    }
+
+    // Takes a checkpoint after the interval and reschedules itself until checkpointing is disabled
+    private void scheduleCheckpoint(CheckpointStore store, long intervalMillis) {
+        if (!running) {
+            return;
+        }
+        clock.schedule(intervalMillis, () -> {
+            if (running && checkpointStore == store) {
+                try {
+                    checkpoint();
+                } catch (IOException | IllegalStateException e) {
+                    logger.log(Level.SEVERE, "Failed to write checkpoint: {0}", e.getMessage());
+                }
+                scheduleCheckpoint(store, intervalMillis);
+            }
+        });
+    }
+
+    public SimulationClock getClock() {
+        return clock;
+    }
+
     public void setSchedulingStrategy(SchedulingStrategy strategy) {
         synchronized (lock) {
             this.schedulingStrategy = strategy;
@@ -52,6 +650,11 @@ public class ElevatorController {
         }
     }
 
+    public void setParkingPolicy(ParkingPolicy policy) {
+        this.parkingPolicy = policy;
+        logger.info("Parking policy changed to: " + policy.getClass().getSimpleName());
+    }
+
     public void setElevatorFactory(ElevatorFactory factory) {
         synchronized (lock) {
             this.elevatorFactory = factory;
@@ -59,35 +662,481 @@ public class ElevatorController {
         }
     }
 
+    /**
+     * Assigns a request straight away on the caller's thread. Coalescing and backpressure apply here as
+     * they do to submitted requests: a repeated hall call joins the car already coming for it, and while
+     * the dispatcher is over its backlog limit the request is rejected or assigned with the overload strategy.
+     * @param request The elevator request
+     * @throws RejectedExecutionException If the controller has been shut down or backpressure rejects the request
+     */
     public void requestElevator(Request request) {
+        if (!running) {
+            throw shutDown();
+        }
+        long requestTime = clock.currentTimeMillis();
+        boolean overloaded = requestDispatcher.isOverloaded();
+        if (overloaded && requestDispatcher.getOverloadPolicy() == OverloadPolicy.REJECT) {
+            // Never accepted, so neither journaled nor traced
+            requestDispatcher.countRejected();
+            throw new RejectedExecutionException("Dispatch queue is full at "
+                + requestDispatcher.getMaxQueuedRequests() + " requests");
+        }
+        // Journaled and assigned with intake held, so a checkpoint never holds the request without its
+        // journal entry or the reverse. The journal is written before the controller lock is taken,
+        // so the disk write holds up only this caller and not dispatch for the rest of the fleet.
+        intakeLock.readLock().lock();
+        try {
+            trace(request, requestTime);
+            TraceWriter journalWriter = journal.get();
+            if (journalWriter != null) {
+                try {
+                    journalWriter.record(request, requestTime);
+                    // Flushed before returning so the entry survives the process crashing
+                    journalWriter.flush();
+                } catch (IOException e) {
+                    stopJournal(journalWriter, e);
+                }
+            }
+            synchronized (lock) {
+                if (!coalesce(request, requestTime)) {
+                    Elevator elevator = assign(overloaded ? overloadStrategy : schedulingStrategy, request,
+                        requestTime);
+                    int slot = hallCallSlot(request);
+                    if (slot >= 0) {
+                        hallCalls[slot] = elevator;
+                    }
+                }
+            }
+        } finally {
+            intakeLock.readLock().unlock();
+        }
+    }
+
+    // Must be called while holding the controller lock. A hall call from the same floor in the same direction
+    // as one still waiting for its car goes to that car without a strategy pass.
+    private boolean coalesce(Request request, long requestTime) {
+        int slot = hallCallSlot(request);
+        Elevator elevator = slot >= 0 ? hallCalls[slot] : null;
+        if (elevator == null || !elevator.hasWaitingCall(request.getSourceFloor(), request.getDirection())
+            || !elevator.canServe(request) || !elevator.assignRequest(request, requestTime)) {
+            return false;
+        }
+        parkingPolicy.recordRequest(request, requestTime);
+        metrics.recordDispatch(0, 1, 0);
+        requestDispatcher.countCoalesced();
+        return true;
+    }
+
+    // Must be called while holding the controller lock
+    private int hallCallSlot(Request request) {
+        int index = request.getSourceFloor() - minFloor;
+        if (hallCalls == null || index < 0 || 2 * index >= hallCalls.length) {
+            return -1;
+        }
+        return 2 * index + (request.getDirection() == Direction.UP ? 0 : 1);
+    }
+
+    /**
+     * Records every request arriving at this controller to the trace, until set to null.
+     * The caller still owns the writer and closes it.
+     * @param writer The trace to append to, or null to stop recording
+     */
+    public void setTraceWriter(TraceWriter writer) {
+        this.traceWriter = writer;
+        logger.info(writer != null ? "Request trace recording started" : "Request trace recording stopped");
+    }
+
+    private void trace(Request request, long requestTime) {
+        TraceWriter writer = traceWriter;
+        if (writer != null) {
+            try {
+                writer.record(request, requestTime);
+            } catch (IOException e) {
+                traceWriter = null;
+                logger.log(Level.SEVERE, "Failed to record request trace, recording stopped: {0}", e.getMessage());
+            }
+        }
+    }
+
+    // Must be called on the dispatcher while holding intake. Appends a drained batch to the journal with a
+    // single flush, skipping requests a checkpoint already holds as queued.
+    private void journal(List<RequestDispatcher.PendingRequest> batch) {
+        TraceWriter journalWriter = journal.get();
+        if (journalWriter == null) {
+            return;
+        }
+        try {
+            for (RequestDispatcher.PendingRequest pending : batch) {
+                journal(journalWriter, pending);
+                for (RequestDispatcher.PendingRequest follower : pending.getFollowers()) {
+                    journal(journalWriter, follower);
+                }
+            }
+            journalWriter.flush();
+        } catch (IOException e) {
+            stopJournal(journalWriter, e);
+        }
+    }
+
+    private void journal(TraceWriter journalWriter, RequestDispatcher.PendingRequest pending) throws IOException {
+        if (!pending.isCheckpointed()) {
+            journalWriter.record(pending.getRequest(), pending.getSubmitTime());
+        }
+    }
+
+    private void stopJournal(TraceWriter journalWriter, IOException cause) {
+        // Only the writer that failed is dropped, never a newer journal swapped in since
+        if (journal.compareAndSet(journalWriter, null)) {
+            logger.log(Level.SEVERE, "Failed to append to request journal, journaling stopped: {0}",
+                cause.getMessage());
+        }
+    }
+
+    /**
+     * Queues a request for asynchronous assignment. The caller never blocks on scheduling;
+     * requests are drained in batches by the dispatcher.
+     * @param request The elevator request
+     * @return A future completed with the assignment, or exceptionally if no elevator is available
+     *         or the controller has been shut down
+     */
+    public CompletableFuture<Assignment> submit(Request request) {
+        if (!running) {
+            // A virtual clock outlives the controller and would still run the drain
+            return CompletableFuture.failedFuture(shutDown());
+        }
+        long requestTime = clock.currentTimeMillis();
+        // Journaled once drained, a batch at a time on the dispatcher, so submitters never wait on the disk
+        CompletableFuture<Assignment> future = requestDispatcher.submit(request);
+        // Requests turned away by backpressure were never accepted, so they are not recorded
+        if (!future.isCompletedExceptionally()) {
+            trace(request, requestTime);
+        }
+        return future;
+    }
+
+    /**
+     * Coalesces hall calls: a submitted request from the same floor in the same direction as one still
+     * queued, or a requestElevator call repeating one whose passengers are still waiting for their car,
+     * goes to the same car without its own strategy pass. Every passenger is still carried.
+     * @param enabled true to coalesce, false to dispatch every request on its own
+     */
+    public void setCoalescing(boolean enabled) {
         synchronized (lock) {
-            logger.log(Level.INFO, "Processing new request: Floor {0} -> Floor {1}", 
-                new Object[]{request.getSourceFloor(), request.getDestinationFloor()});
-            
-            Elevator bestElevator = schedulingStrategy.selectElevator(elevators, request);
-            if (bestElevator != null) {
-                logger.log(Level.INFO, "Assigned request to elevator at floor {0}", 
-                    bestElevator.getCurrentFloor());
-                bestElevator.addDestination(request.getSourceFloor());
-                bestElevator.addDestination(request.getDestinationFloor());
+            hallCalls = enabled ? new Elevator[2 * (maxFloor - minFloor + 1)] : null;
+        }
+        requestDispatcher.setCoalescing(minFloor, maxFloor, enabled);
+        logger.info(enabled ? "Hall call coalescing enabled" : "Hall call coalescing disabled");
+    }
+
+    /**
+     * Bounds the backlog of submitted requests. Past the limit, REJECT fails new requests straight away,
+     * while DEGRADE keeps accepting them but dispatches with the overload strategy until the backlog clears.
+     * requestElevator follows the same policy while the backlog is past the limit, throwing
+     * RejectedExecutionException under REJECT.
+     * @param maxQueuedRequests The backlog limit, or 0 for no limit
+     * @param policy What to do once the limit is reached
+     */
+    public void setBackpressure(int maxQueuedRequests, OverloadPolicy policy) {
+        requestDispatcher.setQueueLimit(maxQueuedRequests, policy);
+        logger.log(Level.INFO, "Backpressure set to {0} above {1} queued requests", policy, maxQueuedRequests);
+    }
+
+    public void setOverloadStrategy(SchedulingStrategy strategy) {
+        synchronized (lock) {
+            this.overloadStrategy = strategy;
+            logger.info("Overload strategy changed to: " + strategy.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Returns the metrics of this controller and its elevators, for an exporter to poll
+     * @return The metrics registry
+     */
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    public RequestDispatcher getRequestDispatcher() {
+        return requestDispatcher;
+    }
+
+    /**
+     * Switches submitted requests to batch dispatch: requests are collected for the given
+     * window and then assigned together through SchedulingStrategy.assignRequests
+     * @param batchWindowMillis The collection window in milliseconds, or 0 to assign
+     *                          each submitted request on its own as soon as possible
+     */
+    public void setBatchWindow(long batchWindowMillis) {
+        requestDispatcher.setBatchWindowMillis(batchWindowMillis);
+        logger.log(Level.INFO, "Batch dispatch window set to {0} ms", batchWindowMillis);
+    }
+
+    // Journals and assigns a whole batch under a single acquisition of the controller lock. Intake is held
+    // throughout, so a checkpoint is captured between batches and sees each request either queued, with
+    // no journal entry, or journaled and assigned.
+    private void dispatchBatch(List<RequestDispatcher.PendingRequest> batch) {
+        List<Elevator> assigned;
+        intakeLock.readLock().lock();
+        try {
+            journal(batch);
+            assigned = assignAll(batch);
+        } finally {
+            intakeLock.readLock().unlock();
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            RequestDispatcher.PendingRequest pending = batch.get(i);
+            complete(pending, assigned.get(i));
+            for (RequestDispatcher.PendingRequest follower : pending.getFollowers()) {
+                complete(follower, follower.getAssignedElevator());
+            }
+        }
+    }
+
+    private List<Elevator> assignAll(List<RequestDispatcher.PendingRequest> batch) {
+        List<Elevator> assigned;
+        synchronized (lock) {
+            SchedulingStrategy strategy = schedulingStrategy;
+            // The backlog as it stood when this batch was taken off the queue
+            long backlog = requestDispatcher.getQueuedRequests() + batch.size();
+            int limit = requestDispatcher.getMaxQueuedRequests();
+            if (limit > 0 && backlog > limit && requestDispatcher.getOverloadPolicy() == OverloadPolicy.DEGRADE) {
+                logger.log(Level.FINE, "Dispatch is behind by {0} requests, using the overload strategy", backlog);
+                strategy = overloadStrategy;
+            }
+            if (requestDispatcher.getBatchWindowMillis() > 0) {
+                assigned = assignBatch(strategy, batch);
+            } else {
+                assigned = new ArrayList<>(batch.size());
+                for (RequestDispatcher.PendingRequest pending : batch) {
+                    assigned.add(assign(strategy, pending.getRequest(), pending.getSubmitTime()));
+                }
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                assignFollowers(batch.get(i), assigned.get(i));
+            }
+        }
+        return assigned;
+    }
+
+    // Must be called while holding the controller lock. Coalesced requests ride with the request they joined.
+    private void assignFollowers(RequestDispatcher.PendingRequest leader, Elevator elevator) {
+        List<RequestDispatcher.PendingRequest> followers = leader.getFollowers();
+        if (followers.isEmpty()) {
+            return;
+        }
+        int unassigned = 0;
+        int separate = 0;
+        for (RequestDispatcher.PendingRequest follower : followers) {
+            if (elevator != null && !elevator.canServe(follower.getRequest())) {
+                // The car taking the first request does not stop at this one's destination
+                follower.setAssignedElevator(assign(follower.getRequest(), follower.getSubmitTime()));
+                separate++;
+                continue;
+            }
+            parkingPolicy.recordRequest(follower.getRequest(), follower.getSubmitTime());
+            if (elevator != null && elevator.assignRequest(follower.getRequest(), follower.getSubmitTime())) {
+                follower.setAssignedElevator(elevator);
             } else {
+                unassigned++;
+            }
+        }
+        if (separate < followers.size()) {
+            metrics.recordDispatch(0, followers.size() - separate, unassigned);
+        }
+    }
+
+    private void complete(RequestDispatcher.PendingRequest pending, Elevator elevator) {
+        if (elevator != null) {
+            pending.getFuture().complete(new Assignment(pending.getRequest(), elevator));
+        } else {
+            pending.getFuture().completeExceptionally(
+                new IllegalStateException("No available elevator found for the request"));
+        }
+    }
+
+    // Must be called while holding the controller lock
+    private List<Elevator> assignBatch(SchedulingStrategy strategy, List<RequestDispatcher.PendingRequest> batch) {
+        List<Request> requests = new ArrayList<>(batch.size());
+        for (RequestDispatcher.PendingRequest pending : batch) {
+            requests.add(pending.getRequest());
+        }
+        logger.log(Level.FINE, "Processing batch of {0} requests", requests.size());
+
+        long started = System.nanoTime();
+        List<Elevator> assigned = strategy.assignRequests(elevators, requests);
+        long elapsed = System.nanoTime() - started;
+        int unassigned = 0;
+        int rerouted = 0;
+        for (int i = 0; i < requests.size(); i++) {
+            Elevator elevator = assigned.get(i);
+            if (!reachability.isUniform() && (elevator == null || !elevator.canServe(requests.get(i)))) {
+                // Batch strategies score every car, so cars that do not stop there are sorted out here
+                assigned.set(i, assign(strategy, requests.get(i), batch.get(i).getSubmitTime()));
+                rerouted++;
+                continue;
+            }
+            parkingPolicy.recordRequest(requests.get(i), batch.get(i).getSubmitTime());
+            if (elevator == null) {
+                unassigned++;
                 logger.warning("No available elevator found for the request");
+            } else if (!elevator.assignRequest(requests.get(i), batch.get(i).getSubmitTime())) {
+                // The strategy picked a car that does not serve the request
+                assigned.set(i, null);
+                unassigned++;
             }
         }
+        if (rerouted < requests.size()) {
+            metrics.recordDispatch(elapsed / requests.size(), requests.size() - rerouted, unassigned);
+        }
+        return assigned;
+    }
+
+    // Must be called while holding the controller lock
+    private Elevator assign(Request request, long requestTime) {
+        return assign(schedulingStrategy, request, requestTime);
+    }
+
+    // Must be called while holding the controller lock
+    private Elevator assign(SchedulingStrategy strategy, Request request, long requestTime) {
+        logger.log(Level.FINE, "Processing new request: Floor {0} -> Floor {1}", 
+            request.getSourceFloor(), request.getDestinationFloor());
+        
+        List<Elevator> candidates = elevators;
+        if (!reachability.isUniform()) {
+            if (!reachability.canServe(request)) {
+                return assignRoute(strategy, request, requestTime);
+            }
+            candidates = reachability.eligibleCars(elevators, request);
+        }
+        parkingPolicy.recordRequest(request, requestTime);
+        long started = System.nanoTime();
+        Elevator bestElevator = strategy.selectElevator(fleetIndex, candidates, request);
+        long elapsed = System.nanoTime() - started;
+        if (bestElevator == null) {
+            logger.warning("No available elevator found for the request");
+        } else if (bestElevator.assignRequest(request, requestTime)) {
+            logger.log(Level.FINE, "Assigned request to elevator at floor {0}", 
+                bestElevator.getCurrentFloor());
+        } else {
+            // The strategy picked a car that does not serve the request
+            bestElevator = null;
+        }
+        metrics.recordDispatch(elapsed, 1, bestElevator == null ? 1 : 0);
+        return bestElevator;
+    }
+
+    // Must be called while holding the controller lock. Assigns the first leg; each later leg is
+    // assigned when the passenger is dropped off at its transfer floor.
+    private Elevator assignRoute(SchedulingStrategy strategy, Request request, long requestTime) {
+        List<Integer> route = reachability.route(request.getSourceFloor(), request.getDestinationFloor());
+        if (route.isEmpty()) {
+            metrics.recordDispatch(0, 1, 1);
+            logger.log(Level.WARNING, "No car or transfer connects Floor {0} -> Floor {1}",
+                request.getSourceFloor(), request.getDestinationFloor());
+            return null;
+        }
+        logger.log(Level.FINE, "Routing request through floors {0}", route);
+        Request firstLeg = new Request(route.get(0), route.get(1));
+        Request leg = firstLeg;
+        for (int i = 2; i < route.size(); i++) {
+            Request next = new Request(route.get(i - 1), route.get(i));
+            onwardLegs.put(leg, next);
+            leg = next;
+        }
+        Elevator elevator = assign(strategy, firstLeg, requestTime);
+        if (elevator == null) {
+            dropOnwardLegs(firstLeg);
+        }
+        return elevator;
+    }
+
+    // Called by an elevator holding its own lock, so the next leg is assigned from the clock instead
+    private void transfer(Request leg) {
+        Request next = onwardLegs.remove(leg);
+        if (next == null || !running) {
+            return;
+        }
+        try {
+            clock.schedule(0, () -> {
+                synchronized (lock) {
+                    // assign counts a leg no car takes as unassigned
+                    if (running && assign(next, clock.currentTimeMillis()) == null) {
+                        logger.log(Level.WARNING, "No car for transfer at floor {0}", next.getSourceFloor());
+                        dropOnwardLegs(next);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.log(Level.WARNING, "Dropped transfer at floor {0}: {1}", leg.getDestinationFloor(), e.getMessage());
+            dropOnwardLegs(next);
+        }
+    }
+
+    // Forgets the legs after an unassigned one, since nobody will ride them
+    private void dropOnwardLegs(Request leg) {
+        for (Request next = onwardLegs.remove(leg); next != null; next = onwardLegs.remove(next)) {
+            logger.log(Level.FINE, "Dropped leg Floor {0} -> Floor {1}", next.getSourceFloor(),
+                next.getDestinationFloor());
+        }
+    }
+
+    // Legs of routed trips that have not been assigned yet
+    public int getPendingTransfers() {
+        return onwardLegs.size();
+    }
+
+    private static RejectedExecutionException shutDown() {
+        return new RejectedExecutionException("Elevator controller has been shut down");
     }
 
     public void shutdown() {
+        disableCheckpoints();
         synchronized (lock) {
             logger.info("Shutting down elevator controller");
+            running = false;
             for (Elevator elevator : elevators) {
                 elevator.clearDestinations();
                 elevator.shutdown();
             }
-            executorService.shutdown();
+            if (executorService != null) {
+                executorService.shutdown();
+            }
+            if (dispatchExecutor != null) {
+                dispatchExecutor.shutdown();
+            }
+            if (ownsClock) {
+                clock.shutdown();
+            }
+            eventStream.close();
             logger.info("All elevators and executor service shut down");
         }
     }
 
+    /**
+     * Returns the latest published state of every elevator, read without taking any lock
+     * @return One snapshot per elevator, in elevator order
+     */
+    public List<ElevatorSnapshot> getFleetSnapshot() {
+        List<ElevatorSnapshot> snapshots = new ArrayList<>(elevators.size());
+        for (Elevator elevator : elevators) {
+            snapshots.add(elevator.getSnapshot());
+        }
+        return snapshots;
+    }
+
+    /**
+     * Returns the stream every elevator of this controller publishes its state changes to,
+     * for displays and other consumers to subscribe to instead of polling
+     * @return The event stream, closed when the controller shuts down
+     */
+    public ElevatorEventStream getEventStream() {
+        return eventStream;
+    }
+
+    public FleetIndex getFleetIndex() {
+        return fleetIndex;
+    }
+
     public List<Elevator> getElevators() {
         synchronized (lock) {
             return new ArrayList<>(elevators);
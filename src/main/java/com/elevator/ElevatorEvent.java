@@ -0,0 +1,65 @@
+package com.elevator;
+
+/**
+ * A change in an elevator's state, pushed to the subscribers of an ElevatorEventStream.
+ * Events are immutable and shared by every subscriber.
+ */
+public final class ElevatorEvent {
+    public enum Type {
+        MOVED,
+        STOPPED,
+        DOORS_OPENED,
+        DOORS_CLOSED,
+        REQUEST_ASSIGNED,
+        REQUEST_SERVED
+    }
+
+    private final Type type;
+    private final Elevator elevator;
+    private final int floor;
+    private final Direction direction;
+    private final Request request;
+    private final long time;
+
+    ElevatorEvent(Type type, Elevator elevator, int floor, Direction direction, Request request, long time) {
+        this.type = type;
+        this.elevator = elevator;
+        this.floor = floor;
+        this.direction = direction;
+        this.request = request;
+        this.time = time;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Elevator getElevator() {
+        return elevator;
+    }
+
+    // Floor the elevator was at when the event happened
+    public int getFloor() {
+        return floor;
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    // The request assigned or served, or null for motion and door events
+    public Request getRequest() {
+        return request;
+    }
+
+    // Clock time the event happened at
+    public long getTime() {
+        return time;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + elevator.getId() + " at floor " + floor
+            + (request != null ? " " + request.getSourceFloor() + " -> " + request.getDestinationFloor() : "");
+    }
+}
@@ -0,0 +1,237 @@
+package com.elevator;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+
+/**
+ * Publishes elevator events to any number of subscribers through a fixed ring. Elevators write
+ * into the ring without locking or waiting on subscribers; each subscriber reads it from its own
+ * cursor on its own delivery thread, honouring the demand it requested. A subscriber that falls a
+ * whole ring behind skips to the oldest event still held and the events it missed are counted as dropped.
+ */
+public class ElevatorEventStream implements Flow.Publisher<ElevatorEvent> {
+    private static final EventLog logger = EventLog.getLog(ElevatorEventStream.class);
+    public static final int DEFAULT_CAPACITY = 8192;
+    private static final long UNPUBLISHED = -1;
+    private static final AtomicInteger threadCount = new AtomicInteger();
+    private final AtomicReferenceArray<ElevatorEvent> ring;
+    // Sequence of the event each slot holds, set once the event has been written and cleared
+    // to UNPUBLISHED while it is overwritten, so a reader can tell a torn read from a good one
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong claimSequence = new AtomicLong();
+    private final List<StreamSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final LongAdder droppedEvents = new LongAdder();
+    private volatile boolean closed;
+
+    public ElevatorEventStream() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity The number of events held for slow subscribers, a power of two
+     */
+    public ElevatorEventStream(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.ring = new AtomicReferenceArray<>(capacity);
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, UNPUBLISHED);
+        }
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Subscribes to the events published from now on. The subscriber is called on a delivery
+     * thread of its own, so a slow subscriber never holds up the elevators or other subscribers.
+     * @param subscriber The subscriber
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super ElevatorEvent> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber");
+        }
+        StreamSubscription subscription = new StreamSubscription(subscriber, claimSequence.get());
+        subscriptions.add(subscription);
+        Thread thread = new Thread(subscription, "elevator-events-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Lets publishers skip building events nobody will read
+    boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    // Never blocks: a subscriber too slow to keep up loses the oldest events instead
+    void publish(ElevatorEvent event) {
+        long sequence = claimSequence.getAndIncrement();
+        int slot = (int) (sequence & mask);
+        // Cleared first, so a subscriber that reads the new event while still expecting the old one sees the change
+        published.set(slot, UNPUBLISHED);
+        ring.set(slot, event);
+        published.set(slot, sequence);
+        for (StreamSubscription subscription : subscriptions) {
+            subscription.wakeIfParked();
+        }
+    }
+
+    /**
+     * Completes every subscription once its subscriber has taken the events published so far,
+     * or straight away if it has no outstanding demand
+     */
+    public void close() {
+        closed = true;
+        for (StreamSubscription subscription : subscriptions) {
+            subscription.wake();
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    public long getPublishedEvents() {
+        return claimSequence.get();
+    }
+
+    // Events skipped by subscribers that fell a whole ring behind, summed over all subscribers
+    public long getDroppedEvents() {
+        return droppedEvents.sum();
+    }
+
+    public int getCapacity() {
+        return ring.length();
+    }
+
+    private final class StreamSubscription implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super ElevatorEvent> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private volatile boolean cancelled;
+        private volatile Throwable error;
+        private volatile Thread thread;
+        // Set while the delivery thread is parked with nothing to deliver
+        private final AtomicBoolean parked = new AtomicBoolean();
+        // Sequence of the next event to deliver, only touched by the delivery thread
+        private long cursor;
+
+        private StreamSubscription(Flow.Subscriber<? super ElevatorEvent> subscriber, long cursor) {
+            this.subscriber = subscriber;
+            this.cursor = cursor;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("Demand must be positive: " + n);
+            } else {
+                demand.getAndUpdate(current -> Long.MAX_VALUE - current < n ? Long.MAX_VALUE : current + n);
+            }
+            wake();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            wake();
+        }
+
+        private void wake() {
+            Thread delivery = thread;
+            if (delivery != null) {
+                LockSupport.unpark(delivery);
+            }
+        }
+
+        // Only the publisher that ends a wait pays for the unpark
+        private void wakeIfParked() {
+            if (parked.get() && parked.compareAndSet(true, false)) {
+                wake();
+            }
+        }
+
+        // Whether the delivery thread has anything to do; a claimed event is only briefly unpublished
+        private boolean hasWork() {
+            return cancelled || error != null || closed || (demand.get() > 0 && claimSequence.get() > cursor);
+        }
+
+        @Override
+        public void run() {
+            thread = Thread.currentThread();
+            try {
+                subscriber.onSubscribe(this);
+                deliver();
+            } catch (RuntimeException e) {
+                // The subscriber broke the protocol by throwing, so it gets nothing more
+                logger.log(Level.WARNING, "Event subscriber {0} failed: {1}", subscriber, e);
+            } finally {
+                subscriptions.remove(this);
+            }
+        }
+
+        private void deliver() {
+            while (!cancelled) {
+                Throwable failure = error;
+                if (failure != null) {
+                    subscriber.onError(failure);
+                    return;
+                }
+                // Read before the ring so that every event published before close is still delivered
+                boolean done = closed;
+                ElevatorEvent event = demand.get() > 0 ? next() : null;
+                if (event == null) {
+                    if (done) {
+                        subscriber.onComplete();
+                        return;
+                    }
+                    parked.set(true);
+                    // Checked again once parked is announced, so a publish in between is never missed
+                    if (!hasWork()) {
+                        LockSupport.park(this);
+                    }
+                    parked.set(false);
+                    continue;
+                }
+                demand.decrementAndGet();
+                subscriber.onNext(event);
+            }
+        }
+
+        // Returns the event at the cursor, or null if it has not been published yet
+        private ElevatorEvent next() {
+            while (true) {
+                int slot = (int) (cursor & mask);
+                long sequence = published.get(slot);
+                if (sequence == cursor) {
+                    ElevatorEvent event = ring.get(slot);
+                    // A publisher may have lapped this subscriber while the event was read
+                    if (published.get(slot) == cursor) {
+                        cursor++;
+                        return event;
+                    }
+                } else if (sequence < cursor && claimSequence.get() - cursor <= ring.length()) {
+                    return null;
+                }
+                // Overwritten before this subscriber read it: skip to the oldest event the ring still holds
+                long oldest = Math.max(cursor + 1, claimSequence.get() - ring.length());
+                droppedEvents.add(oldest - cursor);
+                cursor = oldest;
+            }
+        }
+    }
+}
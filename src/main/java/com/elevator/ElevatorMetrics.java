@@ -0,0 +1,92 @@
+package com.elevator;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class ElevatorMetrics {
+    // Waits and rides are tracked in milliseconds up to an hour; longer ones land in the top bucket
+    static final long HIGHEST_TRACKED_MILLIS = 60L * 60 * 1000;
+
+    private final LatencyHistogram waitTimes = new LatencyHistogram(HIGHEST_TRACKED_MILLIS);
+    private final LatencyHistogram rideTimes = new LatencyHistogram(HIGHEST_TRACKED_MILLIS);
+    private final LongAdder floorsTravelled = new LongAdder();
+    private final LongAdder stops = new LongAdder();
+    private final LongAdder doorCycles = new LongAdder();
+
+    void recordWait(long millis) {
+        waitTimes.record(millis);
+    }
+
+    void recordRide(long millis) {
+        rideTimes.record(millis);
+    }
+
+    void recordFloorTravelled() {
+        floorsTravelled.increment();
+    }
+
+    void recordStop() {
+        stops.increment();
+    }
+
+    void recordDoorCycle() {
+        doorCycles.increment();
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(waitTimes.snapshot(), rideTimes.snapshot(), floorsTravelled.sum(), stops.sum(),
+            doorCycles.sum());
+    }
+
+    /**
+     * Immutable copy of an elevator's metrics, or of a whole fleet's when merged
+     */
+    public static final class Snapshot {
+        private final LatencyHistogram.Snapshot waitTimes;
+        private final LatencyHistogram.Snapshot rideTimes;
+        private final long floorsTravelled;
+        private final long stops;
+        private final long doorCycles;
+
+        private Snapshot(LatencyHistogram.Snapshot waitTimes, LatencyHistogram.Snapshot rideTimes,
+                         long floorsTravelled, long stops, long doorCycles) {
+            this.waitTimes = waitTimes;
+            this.rideTimes = rideTimes;
+            this.floorsTravelled = floorsTravelled;
+            this.stops = stops;
+            this.doorCycles = doorCycles;
+        }
+
+        // Time from a request being made until its passenger is picked up, in milliseconds
+        public LatencyHistogram.Snapshot getWaitTimes() {
+            return waitTimes;
+        }
+
+        // Time from pickup until the passenger is dropped off, in milliseconds
+        public LatencyHistogram.Snapshot getRideTimes() {
+            return rideTimes;
+        }
+
+        public long getFloorsTravelled() {
+            return floorsTravelled;
+        }
+
+        public long getStops() {
+            return stops;
+        }
+
+        public long getDoorCycles() {
+            return doorCycles;
+        }
+
+        public Snapshot merge(Snapshot other) {
+            return new Snapshot(waitTimes.merge(other.waitTimes), rideTimes.merge(other.rideTimes),
+                floorsTravelled + other.floorsTravelled, stops + other.stops, doorCycles + other.doorCycles);
+        }
+
+        @Override
+        public String toString() {
+            return "wait[" + waitTimes + "] ride[" + rideTimes + "] floors=" + floorsTravelled
+                + " stops=" + stops + " doorCycles=" + doorCycles;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.elevator;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable, mutually consistent view of an elevator's state at one point in time.
+ * Elevators publish a new snapshot after every change, so reading one never takes a lock.
+ */
+public final class ElevatorSnapshot {
+    private final Elevator elevator;
+    private final int currentFloor;
+    private final Direction direction;
+    private final ElevatorState state;
+    private final int minFloor;
+    private final int maxFloor;
+    private final int[] stops;
+    private final List<Integer> stopList;
+    private final long stopsVersion;
+    private final int capacity;
+    private final int load;
+    private final int assignedPassengers;
+    private final int[] passengerDestinations;
+
+    ElevatorSnapshot(Elevator elevator, int currentFloor, Direction direction, ElevatorState state,
+                     int minFloor, int maxFloor, int[] stops, long stopsVersion, int capacity, int load, int assignedPassengers,
+                     int[] passengerDestinations) {
+        this.elevator = elevator;
+        this.currentFloor = currentFloor;
+        this.direction = direction;
+        this.state = state;
+        this.minFloor = minFloor;
+        this.maxFloor = maxFloor;
+        this.stops = stops;
+        this.stopList = new StopList();
+        this.stopsVersion = stopsVersion;
+        this.capacity = capacity;
+        this.load = load;
+        this.assignedPassengers = assignedPassengers;
+        this.passengerDestinations = passengerDestinations;
+    }
+
+    public Elevator getElevator() {
+        return elevator;
+    }
+
+    public String getId() {
+        return elevator.getId();
+    }
+
+    public int getCurrentFloor() {
+        return currentFloor;
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    public ElevatorState getState() {
+        return state;
+    }
+
+    public int getMinFloor() {
+        return minFloor;
+    }
+
+    public int getMaxFloor() {
+        return maxFloor;
+    }
+
+    /**
+     * Returns a counter that changes whenever the elevator's stops change, so estimates
+     * derived from the stops can be cached until the next change
+     * @return The version of the pending stops
+     */
+    public long getStopsVersion() {
+        return stopsVersion;
+    }
+
+    public int getStopCount() {
+        return stops.length;
+    }
+
+    public boolean hasStop(int floor) {
+        return Arrays.binarySearch(stops, floor) >= 0;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of passengers on board
+     * @return The current load
+     */
+    public int getLoad() {
+        return load;
+    }
+
+    /**
+     * Returns the number of passengers assigned to the elevator, both waiting and on board
+     * @return The committed load
+     */
+    public int getAssignedPassengers() {
+        return assignedPassengers;
+    }
+
+    /**
+     * Returns whether any assigned passenger, waiting or on board, is going to the floor
+     * @param floor The destination floor
+     * @return true if the floor is already a passenger destination
+     */
+    public boolean hasPassengerDestination(int floor) {
+        return Arrays.binarySearch(passengerDestinations, floor) >= 0;
+    }
+
+    /**
+     * Returns the distance from the floor to the nearest destination of an assigned passenger
+     * @param floor The destination floor
+     * @return The distance in floors, or Integer.MAX_VALUE if no passengers are assigned
+     */
+    public int distanceToPassengerDestination(int floor) {
+        int position = Arrays.binarySearch(passengerDestinations, floor);
+        if (position >= 0) {
+            return 0;
+        }
+        int insertion = -position - 1;
+        int distance = Integer.MAX_VALUE;
+        if (insertion < passengerDestinations.length) {
+            distance = passengerDestinations[insertion] - floor;
+        }
+        if (insertion > 0) {
+            distance = Math.min(distance, floor - passengerDestinations[insertion - 1]);
+        }
+        return distance;
+    }
+
+    // The pending stops in ascending order, shared with the snapshot and not to be modified
+    int[] stopArray() {
+        return stops;
+    }
+
+    /**
+     * Returns the pending stops in ascending floor order
+     * @return An unmodifiable list of the pending stops
+     */
+    public List<Integer> getStops() {
+        return stopList;
+    }
+
+    private class StopList extends AbstractList<Integer> {
+        @Override
+        public Integer get(int index) {
+            return stops[index];
+        }
+
+        @Override
+        public int size() {
+            return stops.length;
+        }
+
+        @Override
+        public boolean contains(Object floor) {
+            return floor instanceof Integer && hasStop((Integer) floor);
+        }
+    }
+}
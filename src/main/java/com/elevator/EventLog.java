@@ -0,0 +1,292 @@
+package com.elevator;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Low-overhead logging front end for the hot paths. Each call is checked against the
+ * logger's level first, then copied into a preallocated event record on a shared ring
+ * buffer without allocating, boxing or formatting. A background thread drains the ring
+ * in batches and hands the formatted messages to java.util.logging, so handlers and
+ * levels are still configured through logging.properties. If the ring is full, events
+ * are dropped and counted rather than blocking the caller.
+ */
+public final class EventLog {
+    private static final int RING_SIZE = 8192;
+    private static final int MAX_ARGUMENTS = 3;
+
+    private static final EventRecord[] ring = new EventRecord[RING_SIZE];
+    private static final AtomicLong claimSequence = new AtomicLong();
+    private static final AtomicLong droppedEvents = new AtomicLong();
+    private static volatile long consumedSequence;
+    // Set while the writer is parked on an empty ring, so only the publisher that ends the wait unparks it
+    private static final AtomicBoolean writerParked = new AtomicBoolean();
+    private static final Thread writer;
+
+    static {
+        for (int i = 0; i < RING_SIZE; i++) {
+            ring[i] = new EventRecord(i - RING_SIZE);
+        }
+        writer = new Thread(EventLog::writeLoop, "elevator-event-log");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(EventLog::flush, "elevator-event-log-flush"));
+    }
+
+    private final Logger logger;
+
+    private EventLog(Logger logger) {
+        this.logger = logger;
+    }
+
+    public static EventLog getLog(Class<?> type) {
+        return new EventLog(Logger.getLogger(type.getName()));
+    }
+
+    public boolean isLoggable(Level level) {
+        return logger.isLoggable(level);
+    }
+
+    public void info(String message) {
+        log(Level.INFO, message);
+    }
+
+    public void warning(String message) {
+        log(Level.WARNING, message);
+    }
+
+    public void log(Level level, String message) {
+        if (logger.isLoggable(level)) {
+            EventRecord record = claim(level, message, 0);
+            if (record != null) {
+                publish(record);
+            }
+        }
+    }
+
+    public void log(Level level, String message, Object arg0) {
+        if (logger.isLoggable(level)) {
+            EventRecord record = claim(level, message, 1);
+            if (record != null) {
+                record.setObject(0, arg0);
+                publish(record);
+            }
+        }
+    }
+
+    public void log(Level level, String message, long arg0) {
+        if (logger.isLoggable(level)) {
+            EventRecord record = claim(level, message, 1);
+            if (record != null) {
+                record.setLong(0, arg0);
+                publish(record);
+            }
+        }
+    }
+
+    public void log(Level level, String message, Object arg0, long arg1) {
+        if (logger.isLoggable(level)) {
+            EventRecord record = claim(level, message, 2);
+            if (record != null) {
+                record.setObject(0, arg0);
+                record.setLong(1, arg1);
+                publish(record);
+            }
+        }
+    }
+
+    public void log(Level level, String message, long arg0, Object arg1) {
+        if (logger.isLoggable(level)) {
+            EventRecord record = claim(level, message, 2);
+            if (record != null) {
+                record.setLong(0, arg0);
+                record.setObject(1, arg1);
+                publish(record);
+            }
+        }
+    }
+
+    public void log(Level level, String message, Object arg0, Object arg1) {
+        if (logger.isLoggable(level)) {
+            EventRecord record = claim(level, message, 2);
+            if (record != null) {
+                record.setObject(0, arg0);
+                record.setObject(1, arg1);
+                publish(record);
+            }
+        }
+    }
+
+    public void log(Level level, String message, long arg0, long arg1) {
+        if (logger.isLoggable(level)) {
+            EventRecord record = claim(level, message, 2);
+            if (record != null) {
+                record.setLong(0, arg0);
+                record.setLong(1, arg1);
+                publish(record);
+            }
+        }
+    }
+
+    public void log(Level level, String message, Object arg0, long arg1, long arg2) {
+        if (logger.isLoggable(level)) {
+            EventRecord record = claim(level, message, 3);
+            if (record != null) {
+                record.setObject(0, arg0);
+                record.setLong(1, arg1);
+                record.setLong(2, arg2);
+                publish(record);
+            }
+        }
+    }
+
+    public void log(Level level, String message, long arg0, long arg1, long arg2) {
+        if (logger.isLoggable(level)) {
+            EventRecord record = claim(level, message, 3);
+            if (record != null) {
+                record.setLong(0, arg0);
+                record.setLong(1, arg1);
+                record.setLong(2, arg2);
+                publish(record);
+            }
+        }
+    }
+
+    /**
+     * Returns how many events have been dropped because the ring buffer was full
+     * @return The number of dropped events
+     */
+    public static long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    /**
+     * Writes out every event published so far. Called on JVM shutdown, and useful before
+     * inspecting log output.
+     */
+    public static void flush() {
+        synchronized (ring) {
+            drain();
+        }
+    }
+
+    private EventRecord claim(Level level, String message, int argumentCount) {
+        while (true) {
+            long sequence = claimSequence.get();
+            if (sequence - consumedSequence >= RING_SIZE) {
+                droppedEvents.incrementAndGet();
+                return null;
+            }
+            if (claimSequence.compareAndSet(sequence, sequence + 1)) {
+                EventRecord record = ring[(int) (sequence & (RING_SIZE - 1))];
+                record.sequence = sequence;
+                record.timestamp = System.currentTimeMillis();
+                record.logger = logger;
+                record.level = level;
+                record.message = message;
+                record.argumentCount = argumentCount;
+                return record;
+            }
+        }
+    }
+
+    private static void publish(EventRecord record) {
+        // The volatile write makes the filled-in fields visible to the writer thread
+        record.published = record.sequence;
+        if (writerParked.get() && writerParked.compareAndSet(true, false)) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private static void writeLoop() {
+        while (true) {
+            int written;
+            synchronized (ring) {
+                written = drain();
+            }
+            if (written == 0) {
+                writerParked.set(true);
+                // Checked again once parked is announced, so an event published in between is never left waiting
+                if (isPublished(consumedSequence)) {
+                    writerParked.set(false);
+                } else {
+                    LockSupport.park(EventLog.class);
+                    writerParked.set(false);
+                }
+            }
+        }
+    }
+
+    private static boolean isPublished(long sequence) {
+        return ring[(int) (sequence & (RING_SIZE - 1))].published == sequence;
+    }
+
+    // Must be called while holding the ring's monitor, so only one thread consumes at a time
+    private static int drain() {
+        int written = 0;
+        long next = consumedSequence;
+        while (true) {
+            EventRecord record = ring[(int) (next & (RING_SIZE - 1))];
+            if (record.published != next) {
+                break;
+            }
+            Logger target = record.logger;
+            LogRecord logRecord = record.toLogRecord();
+            // Frees the slot before the potentially slow handler call
+            consumedSequence = ++next;
+            target.log(logRecord);
+            written++;
+        }
+        return written;
+    }
+
+    private static final class EventRecord {
+        private volatile long published;
+        private long sequence;
+        private long timestamp;
+        private Logger logger;
+        private Level level;
+        private String message;
+        private int argumentCount;
+        private final Object[] objects = new Object[MAX_ARGUMENTS];
+        private final long[] longs = new long[MAX_ARGUMENTS];
+        private final boolean[] isLong = new boolean[MAX_ARGUMENTS];
+
+        private EventRecord(long initialSequence) {
+            this.published = initialSequence;
+        }
+
+        private void setObject(int index, Object value) {
+            objects[index] = value;
+            isLong[index] = false;
+        }
+
+        private void setLong(int index, long value) {
+            longs[index] = value;
+            isLong[index] = true;
+        }
+
+        private LogRecord toLogRecord() {
+            LogRecord logRecord = new LogRecord(level, message);
+            logRecord.setLoggerName(logger.getName());
+            logRecord.setInstant(Instant.ofEpochMilli(timestamp));
+            // Naming the source stops the handler from walking this thread's stack to find it
+            logRecord.setSourceClassName(logger.getName());
+            logRecord.setSourceMethodName(null);
+            if (argumentCount > 0) {
+                Object[] parameters = new Object[argumentCount];
+                for (int i = 0; i < argumentCount; i++) {
+                    parameters[i] = isLong[i] ? (Object) longs[i] : objects[i];
+                    objects[i] = null;
+                }
+                logRecord.setParameters(parameters);
+            }
+            return logRecord;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.elevator;
+
+public enum ExecutionMode {
+    // One platform thread per elevator, each running its own loop
+    THREAD_PER_ELEVATOR,
+    // Every elevator is stepped by the controller's clock, on a single scheduler thread in real time
+    SCHEDULED,
+    // One virtual thread per elevator where the runtime supports it, platform threads otherwise
+    VIRTUAL_THREADS
+}
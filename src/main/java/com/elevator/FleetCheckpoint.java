@@ -0,0 +1,289 @@
+package com.elevator;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The full state of a controller's fleet at one instant: where every car is, where it is headed,
+ * its pending stops and the passengers waiting for it or riding in it, plus the requests queued
+ * with the dispatcher but not yet assigned. Written as one compact big-endian file and read back
+ * through a single memory mapping, so restoring a fleet costs about as much as reading the file.
+ * Stops are stored in floor order, so a FIFO car restores its stops in floor order too.
+ * Each car also records its capacity, stop ordering and the floors it serves, and each passenger routed
+ * through transfer floors the legs still ahead of them, so a group fleet comes back as the same group.
+ */
+public final class FleetCheckpoint {
+    static final int MAGIC = 0x454C4350; // "ELCP"
+    static final int VERSION = 3;
+    // Written before cars recorded their stop ordering; read as LOOK cars
+    static final int LOOK_VERSION = 2;
+    // Written before cars recorded their capacity, served floors and onward legs; read as a uniform fleet
+    static final int UNIFORM_VERSION = 1;
+    private final long takenAt;
+    private final long journalGeneration;
+    private final int minFloor;
+    private final int maxFloor;
+    private final List<CarState> cars;
+    private final List<Trip> queuedRequests;
+
+    FleetCheckpoint(long takenAt, long journalGeneration, int minFloor, int maxFloor, List<CarState> cars,
+                    List<Trip> queuedRequests) {
+        this.takenAt = takenAt;
+        this.journalGeneration = journalGeneration;
+        this.minFloor = minFloor;
+        this.maxFloor = maxFloor;
+        this.cars = Collections.unmodifiableList(cars);
+        this.queuedRequests = Collections.unmodifiableList(queuedRequests);
+    }
+
+    // Clock time the checkpoint was taken at
+    public long getTakenAt() {
+        return takenAt;
+    }
+
+    // Generation of the journal holding the requests made after this checkpoint
+    public long getJournalGeneration() {
+        return journalGeneration;
+    }
+
+    public int getMinFloor() {
+        return minFloor;
+    }
+
+    public int getMaxFloor() {
+        return maxFloor;
+    }
+
+    public int getElevatorCount() {
+        return cars.size();
+    }
+
+    List<CarState> getCars() {
+        return cars;
+    }
+
+    /**
+     * Returns the requests that had been submitted but not yet assigned to a car
+     * @return The queued requests with their submit times, oldest first
+     */
+    public List<Trip> getQueuedRequests() {
+        return queuedRequests;
+    }
+
+    /**
+     * Writes the checkpoint, replacing the file only once the new one is complete and on disk,
+     * so a crash part way through leaves the previous checkpoint intact
+     * @param path The checkpoint file
+     * @throws IOException If the file cannot be written
+     */
+    public void write(Path path) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeLong(takenAt);
+            output.writeLong(journalGeneration);
+            output.writeInt(minFloor);
+            output.writeInt(maxFloor);
+            output.writeInt(cars.size());
+            for (CarState car : cars) {
+                car.write(output);
+            }
+            output.writeInt(queuedRequests.size());
+            for (Trip queued : queuedRequests) {
+                writeTrip(output, queued);
+            }
+            output.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a checkpoint written by write
+     * @param path The checkpoint file
+     * @return The checkpoint
+     * @throws IOException If the file cannot be read or is not a complete checkpoint
+     */
+    public static FleetCheckpoint read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+                throw new IOException("Not a fleet checkpoint: " + path);
+            }
+            int version = buffer.getInt();
+            if (version != VERSION && version != LOOK_VERSION && version != UNIFORM_VERSION) {
+                throw new IOException("Unsupported checkpoint version " + version + ": " + path);
+            }
+            long takenAt = buffer.getLong();
+            long journalGeneration = buffer.getLong();
+            int minFloor = buffer.getInt();
+            int maxFloor = buffer.getInt();
+            int carCount = buffer.getInt();
+            List<CarState> cars = new ArrayList<>(carCount);
+            for (int i = 0; i < carCount; i++) {
+                cars.add(CarState.read(buffer, version, minFloor, maxFloor));
+            }
+            int queuedCount = buffer.getInt();
+            List<Trip> queued = new ArrayList<>(queuedCount);
+            for (int i = 0; i < queuedCount; i++) {
+                queued.add(readTrip(buffer));
+            }
+            return new FleetCheckpoint(takenAt, journalGeneration, minFloor, maxFloor, cars, queued);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated fleet checkpoint: " + path, e);
+        }
+    }
+
+    // Pickup time, request time, then the source and destination floors
+    private static void writeTrip(DataOutputStream output, Trip trip) throws IOException {
+        output.writeLong(trip.getPickupTime());
+        output.writeLong(trip.getRequestTime());
+        output.writeInt(trip.getRequest().getSourceFloor());
+        output.writeInt(trip.getRequest().getDestinationFloor());
+    }
+
+    private static Trip readTrip(MappedByteBuffer buffer) {
+        long pickupTime = buffer.getLong();
+        long requestTime = buffer.getLong();
+        int sourceFloor = buffer.getInt();
+        int destinationFloor = buffer.getInt();
+        Trip trip = new Trip(new Request(sourceFloor, destinationFloor), requestTime);
+        if (pickupTime >= 0) {
+            trip.pickUp(pickupTime);
+        }
+        return trip;
+    }
+
+    private static final int[] NO_FLOORS = new int[0];
+
+    private static void writeFloors(DataOutputStream output, int[] floors) throws IOException {
+        output.writeInt(floors.length);
+        for (int floor : floors) {
+            output.writeInt(floor);
+        }
+    }
+
+    private static int[] readFloors(MappedByteBuffer buffer) {
+        int[] floors = new int[buffer.getInt()];
+        for (int i = 0; i < floors.length; i++) {
+            floors[i] = buffer.getInt();
+        }
+        return floors;
+    }
+
+    // The state of one car, as captured by Elevator.saveState
+    static final class CarState {
+        final String id;
+        final int capacity;
+        final StopOrderingPolicy stopOrderingPolicy;
+        final ServedFloors servedFloors;
+        final int currentFloor;
+        final Direction direction;
+        final int deferredStop;
+        final int[] stops;
+        final int[] carCalls;
+        // Passengers waiting for pickup, then those on board
+        final List<Trip> waiting;
+        final List<Trip> riding;
+        // Floors still ahead of passengers routed through transfer floors, after the leg they are on now
+        final Map<Trip, int[]> onwardFloors;
+
+        CarState(String id, int capacity, StopOrderingPolicy stopOrderingPolicy, ServedFloors servedFloors,
+                 int currentFloor, Direction direction, int deferredStop, int[] stops, int[] carCalls,
+                 List<Trip> waiting, List<Trip> riding, Map<Trip, int[]> onwardFloors) {
+            this.id = id;
+            this.capacity = capacity;
+            this.stopOrderingPolicy = stopOrderingPolicy;
+            this.servedFloors = servedFloors;
+            this.currentFloor = currentFloor;
+            this.direction = direction;
+            this.deferredStop = deferredStop;
+            this.stops = stops;
+            this.carCalls = carCalls;
+            this.waiting = waiting;
+            this.riding = riding;
+            this.onwardFloors = onwardFloors;
+        }
+
+        private void write(DataOutputStream output) throws IOException {
+            byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+            output.writeShort(idBytes.length);
+            output.write(idBytes);
+            output.writeInt(capacity);
+            output.writeByte(stopOrderingPolicy.ordinal());
+            writeFloors(output, servedFloors.getFloors());
+            output.writeInt(currentFloor);
+            output.writeByte(direction.ordinal());
+            output.writeInt(deferredStop);
+            writeFloors(output, stops);
+            writeFloors(output, carCalls);
+            output.writeInt(waiting.size());
+            for (Trip trip : waiting) {
+                writeTrip(output, trip);
+                writeFloors(output, onwardFloors.getOrDefault(trip, NO_FLOORS));
+            }
+            output.writeInt(riding.size());
+            for (Trip trip : riding) {
+                writeTrip(output, trip);
+                writeFloors(output, onwardFloors.getOrDefault(trip, NO_FLOORS));
+            }
+        }
+
+        private static CarState read(MappedByteBuffer buffer, int version, int minFloor, int maxFloor) {
+            byte[] idBytes = new byte[buffer.getShort() & 0xFFFF];
+            buffer.get(idBytes);
+            boolean uniform = version == UNIFORM_VERSION;
+            int capacity = uniform ? Elevator.DEFAULT_CAPACITY : buffer.getInt();
+            StopOrderingPolicy stopOrderingPolicy = version == VERSION ? StopOrderingPolicy.values()[buffer.get()]
+                : StopOrderingPolicy.LOOK;
+            ServedFloors servedFloors = uniform ? ServedFloors.range(minFloor, maxFloor)
+                : ServedFloors.of(readFloors(buffer));
+            int currentFloor = buffer.getInt();
+            Direction direction = Direction.values()[buffer.get()];
+            int deferredStop = buffer.getInt();
+            int[] stops = readFloors(buffer);
+            int[] carCalls = readFloors(buffer);
+            int waitingCount = buffer.getInt();
+            Map<Trip, int[]> onwardFloors = new IdentityHashMap<>();
+            List<Trip> waiting = new ArrayList<>(waitingCount);
+            for (int i = 0; i < waitingCount; i++) {
+                waiting.add(readTrip(buffer, uniform, onwardFloors));
+            }
+            int ridingCount = buffer.getInt();
+            List<Trip> riding = new ArrayList<>(ridingCount);
+            for (int i = 0; i < ridingCount; i++) {
+                riding.add(readTrip(buffer, uniform, onwardFloors));
+            }
+            return new CarState(new String(idBytes, StandardCharsets.UTF_8), capacity, stopOrderingPolicy,
+                servedFloors, currentFloor, direction, deferredStop, stops, carCalls, waiting, riding, onwardFloors);
+        }
+
+        private static Trip readTrip(MappedByteBuffer buffer, boolean uniform, Map<Trip, int[]> onwardFloors) {
+            Trip trip = FleetCheckpoint.readTrip(buffer);
+            int[] onward = uniform ? NO_FLOORS : readFloors(buffer);
+            if (onward.length > 0) {
+                onwardFloors.put(trip, onward);
+            }
+            return trip;
+        }
+    }
+}
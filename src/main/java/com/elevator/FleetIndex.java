@@ -0,0 +1,136 @@
+package com.elevator;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Incrementally maintained index of a fleet's elevators, bucketed by direction and sorted by floor.
+ * Each elevator pushes its snapshots into the index as it publishes them, so strategies can look up
+ * the nearest cars around a floor in O(log n) instead of scanning the whole fleet.
+ * Elevators in maintenance are left out of the index.
+ */
+public final class FleetIndex {
+    // Keys are (floor << 32 | position), so cars on the same floor are ordered by their position in the fleet
+    private final Map<Direction, ConcurrentSkipListMap<Long, ElevatorSnapshot>> byDirection =
+        new EnumMap<>(Direction.class);
+    private final Map<Elevator, Slot> slots = new ConcurrentHashMap<>();
+
+    public FleetIndex() {
+        for (Direction direction : Direction.values()) {
+            byDirection.put(direction, new ConcurrentSkipListMap<>());
+        }
+    }
+
+    /**
+     * Adds an elevator to the index and keeps it up to date from then on
+     * @param elevator The elevator
+     * @param position The elevator's position in the fleet, used to break ties between cars on the same floor
+     */
+    public void add(Elevator elevator, int position) {
+        Slot slot = new Slot(position);
+        slots.put(elevator, slot);
+        elevator.setSnapshotListener(snapshot -> update(slot, snapshot));
+    }
+
+    // Called by the elevator while it holds its own lock, so updates for one car never interleave
+    private void update(Slot slot, ElevatorSnapshot snapshot) {
+        boolean available = snapshot.getState() != ElevatorState.MAINTENANCE;
+        long key = key(snapshot.getCurrentFloor(), slot.position);
+        Direction direction = snapshot.getDirection();
+        // Insert before removing so a concurrent lookup sees the car at least once while it moves
+        if (available) {
+            byDirection.get(direction).put(key, snapshot);
+        }
+        if (slot.indexed && (!available || slot.key != key || slot.direction != direction)) {
+            byDirection.get(slot.direction).remove(slot.key);
+        }
+        slot.indexed = available;
+        slot.key = key;
+        slot.direction = direction;
+    }
+
+    /**
+     * Returns the car on the lowest floor at or above the given floor that is travelling in the given direction
+     * @param direction The direction of travel, or IDLE for parked cars
+     * @param floor The floor to search from
+     * @return The car's snapshot, or null if there is none
+     */
+    public ElevatorSnapshot nearestAtOrAbove(Direction direction, int floor) {
+        Map.Entry<Long, ElevatorSnapshot> entry = byDirection.get(direction).ceilingEntry(key(floor, 0));
+        return entry != null ? entry.getValue() : null;
+    }
+
+    /**
+     * Returns the car on the highest floor at or below the given floor that is travelling in the given direction
+     * @param direction The direction of travel, or IDLE for parked cars
+     * @param floor The floor to search from
+     * @return The car's snapshot, or null if there is none
+     */
+    public ElevatorSnapshot nearestAtOrBelow(Direction direction, int floor) {
+        ConcurrentSkipListMap<Long, ElevatorSnapshot> cars = byDirection.get(direction);
+        Long highest = cars.lowerKey(key(floor + 1, 0));
+        if (highest == null) {
+            return null;
+        }
+        // Prefer the first car in fleet order among those on that floor
+        Map.Entry<Long, ElevatorSnapshot> entry = cars.ceilingEntry(key(floorOf(highest), 0));
+        return entry != null ? entry.getValue() : null;
+    }
+
+    /**
+     * Returns the number of cars indexed with the given direction
+     * @param direction The direction of travel, or IDLE for parked cars
+     * @return The number of cars
+     */
+    public int size(Direction direction) {
+        return byDirection.get(direction).size();
+    }
+
+    /**
+     * Returns the number of elevators tracked by this index, including any in maintenance
+     * @return The number of elevators
+     */
+    public int size() {
+        return slots.size();
+    }
+
+    /**
+     * Returns whether the elevator is tracked by this index
+     * @param elevator The elevator
+     * @return true if the elevator was added to this index
+     */
+    public boolean contains(Elevator elevator) {
+        return slots.containsKey(elevator);
+    }
+
+    /**
+     * Returns the position the elevator was added with
+     * @param elevator The elevator
+     * @return The elevator's position in the fleet, or -1 if it is not tracked by this index
+     */
+    public int positionOf(Elevator elevator) {
+        Slot slot = slots.get(elevator);
+        return slot != null ? slot.position : -1;
+    }
+
+    private static long key(int floor, int position) {
+        return ((long) floor << 32) | position;
+    }
+
+    private static int floorOf(long key) {
+        return (int) (key >> 32);
+    }
+
+    private static final class Slot {
+        private final int position;
+        private boolean indexed;
+        private long key;
+        private Direction direction;
+
+        private Slot(int position) {
+            this.position = position;
+        }
+    }
+}
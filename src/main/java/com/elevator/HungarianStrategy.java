@@ -0,0 +1,130 @@
+package com.elevator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * Assigns a batch of requests jointly by solving a minimum-cost assignment problem
+ * with the Hungarian algorithm, using the SCAN cost of each elevator and request.
+ * Each elevator is offered once per request it might take, and every extra request
+ * on the same elevator costs a fixed penalty for the stops it adds.
+ */
+public class HungarianStrategy implements SchedulingStrategy {
+    private static final EventLog logger = EventLog.getLog(HungarianStrategy.class);
+    // Each extra request on an elevator adds two stops, and a door cycle takes as long as two floors of travel
+    static final int EXTRA_REQUEST_PENALTY =
+        (int) (2 * 2 * Elevator.DOOR_OPERATION_MILLIS / Elevator.FLOOR_TRAVEL_MILLIS);
+
+    @Override
+    public Elevator selectElevator(List<Elevator> elevators, Request request) {
+        return assignRequests(elevators, Collections.singletonList(request)).get(0);
+    }
+
+    @Override
+    public List<Elevator> assignRequests(List<Elevator> elevators, List<Request> requests) {
+        logger.log(Level.FINE, "Using Hungarian strategy to assign {0} requests", requests.size());
+
+        // The whole batch is scored against one snapshot per elevator
+        List<ElevatorSnapshot> available = new ArrayList<>(elevators.size());
+        for (Elevator elevator : elevators) {
+            ElevatorSnapshot snapshot = elevator.getSnapshot();
+            if (snapshot.getState() != ElevatorState.MAINTENANCE) {
+                available.add(snapshot);
+            }
+        }
+
+        List<Elevator> assignments = new ArrayList<>(Collections.nCopies(requests.size(), (Elevator) null));
+        if (available.isEmpty() || requests.isEmpty()) {
+            logger.warning("No available elevator found for the requests");
+            return assignments;
+        }
+
+        // Columns are elevator slots: slot k of an elevator is its (k + 1)th request in this batch
+        int slotsPerElevator = (requests.size() + available.size() - 1) / available.size();
+        int columns = available.size() * slotsPerElevator;
+        long[][] cost = new long[requests.size()][columns];
+        for (int r = 0; r < requests.size(); r++) {
+            for (int e = 0; e < available.size(); e++) {
+                long baseCost = SCANStrategy.calculateCost(available.get(e), requests.get(r));
+                for (int k = 0; k < slotsPerElevator; k++) {
+                    cost[r][e * slotsPerElevator + k] = baseCost + (long) k * EXTRA_REQUEST_PENALTY;
+                }
+            }
+        }
+
+        int[] columnForRow = solve(cost, requests.size(), columns);
+        for (int r = 0; r < requests.size(); r++) {
+            assignments.set(r, available.get(columnForRow[r] / slotsPerElevator).getElevator());
+        }
+        return assignments;
+    }
+
+    /**
+     * Solves the rectangular assignment problem for rows <= columns with the
+     * potentials formulation of the Hungarian algorithm, in O(rows^2 * columns)
+     * @return The column assigned to each row
+     */
+    static int[] solve(long[][] cost, int rows, int columns) {
+        long[] rowPotential = new long[rows + 1];
+        long[] columnPotential = new long[columns + 1];
+        // Arrays are 1-based; rowOfColumn[j] == 0 means column j is unassigned
+        int[] rowOfColumn = new int[columns + 1];
+        int[] previousColumn = new int[columns + 1];
+        long[] minSlack = new long[columns + 1];
+        boolean[] visited = new boolean[columns + 1];
+
+        for (int row = 1; row <= rows; row++) {
+            rowOfColumn[0] = row;
+            int column = 0;
+            Arrays.fill(minSlack, Long.MAX_VALUE);
+            Arrays.fill(visited, false);
+            do {
+                visited[column] = true;
+                int currentRow = rowOfColumn[column];
+                long delta = Long.MAX_VALUE;
+                int nextColumn = 0;
+                for (int j = 1; j <= columns; j++) {
+                    if (visited[j]) {
+                        continue;
+                    }
+                    long slack = cost[currentRow - 1][j - 1] - rowPotential[currentRow] - columnPotential[j];
+                    if (slack < minSlack[j]) {
+                        minSlack[j] = slack;
+                        previousColumn[j] = column;
+                    }
+                    if (minSlack[j] < delta) {
+                        delta = minSlack[j];
+                        nextColumn = j;
+                    }
+                }
+                for (int j = 0; j <= columns; j++) {
+                    if (visited[j]) {
+                        rowPotential[rowOfColumn[j]] += delta;
+                        columnPotential[j] -= delta;
+                    } else {
+                        minSlack[j] -= delta;
+                    }
+                }
+                column = nextColumn;
+            } while (rowOfColumn[column] != 0);
+
+            // Flip the augmenting path back to the root
+            do {
+                int previous = previousColumn[column];
+                rowOfColumn[column] = rowOfColumn[previous];
+                column = previous;
+            } while (column != 0);
+        }
+
+        int[] columnForRow = new int[rows];
+        for (int j = 1; j <= columns; j++) {
+            if (rowOfColumn[j] != 0) {
+                columnForRow[rowOfColumn[j] - 1] = j - 1;
+            }
+        }
+        return columnForRow;
+    }
+}
@@ -0,0 +1,141 @@
+package com.elevator;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of non-negative values with log-linear buckets, in the style of
+ * HdrHistogram: every power of two is split into 32 linear sub-buckets, so any recorded
+ * value is reported to within about 3%. Values above the trackable maximum are counted
+ * in the top bucket, while the exact maximum is kept separately.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    private final long highestTrackableValue;
+    private final AtomicLongArray counts;
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalValue = new AtomicLong();
+    private final AtomicLong maxValue = new AtomicLong();
+
+    /**
+     * @param highestTrackableValue The largest value that still gets its own bucket
+     */
+    public LatencyHistogram(long highestTrackableValue) {
+        this.highestTrackableValue = highestTrackableValue;
+        this.counts = new AtomicLongArray(indexOf(highestTrackableValue) + 1);
+    }
+
+    public void record(long value) {
+        recordValues(value, 1);
+    }
+
+    /**
+     * Records the same value several times
+     * @param value The value to record, clamped to zero if negative
+     * @param count How many times to record it
+     */
+    public void recordValues(long value, long count) {
+        long clamped = Math.max(0, value);
+        counts.addAndGet(indexOf(Math.min(clamped, highestTrackableValue)), count);
+        totalCount.addAndGet(count);
+        totalValue.addAndGet(clamped * count);
+        maxValue.accumulateAndGet(clamped, Math::max);
+    }
+
+    public Snapshot snapshot() {
+        long[] copy = new long[counts.length()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new Snapshot(copy, totalCount.get(), totalValue.get(), maxValue.get());
+    }
+
+    static int indexOf(long value) {
+        if (value < 2 * SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return SUB_BUCKET_COUNT * shift + (int) (value >>> shift);
+    }
+
+    // Largest value that falls into the bucket at the given index
+    static long highestValueAt(int index) {
+        if (index < 2 * SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long subBucket = index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * Immutable copy of a histogram's contents at one point in time
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long totalCount;
+        private final long totalValue;
+        private final long maxValue;
+
+        private Snapshot(long[] counts, long totalCount, long totalValue, long maxValue) {
+            this.counts = counts;
+            this.totalCount = totalCount;
+            this.totalValue = totalValue;
+            this.maxValue = maxValue;
+        }
+
+        public long getCount() {
+            return totalCount;
+        }
+
+        public long getMax() {
+            return maxValue;
+        }
+
+        public double getMean() {
+            return totalCount == 0 ? 0 : (double) totalValue / totalCount;
+        }
+
+        /**
+         * Returns the value below which the given share of recorded values fall
+         * @param percentile The percentile, from 0 to 100
+         * @return The value at that percentile, or 0 if nothing has been recorded
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (totalCount == 0) {
+                return 0;
+            }
+            long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= target) {
+                    return Math.min(highestValueAt(i), maxValue);
+                }
+            }
+            return maxValue;
+        }
+
+        /**
+         * Combines this snapshot with another one taken from a histogram of the same range
+         * @param other The snapshot to add
+         * @return A new snapshot holding the values of both
+         */
+        public Snapshot merge(Snapshot other) {
+            long[] merged = counts.clone();
+            for (int i = 0; i < Math.min(merged.length, other.counts.length); i++) {
+                merged[i] += other.counts[i];
+            }
+            return new Snapshot(merged, totalCount + other.totalCount, totalValue + other.totalValue,
+                Math.max(maxValue, other.maxValue));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d mean=%.1f p50=%d p90=%d p99=%d max=%d", totalCount, getMean(),
+                getValueAtPercentile(50), getValueAtPercentile(90), getValueAtPercentile(99), maxValue);
+        }
+    }
+}
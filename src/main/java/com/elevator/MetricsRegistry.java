@@ -0,0 +1,54 @@
+package com.elevator;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics for one controller: dispatch counters and latency, plus the wait, ride and
+ * motion metrics each elevator records for itself. Recording never blocks; snapshot()
+ * gives an exporter a consistent-enough copy of everything to poll.
+ */
+public class MetricsRegistry {
+    // Strategy time per request is tracked in nanoseconds up to one second
+    static final long HIGHEST_TRACKED_DISPATCH_NANOS = 1_000_000_000L;
+
+    private final List<Elevator> elevators;
+    private final SimulationClock clock;
+    private final LatencyHistogram dispatchLatency = new LatencyHistogram(HIGHEST_TRACKED_DISPATCH_NANOS);
+    private final LongAdder assignedRequests = new LongAdder();
+    private final LongAdder unassignedRequests = new LongAdder();
+
+    public MetricsRegistry(List<Elevator> elevators, SimulationClock clock) {
+        this.elevators = elevators;
+        this.clock = clock;
+    }
+
+    /**
+     * Records the outcome of one scheduling decision
+     * @param nanosPerRequest Time spent in the strategy for each request
+     * @param requests The number of requests decided
+     * @param unassigned How many of them no elevator was found for
+     */
+    public void recordDispatch(long nanosPerRequest, int requests, int unassigned) {
+        dispatchLatency.recordValues(nanosPerRequest, requests);
+        assignedRequests.add(requests - unassigned);
+        unassignedRequests.add(unassigned);
+    }
+
+    public MetricsSnapshot snapshot() {
+        Map<String, ElevatorMetrics.Snapshot> perElevator = new LinkedHashMap<>();
+        ElevatorMetrics.Snapshot fleet = null;
+        for (Elevator elevator : elevators) {
+            ElevatorMetrics.Snapshot snapshot = elevator.getMetrics().snapshot();
+            perElevator.put(elevator.getId(), snapshot);
+            fleet = fleet == null ? snapshot : fleet.merge(snapshot);
+        }
+        if (fleet == null) {
+            fleet = new ElevatorMetrics().snapshot();
+        }
+        return new MetricsSnapshot(clock.currentTimeMillis(), fleet, perElevator, dispatchLatency.snapshot(),
+            assignedRequests.sum(), unassignedRequests.sum());
+    }
+}
@@ -0,0 +1,57 @@
+package com.elevator;
+
+import java.util.Collections;
+import java.util.Map;
+
+public final class MetricsSnapshot {
+    private final long timestamp;
+    private final ElevatorMetrics.Snapshot fleet;
+    private final Map<String, ElevatorMetrics.Snapshot> elevators;
+    private final LatencyHistogram.Snapshot dispatchLatency;
+    private final long assignedRequests;
+    private final long unassignedRequests;
+
+    MetricsSnapshot(long timestamp, ElevatorMetrics.Snapshot fleet, Map<String, ElevatorMetrics.Snapshot> elevators,
+                    LatencyHistogram.Snapshot dispatchLatency, long assignedRequests, long unassignedRequests) {
+        this.timestamp = timestamp;
+        this.fleet = fleet;
+        this.elevators = Collections.unmodifiableMap(elevators);
+        this.dispatchLatency = dispatchLatency;
+        this.assignedRequests = assignedRequests;
+        this.unassignedRequests = unassignedRequests;
+    }
+
+    // Clock time the snapshot was taken at
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    // All elevators' metrics combined
+    public ElevatorMetrics.Snapshot getFleet() {
+        return fleet;
+    }
+
+    // Metrics per elevator, keyed by elevator id
+    public Map<String, ElevatorMetrics.Snapshot> getElevators() {
+        return elevators;
+    }
+
+    // Time spent in the scheduling strategy per request, in nanoseconds
+    public LatencyHistogram.Snapshot getDispatchLatency() {
+        return dispatchLatency;
+    }
+
+    public long getAssignedRequests() {
+        return assignedRequests;
+    }
+
+    public long getUnassignedRequests() {
+        return unassignedRequests;
+    }
+
+    @Override
+    public String toString() {
+        return "assigned=" + assignedRequests + " unassigned=" + unassignedRequests
+            + " dispatchNanos[" + dispatchLatency + "] " + fleet;
+    }
+}
@@ -0,0 +1,9 @@
+package com.elevator;
+
+// What the dispatcher does with requests once its queue limit is reached
+public enum OverloadPolicy {
+    // Fail the request straight away, so callers can retry or shed load
+    REJECT,
+    // Accept the request, but dispatch with the controller's cheap overload strategy until the backlog clears
+    DEGRADE
+}
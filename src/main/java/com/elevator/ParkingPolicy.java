@@ -0,0 +1,28 @@
+package com.elevator;
+
+import java.util.List;
+
+/**
+ * Decides where an elevator waits once it has no more stops
+ */
+public interface ParkingPolicy {
+    // Leaves idle elevators wherever they stopped
+    ParkingPolicy STAY = (elevator, fleet, now) -> elevator.getCurrentFloor();
+
+    /**
+     * Selects the floor an idle elevator should park at
+     * @param elevator The idle elevator
+     * @param fleet The latest snapshot of every elevator in the fleet, including the idle one
+     * @param now The current clock time in milliseconds
+     * @return The floor to park at, or the elevator's current floor to leave it where it is
+     */
+    int selectParkingFloor(ElevatorSnapshot elevator, List<ElevatorSnapshot> fleet, long now);
+
+    /**
+     * Observes a request as it is dispatched, so learning policies can follow the traffic
+     * @param request The elevator request
+     * @param requestTime The clock time the request was made at
+     */
+    default void recordRequest(Request request, long requestTime) {
+    }
+}
@@ -0,0 +1,52 @@
+package com.elevator;
+
+import java.util.List;
+
+/**
+ * Parks idle elevators at the floors with the highest expected demand for the current time
+ * of day, as learned from the request stream. Each floor is covered by at most one idle car,
+ * so a fleet spreads out over the busiest floors.
+ */
+public class PredictiveParkingPolicy implements ParkingPolicy {
+    private final DemandModel demandModel;
+
+    public PredictiveParkingPolicy(DemandModel demandModel) {
+        this.demandModel = demandModel;
+    }
+
+    @Override
+    public int selectParkingFloor(ElevatorSnapshot elevator, List<ElevatorSnapshot> fleet, long now) {
+        for (int floor : demandModel.rankFloors(now)) {
+            if (floor < elevator.getMinFloor() || floor > elevator.getMaxFloor()) {
+                continue;
+            }
+            if (floor == elevator.getCurrentFloor() || !isCovered(floor, elevator, fleet)) {
+                return floor;
+            }
+        }
+        return elevator.getCurrentFloor();
+    }
+
+    @Override
+    public void recordRequest(Request request, long requestTime) {
+        demandModel.record(request.getSourceFloor(), requestTime);
+    }
+
+    public DemandModel getDemandModel() {
+        return demandModel;
+    }
+
+    // A floor is covered by another empty car already waiting there or on its way to park there
+    private static boolean isCovered(int floor, ElevatorSnapshot elevator, List<ElevatorSnapshot> fleet) {
+        for (ElevatorSnapshot other : fleet) {
+            if (other.getElevator() == elevator.getElevator() || other.getAssignedPassengers() > 0) {
+                continue;
+            }
+            if (other.getStopCount() == 0 ? other.getCurrentFloor() == floor
+                : other.getStopCount() == 1 && other.hasStop(floor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
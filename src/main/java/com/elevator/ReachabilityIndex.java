@@ -0,0 +1,190 @@
+package com.elevator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Precomputed index of which cars of a group stop at which floors. Whether one car can serve a request
+ * is two bit lookups, so a strategy skips ineligible cars in constant time. Requests no single car
+ * serves are routed through transfer floors, with the fewest legs first and the least travel second.
+ */
+public final class ReachabilityIndex {
+    private final int minFloor;
+    private final int maxFloor;
+    private final int carCount;
+    private final int words;
+    // Fleet positions of the cars stopping at each floor, indexed by floor - minFloor
+    private final long[][] carsByFloor;
+    // Whether every car stops at every floor, in which case no request needs checking
+    private final boolean uniform;
+    // Planned routes by (source << 32 | destination), an empty list where there is none
+    private final Map<Long, List<Integer>> routes = new ConcurrentHashMap<>();
+
+    /**
+     * @param elevators The cars of the group, in fleet order
+     * @param minFloor The lowest floor of the building
+     * @param maxFloor The highest floor of the building
+     */
+    public ReachabilityIndex(List<Elevator> elevators, int minFloor, int maxFloor) {
+        this.minFloor = minFloor;
+        this.maxFloor = maxFloor;
+        this.carCount = elevators.size();
+        this.words = (carCount + 63) >>> 6;
+        this.carsByFloor = new long[maxFloor - minFloor + 1][words];
+        boolean all = true;
+        for (int position = 0; position < carCount; position++) {
+            Elevator elevator = elevators.get(position);
+            for (int floor = minFloor; floor <= maxFloor; floor++) {
+                if (elevator.serves(floor)) {
+                    carsByFloor[floor - minFloor][position >>> 6] |= 1L << position;
+                } else {
+                    all = false;
+                }
+            }
+        }
+        this.uniform = all;
+    }
+
+    public boolean isUniform() {
+        return uniform;
+    }
+
+    /**
+     * Returns whether the car at the given fleet position stops at both floors of the request
+     * @param position The car's position in the fleet
+     * @param request The elevator request
+     * @return true if the car can take the request on its own
+     */
+    public boolean canServe(int position, Request request) {
+        long[] source = row(request.getSourceFloor());
+        long[] destination = row(request.getDestinationFloor());
+        if (source == null || destination == null) {
+            return false;
+        }
+        long bit = 1L << position;
+        int word = position >>> 6;
+        return (source[word] & destination[word] & bit) != 0;
+    }
+
+    /**
+     * Returns whether any one car stops at both floors of the request
+     * @param request The elevator request
+     * @return true if the request needs no transfer
+     */
+    public boolean canServe(Request request) {
+        return shareCar(request.getSourceFloor(), request.getDestinationFloor());
+    }
+
+    /**
+     * Returns the cars that stop at both floors of the request
+     * @param elevators The cars of the group, in the fleet order the index was built with
+     * @param request The elevator request
+     * @return The eligible cars in fleet order, or the given list itself if every car is eligible
+     */
+    public List<Elevator> eligibleCars(List<Elevator> elevators, Request request) {
+        if (uniform) {
+            return elevators;
+        }
+        long[] source = row(request.getSourceFloor());
+        long[] destination = row(request.getDestinationFloor());
+        if (source == null || destination == null) {
+            return Collections.emptyList();
+        }
+        List<Elevator> eligible = new ArrayList<>();
+        for (int word = 0; word < words; word++) {
+            long cars = source[word] & destination[word];
+            while (cars != 0) {
+                eligible.add(elevators.get((word << 6) + Long.numberOfTrailingZeros(cars)));
+                cars &= cars - 1;
+            }
+        }
+        return eligible;
+    }
+
+    /**
+     * Plans a trip between two floors, changing cars where no single car serves both
+     * @param sourceFloor The floor the passenger starts from
+     * @param destinationFloor The floor the passenger is going to
+     * @return The floors the passenger boards and leaves cars at, starting with the source floor and
+     *         ending with the destination floor, or an empty list if the floors are not connected
+     */
+    public List<Integer> route(int sourceFloor, int destinationFloor) {
+        if (row(sourceFloor) == null || row(destinationFloor) == null) {
+            return Collections.emptyList();
+        }
+        long key = ((long) sourceFloor << 32) | (destinationFloor & 0xFFFFFFFFL);
+        return routes.computeIfAbsent(key, ignored -> plan(sourceFloor, destinationFloor));
+    }
+
+    // Dijkstra over floors, where two floors are one leg apart if some car stops at both
+    private List<Integer> plan(int sourceFloor, int destinationFloor) {
+        int floors = maxFloor - minFloor + 1;
+        int[] legs = new int[floors];
+        int[] travel = new int[floors];
+        int[] previous = new int[floors];
+        boolean[] settled = new boolean[floors];
+        Arrays.fill(legs, Integer.MAX_VALUE);
+        int source = sourceFloor - minFloor;
+        int destination = destinationFloor - minFloor;
+        legs[source] = 0;
+        previous[source] = -1;
+
+        while (true) {
+            int next = -1;
+            for (int floor = 0; floor < floors; floor++) {
+                if (!settled[floor] && legs[floor] != Integer.MAX_VALUE && (next < 0 || legs[floor] < legs[next]
+                    || (legs[floor] == legs[next] && travel[floor] < travel[next]))) {
+                    next = floor;
+                }
+            }
+            if (next < 0) {
+                return Collections.emptyList();
+            }
+            if (next == destination) {
+                break;
+            }
+            settled[next] = true;
+            for (int floor = 0; floor < floors; floor++) {
+                if (settled[floor] || !shareCar(next + minFloor, floor + minFloor)) {
+                    continue;
+                }
+                int viaLegs = legs[next] + 1;
+                int viaTravel = travel[next] + Math.abs(floor - next);
+                if (viaLegs < legs[floor] || (viaLegs == legs[floor] && viaTravel < travel[floor])) {
+                    legs[floor] = viaLegs;
+                    travel[floor] = viaTravel;
+                    previous[floor] = next;
+                }
+            }
+        }
+
+        List<Integer> route = new ArrayList<>();
+        for (int floor = destination; floor >= 0; floor = previous[floor]) {
+            route.add(floor + minFloor);
+        }
+        Collections.reverse(route);
+        return Collections.unmodifiableList(route);
+    }
+
+    private boolean shareCar(int firstFloor, int secondFloor) {
+        long[] first = row(firstFloor);
+        long[] second = row(secondFloor);
+        if (first == null || second == null) {
+            return false;
+        }
+        for (int word = 0; word < words; word++) {
+            if ((first[word] & second[word]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long[] row(int floor) {
+        return floor >= minFloor && floor <= maxFloor ? carsByFloor[floor - minFloor] : null;
+    }
+}
@@ -0,0 +1,46 @@
+package com.elevator;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class RealTimeClock implements SimulationClock {
+    private final Object lock = new Object();
+    private ScheduledExecutorService scheduler;
+    private boolean shutdown;
+
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public void schedule(long delayMillis, Runnable task) {
+        synchronized (lock) {
+            if (shutdown) {
+                throw new RejectedExecutionException("Clock has been shut down");
+            }
+            // The timer thread is only started once something is actually scheduled
+            if (scheduler == null) {
+                scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+                    Thread thread = new Thread(runnable, "elevator-clock");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            scheduler.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        synchronized (lock) {
+            shutdown = true;
+            if (scheduler != null) {
+                scheduler.shutdownNow();
+                scheduler = null;
+            }
+        }
+    }
+}
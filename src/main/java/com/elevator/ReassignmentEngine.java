@@ -0,0 +1,118 @@
+package com.elevator;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Moves hall calls whose passengers are still waiting to a car that can now serve them sooner.
+ * Each pass only looks at cars whose stops or direction changed since the previous pass: their
+ * own hall calls are compared against every car, and every other hall call is compared against them.
+ * A call moves only when the estimated time saved exceeds the threshold, so calls do not flap
+ * between cars of nearly equal cost.
+ */
+public class ReassignmentEngine {
+    private static final EventLog logger = EventLog.getLog(ReassignmentEngine.class);
+    private final List<Elevator> elevators;
+    private final long thresholdMillis;
+    private final ETAStrategy estimator = new ETAStrategy();
+    // Stops version and direction of each car as of the end of the previous pass
+    private final long[] seenVersions;
+    private final Direction[] seenDirections;
+    private final AtomicLong reassignments = new AtomicLong();
+
+    /**
+     * Creates an engine over a fixed fleet
+     * @param elevators The fleet
+     * @param thresholdMillis The estimated time a move must save before a call is reassigned
+     */
+    public ReassignmentEngine(List<Elevator> elevators, long thresholdMillis) {
+        this.elevators = elevators;
+        this.thresholdMillis = thresholdMillis;
+        this.seenVersions = new long[elevators.size()];
+        this.seenDirections = new Direction[elevators.size()];
+    }
+
+    /**
+     * Runs one re-optimization pass. Not safe to call from several threads at once.
+     * @return The number of hall calls moved
+     */
+    public int rebalance() {
+        int count = elevators.size();
+        ElevatorSnapshot[] snapshots = new ElevatorSnapshot[count];
+        boolean[] changed = new boolean[count];
+        boolean anyChanged = false;
+        for (int i = 0; i < count; i++) {
+            snapshots[i] = elevators.get(i).getSnapshot();
+            changed[i] = snapshots[i].getStopsVersion() != seenVersions[i]
+                || snapshots[i].getDirection() != seenDirections[i];
+            anyChanged |= changed[i];
+        }
+        if (!anyChanged) {
+            return 0;
+        }
+
+        int moved = 0;
+        for (int owner = 0; owner < count; owner++) {
+            for (Trip trip : elevators.get(owner).getWaitingTrips()) {
+                if (moveIfCheaper(trip, owner, snapshots, changed)) {
+                    moved++;
+                }
+            }
+        }
+
+        // What this pass evaluated: the start-of-pass snapshot, or the post-move one for cars it moved calls
+        // between, so that changes made while the pass ran still trigger the next one
+        for (int i = 0; i < count; i++) {
+            seenVersions[i] = snapshots[i].getStopsVersion();
+            seenDirections[i] = snapshots[i].getDirection();
+        }
+        if (moved > 0) {
+            reassignments.addAndGet(moved);
+            logger.log(Level.FINE, "Reassigned {0} hall calls", moved);
+        }
+        return moved;
+    }
+
+    private boolean moveIfCheaper(Trip trip, int owner, ElevatorSnapshot[] snapshots, boolean[] changed) {
+        Request request = trip.getRequest();
+        long currentCost = estimator.estimateCost(snapshots[owner], request);
+        int best = -1;
+        long bestCost = currentCost - thresholdMillis;
+        for (int candidate = 0; candidate < snapshots.length; candidate++) {
+            ElevatorSnapshot snapshot = snapshots[candidate];
+            if (candidate == owner || !(changed[owner] || changed[candidate])
+                || snapshot.getState() == ElevatorState.MAINTENANCE
+                || snapshot.getAssignedPassengers() >= snapshot.getCapacity()
+                || !snapshot.getElevator().canServe(request)) {
+                continue;
+            }
+            long cost = estimator.estimateCost(snapshot, request);
+            if (cost < bestCost) {
+                best = candidate;
+                bestCost = cost;
+            }
+        }
+        // The passenger may have boarded since the trip was read, in which case it stays put
+        if (best < 0 || !elevators.get(owner).releaseTrip(trip)) {
+            return false;
+        }
+        if (!elevators.get(best).assignRequest(request, trip.getRequestTime())) {
+            // The car refused it, so the passenger goes back to the car that had it
+            elevators.get(owner).assignRequest(request, trip.getRequestTime());
+            snapshots[owner] = elevators.get(owner).getSnapshot();
+            logger.log(Level.WARNING, "Elevator {0} refused a moved hall call, kept on elevator {1}",
+                elevators.get(best).getId(), elevators.get(owner).getId());
+            return false;
+        }
+        snapshots[owner] = elevators.get(owner).getSnapshot();
+        snapshots[best] = elevators.get(best).getSnapshot();
+        logger.log(Level.FINE, "Moved hall call from elevator {0} to elevator {1}",
+            elevators.get(owner).getId(), elevators.get(best).getId());
+        return true;
+    }
+
+    public long getReassignments() {
+        return reassignments.get();
+    }
+}
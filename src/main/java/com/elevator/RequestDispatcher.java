@@ -0,0 +1,346 @@
+package com.elevator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Lock-free intake queue for elevator requests. Any number of threads may submit;
+ * a single drain task at a time hands the queued requests to the batch handler.
+ * With a batch window set, the drain waits that long after the first queued request
+ * so that requests arriving close together are handled as one batch.
+ * With coalescing on, a hall call from the same floor in the same direction as one still queued
+ * joins it instead of queueing, found in O(1) through a table indexed by floor and direction;
+ * it is assigned to the same car without a strategy pass. With a queue limit set, requests beyond it
+ * are rejected or accepted for degraded dispatch, depending on the overload policy.
+ */
+public class RequestDispatcher {
+    private final ConcurrentLinkedQueue<PendingRequest> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final SimulationClock clock;
+    private final Executor executor;
+    private final int maxBatchSize;
+    private final Consumer<List<PendingRequest>> batchHandler;
+    private final LongAdder submittedRequests = new LongAdder();
+    private final AtomicLong dispatchedRequests = new AtomicLong();
+    private final AtomicLong dispatchedBatches = new AtomicLong();
+    private final LongAdder coalescedRequests = new LongAdder();
+    private final LongAdder rejectedRequests = new LongAdder();
+    private volatile long batchWindowMillis;
+    private volatile int maxQueuedRequests;
+    private volatile OverloadPolicy overloadPolicy = OverloadPolicy.REJECT;
+    // Latest queued request per floor and direction, indexed by (floor - coalescingMinFloor) * 2 + (up ? 0 : 1)
+    private volatile AtomicReferenceArray<PendingRequest> leaders;
+    private volatile int coalescingMinFloor;
+
+    /**
+     * @param clock Times the batch window
+     * @param executor Runs the drain task
+     * @param maxBatchSize The maximum number of requests handed to the batch handler at once
+     * @param batchHandler Assigns a batch of requests and completes their futures
+     */
+    public RequestDispatcher(SimulationClock clock, Executor executor, int maxBatchSize,
+                             Consumer<List<PendingRequest>> batchHandler) {
+        this.clock = clock;
+        this.executor = executor;
+        this.maxBatchSize = maxBatchSize;
+        this.batchHandler = batchHandler;
+    }
+
+    /**
+     * Queues a request without blocking the caller
+     * @param request The elevator request
+     * @return A future completed once the request has been assigned to an elevator
+     */
+    public CompletableFuture<Assignment> submit(Request request) {
+        PendingRequest pending = new PendingRequest(request, clock.currentTimeMillis());
+        if (overloadPolicy == OverloadPolicy.REJECT && isOverloaded()) {
+            rejectedRequests.increment();
+            pending.getFuture().completeExceptionally(
+                new RejectedExecutionException("Dispatch queue is full at " + maxQueuedRequests + " requests"));
+            return pending.getFuture();
+        }
+
+        AtomicReferenceArray<PendingRequest> table = leaders;
+        int slot = table != null ? slotOf(table, request) : -1;
+        if (slot >= 0) {
+            PendingRequest leader = table.get(slot);
+            if (leader != null && leader.follow(pending)) {
+                submittedRequests.increment();
+                coalescedRequests.increment();
+                return pending.getFuture();
+            }
+            table.set(slot, pending);
+        }
+        queue.offer(pending);
+        submittedRequests.increment();
+        if (drainScheduled.compareAndSet(false, true)) {
+            long window = batchWindowMillis;
+            if (window > 0) {
+                try {
+                    clock.schedule(window, this::startDrain);
+                } catch (RejectedExecutionException e) {
+                    abandonQueue(e);
+                }
+            } else {
+                startDrain();
+            }
+        }
+        return pending.getFuture();
+    }
+
+    private int slotOf(AtomicReferenceArray<PendingRequest> table, Request request) {
+        int index = request.getSourceFloor() - coalescingMinFloor;
+        if (index < 0 || 2 * index >= table.length()) {
+            return -1;
+        }
+        return 2 * index + (request.getDirection() == Direction.UP ? 0 : 1);
+    }
+
+    private void startDrain() {
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            abandonQueue(e);
+        }
+    }
+
+    // Nothing will ever drain the queue once the executor has been shut down
+    private void abandonQueue(RejectedExecutionException cause) {
+        drainScheduled.set(false);
+        PendingRequest pending;
+        while ((pending = queue.poll()) != null) {
+            for (PendingRequest request : pending.closeFollowers()) {
+                request.getFuture().completeExceptionally(cause);
+            }
+            pending.getFuture().completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * Sets how long the dispatcher collects requests before draining them
+     * @param batchWindowMillis The window in milliseconds, or 0 to drain immediately
+     */
+    public void setBatchWindowMillis(long batchWindowMillis) {
+        this.batchWindowMillis = batchWindowMillis;
+    }
+
+    public long getBatchWindowMillis() {
+        return batchWindowMillis;
+    }
+
+    /**
+     * Turns coalescing of queued hall calls on or off
+     * @param minFloor The lowest floor requests come from
+     * @param maxFloor The highest floor requests come from
+     * @param enabled true to coalesce requests from floors in the range, false to queue every request
+     */
+    public void setCoalescing(int minFloor, int maxFloor, boolean enabled) {
+        this.coalescingMinFloor = minFloor;
+        this.leaders = enabled ? new AtomicReferenceArray<>(2 * (maxFloor - minFloor + 1)) : null;
+    }
+
+    public boolean isCoalescing() {
+        return leaders != null;
+    }
+
+    /**
+     * Bounds the dispatch backlog
+     * @param maxQueuedRequests The number of queued requests beyond which the policy applies, or 0 for no limit
+     * @param policy Whether requests beyond the limit are rejected or accepted while the dispatcher reports overload
+     */
+    public void setQueueLimit(int maxQueuedRequests, OverloadPolicy policy) {
+        this.overloadPolicy = policy;
+        this.maxQueuedRequests = maxQueuedRequests;
+    }
+
+    public int getMaxQueuedRequests() {
+        return maxQueuedRequests;
+    }
+
+    public OverloadPolicy getOverloadPolicy() {
+        return overloadPolicy;
+    }
+
+    // Whether the backlog has reached the queue limit
+    boolean isOverloaded() {
+        int limit = maxQueuedRequests;
+        return limit > 0 && getQueuedRequests() >= limit;
+    }
+
+    // Counts a request the controller coalesced or rejected without queueing it
+    void countCoalesced() {
+        coalescedRequests.increment();
+    }
+
+    void countRejected() {
+        rejectedRequests.increment();
+    }
+
+    private void drain() {
+        List<PendingRequest> batch = new ArrayList<>(maxBatchSize);
+        while (true) {
+            PendingRequest pending;
+            int followers = 0;
+            AtomicReferenceArray<PendingRequest> table = leaders;
+            while (batch.size() < maxBatchSize && (pending = queue.poll()) != null) {
+                if (table != null) {
+                    int slot = slotOf(table, pending.getRequest());
+                    if (slot >= 0) {
+                        table.compareAndSet(slot, pending, null);
+                    }
+                }
+                // No request can join once it has left the queue
+                followers += pending.closeFollowers().size();
+                batch.add(pending);
+            }
+            if (batch.isEmpty()) {
+                drainScheduled.set(false);
+                // A submitter may have queued a request after the last poll but before the flag was cleared
+                if (queue.isEmpty() || !drainScheduled.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            // Counted before the handler runs so the counters never lag behind completed futures
+            dispatchedRequests.addAndGet(batch.size() + followers);
+            dispatchedBatches.incrementAndGet();
+            try {
+                batchHandler.accept(batch);
+            } catch (RuntimeException e) {
+                for (PendingRequest failed : batch) {
+                    for (PendingRequest follower : failed.getFollowers()) {
+                        follower.getFuture().completeExceptionally(e);
+                    }
+                    failed.getFuture().completeExceptionally(e);
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    public long getSubmittedRequests() {
+        return submittedRequests.sum();
+    }
+
+    public long getDispatchedRequests() {
+        return dispatchedRequests.get();
+    }
+
+    public long getDispatchedBatches() {
+        return dispatchedBatches.get();
+    }
+
+    // Requests that joined a queued request from the same floor and direction
+    public long getCoalescedRequests() {
+        return coalescedRequests.sum();
+    }
+
+    public long getRejectedRequests() {
+        return rejectedRequests.sum();
+    }
+
+    public long getQueuedRequests() {
+        // Derived from the counters, since sizing the queue itself means walking it
+        return Math.max(0, getSubmittedRequests() - getDispatchedRequests());
+    }
+
+    /**
+     * Returns the requests queued but not yet handed to the batch handler. Only exact while
+     * no request is being submitted or drained.
+     * @return A copy of the queued requests, oldest first
+     */
+    public List<PendingRequest> getPendingRequests() {
+        List<PendingRequest> pending = new ArrayList<>();
+        for (PendingRequest queued : queue) {
+            pending.add(queued);
+            pending.addAll(queued.copyFollowers());
+        }
+        return pending;
+    }
+
+    public static class PendingRequest {
+        private final Request request;
+        private final long submitTime;
+        private final CompletableFuture<Assignment> future = new CompletableFuture<>();
+        // Requests that joined this one while it was queued, guarded by this request's monitor
+        private List<PendingRequest> followers = Collections.emptyList();
+        private boolean closed;
+        // Set once a checkpoint holds this request as queued
+        private volatile boolean checkpointed;
+        // Set by the batch handler for a coalesced request, which is assigned without a strategy pass
+        private Elevator assignedElevator;
+
+        private PendingRequest(Request request, long submitTime) {
+            this.request = request;
+            this.submitTime = submitTime;
+        }
+
+        private synchronized boolean follow(PendingRequest follower) {
+            if (closed) {
+                return false;
+            }
+            if (followers.isEmpty()) {
+                followers = new ArrayList<>(4);
+            }
+            followers.add(follower);
+            return true;
+        }
+
+        private synchronized List<PendingRequest> closeFollowers() {
+            closed = true;
+            return followers;
+        }
+
+        private synchronized List<PendingRequest> copyFollowers() {
+            return new ArrayList<>(followers);
+        }
+
+        /**
+         * Returns the requests from the same floor in the same direction coalesced into this one,
+         * which go to the car this request is assigned to
+         * @return The coalesced requests, complete once the request has been handed to the batch handler
+         */
+        public synchronized List<PendingRequest> getFollowers() {
+            return followers;
+        }
+
+        void markCheckpointed() {
+            checkpointed = true;
+        }
+
+        boolean isCheckpointed() {
+            return checkpointed;
+        }
+
+        Elevator getAssignedElevator() {
+            return assignedElevator;
+        }
+
+        void setAssignedElevator(Elevator elevator) {
+            this.assignedElevator = elevator;
+        }
+
+        public Request getRequest() {
+            return request;
+        }
+
+        // Clock time the request was submitted at, which is when its wait starts
+        public long getSubmitTime() {
+            return submitTime;
+        }
+
+        public CompletableFuture<Assignment> getFuture() {
+            return future;
+        }
+    }
+}
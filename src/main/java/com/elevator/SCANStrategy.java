@@ -1,43 +1,96 @@
 package com.elevator;
 
 import java.util.List;
-import java.util.logging.Logger;
 import java.util.logging.Level;
 
 public class SCANStrategy implements SchedulingStrategy {
-    private static final Logger logger = Logger.getLogger(SCANStrategy.class.getName());
+    private static final EventLog logger = EventLog.getLog(SCANStrategy.class);
+    // Added to the cost of a car moving away from the source floor
+    static final int OPPOSITE_DIRECTION_PENALTY = 10000;
 
     @Override
     public Elevator selectElevator(List<Elevator> elevators, Request request) {
-        logger.log(Level.INFO, "Using SCAN strategy to select elevator for request: Floor {0} -> Floor {1}",
-            new Object[]{request.getSourceFloor(), request.getDestinationFloor()});
+        logger.log(Level.FINE, "Using SCAN strategy to select elevator for request: Floor {0} -> Floor {1}",
+            request.getSourceFloor(), request.getDestinationFloor());
 
-        Elevator bestElevator = null;
+        // Each elevator is read once, so every decision sees one consistent state per car
+        ElevatorSnapshot best = null;
         int minCost = Integer.MAX_VALUE;
 
         for (Elevator elevator : elevators) {
-            if (elevator.getState() == ElevatorState.MAINTENANCE) {
+            ElevatorSnapshot snapshot = elevator.getSnapshot();
+            // Cars that do not stop at both floors are skipped in constant time
+            if (snapshot.getState() == ElevatorState.MAINTENANCE || !elevator.canServe(request)) {
                 continue;
             }
 
-            int cost = calculateCost(elevator, request);
+            int cost = calculateCost(snapshot, request);
             if (cost < minCost) {
-                bestElevator = elevator;
+                best = snapshot;
                 minCost = cost;
             }
         }
 
-        if (bestElevator != null) {
-            logger.log(Level.INFO, "Selected elevator at floor {0} with cost {1}",
-                new Object[]{bestElevator.getCurrentFloor(), minCost});
-        } else {
-            logger.warning("No available elevator found for the request");
+        if (best != null) {
+            logger.log(Level.FINE, "Selected elevator at floor {0} with cost {1}",
+                best.getCurrentFloor(), minCost);
+            return best.getElevator();
         }
+        logger.warning("No available elevator found for the request");
+        return null;
+    }
+
+    @Override
+    public Elevator selectElevator(FleetIndex index, List<Elevator> elevators, Request request) {
+        if (elevators.isEmpty() || index.size() != elevators.size() || !index.contains(elevators.get(0))) {
+            return selectElevator(elevators, request);
+        }
+        logger.log(Level.FINE, "Using indexed SCAN strategy to select elevator for request: Floor {0} -> Floor {1}",
+            request.getSourceFloor(), request.getDestinationFloor());
 
-        return bestElevator;
+        // Only the nearest car in each bucket can be the cheapest: idle cars on either side,
+        // cars already heading towards the source floor, and failing those the nearest car heading away
+        int sourceFloor = request.getSourceFloor();
+        ElevatorSnapshot[] candidates = {
+            index.nearestAtOrAbove(Direction.IDLE, sourceFloor),
+            index.nearestAtOrBelow(Direction.IDLE, sourceFloor),
+            index.nearestAtOrBelow(Direction.UP, sourceFloor - 1),
+            index.nearestAtOrAbove(Direction.DOWN, sourceFloor + 1),
+            index.nearestAtOrAbove(Direction.UP, sourceFloor),
+            index.nearestAtOrBelow(Direction.DOWN, sourceFloor)
+        };
+
+        ElevatorSnapshot best = null;
+        int minCost = Integer.MAX_VALUE;
+        int bestPosition = Integer.MAX_VALUE;
+        for (ElevatorSnapshot candidate : candidates) {
+            if (candidate == null) {
+                continue;
+            }
+            if (!candidate.getElevator().canServe(request)) {
+                // The nearest cars may not stop there, so the buckets no longer bound the answer
+                return selectElevator(elevators, request);
+            }
+            // Ties go to the car earliest in the fleet, as they do in the full scan
+            int cost = calculateCost(candidate, request);
+            int position = index.positionOf(candidate.getElevator());
+            if (cost < minCost || (cost == minCost && position < bestPosition)) {
+                best = candidate;
+                minCost = cost;
+                bestPosition = position;
+            }
+        }
+
+        if (best != null) {
+            logger.log(Level.FINE, "Selected elevator at floor {0} with cost {1}",
+                best.getCurrentFloor(), minCost);
+            return best.getElevator();
+        }
+        logger.warning("No available elevator found for the request");
+        return null;
     }
 
-    private int calculateCost(Elevator elevator, Request request) {
+    static int calculateCost(ElevatorSnapshot elevator, Request request) {
         int currentFloor = elevator.getCurrentFloor();
         Direction currentDirection = elevator.getDirection();
         int sourceFloor = request.getSourceFloor();
@@ -57,6 +110,6 @@ public class SCANStrategy implements SchedulingStrategy {
         }
 
         // If elevator is moving in opposite direction, add a large penalty
-        return cost + 10000;
+        return cost + OPPOSITE_DIRECTION_PENALTY;
     }
-} 
\ No newline at end of file
+}
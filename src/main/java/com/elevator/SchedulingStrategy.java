@@ -1,5 +1,6 @@
 package com.elevator;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public interface SchedulingStrategy {
@@ -10,4 +11,33 @@ public interface SchedulingStrategy {
      * @return The selected elevator, or null if no suitable elevator is found
      */
     Elevator selectElevator(List<Elevator> elevators, Request request);
-} 
\ No newline at end of file
+
+    /**
+     * Selects the best elevator for a given request, using the fleet index to avoid scoring
+     * every elevator. By default the index is ignored and the whole list is scanned.
+     * @param index Index of the same elevators, kept up to date by the controller
+     * @param elevators List of available elevators
+     * @param request The elevator request
+     * @return The selected elevator, or null if no suitable elevator is found
+     */
+    default Elevator selectElevator(FleetIndex index, List<Elevator> elevators, Request request) {
+        return selectElevator(elevators, request);
+    }
+
+    /**
+     * Assigns a batch of requests to elevators in one pass. By default each request is
+     * scored on its own against the same fleet state; batch-aware strategies override
+     * this to optimize the assignments jointly.
+     * @param elevators List of available elevators
+     * @param requests The elevator requests to assign
+     * @return The selected elevator for each request, in request order, with null
+     *         entries for requests no suitable elevator was found for
+     */
+    default List<Elevator> assignRequests(List<Elevator> elevators, List<Request> requests) {
+        List<Elevator> assignments = new ArrayList<>(requests.size());
+        for (Request request : requests) {
+            assignments.add(selectElevator(elevators, request));
+        }
+        return assignments;
+    }
+}
@@ -0,0 +1,123 @@
+package com.elevator;
+
+import java.util.Arrays;
+
+/**
+ * The floors one car of a group stops at: a plain range, an express car running non-stop from its lobby
+ * to a high zone, or any other set of floors. A car still travels past the floors it does not serve.
+ */
+public final class ServedFloors {
+    private final int minFloor;
+    private final int maxFloor;
+    // Indexed by floor - minFloor
+    private final boolean[] served;
+    private final boolean continuous;
+
+    private ServedFloors(int minFloor, int maxFloor, boolean[] served) {
+        this.minFloor = minFloor;
+        this.maxFloor = maxFloor;
+        this.served = served;
+        boolean all = true;
+        for (boolean floor : served) {
+            all &= floor;
+        }
+        this.continuous = all;
+    }
+
+    /**
+     * Every floor from minFloor to maxFloor
+     * @param minFloor The lowest floor served
+     * @param maxFloor The highest floor served
+     * @return The served floors
+     */
+    public static ServedFloors range(int minFloor, int maxFloor) {
+        if (minFloor > maxFloor) {
+            throw new IllegalArgumentException("Empty floor range " + minFloor + " to " + maxFloor);
+        }
+        boolean[] served = new boolean[maxFloor - minFloor + 1];
+        Arrays.fill(served, true);
+        return new ServedFloors(minFloor, maxFloor, served);
+    }
+
+    /**
+     * An express car: its lobby and every floor of one zone, with no stops in between
+     * @param lobby The floor the car runs express from, typically the ground floor or a sky lobby
+     * @param zoneMinFloor The lowest floor of the zone
+     * @param zoneMaxFloor The highest floor of the zone
+     * @return The served floors
+     */
+    public static ServedFloors express(int lobby, int zoneMinFloor, int zoneMaxFloor) {
+        if (zoneMinFloor > zoneMaxFloor) {
+            throw new IllegalArgumentException("Empty floor range " + zoneMinFloor + " to " + zoneMaxFloor);
+        }
+        int lowest = Math.min(lobby, zoneMinFloor);
+        int highest = Math.max(lobby, zoneMaxFloor);
+        boolean[] served = new boolean[highest - lowest + 1];
+        Arrays.fill(served, zoneMinFloor - lowest, zoneMaxFloor - lowest + 1, true);
+        served[lobby - lowest] = true;
+        return new ServedFloors(lowest, highest, served);
+    }
+
+    /**
+     * Exactly the given floors
+     * @param floors The floors served, in any order
+     * @return The served floors
+     */
+    public static ServedFloors of(int... floors) {
+        if (floors.length == 0) {
+            throw new IllegalArgumentException("A car must serve at least one floor");
+        }
+        int lowest = Arrays.stream(floors).min().getAsInt();
+        int highest = Arrays.stream(floors).max().getAsInt();
+        boolean[] served = new boolean[highest - lowest + 1];
+        for (int floor : floors) {
+            served[floor - lowest] = true;
+        }
+        return new ServedFloors(lowest, highest, served);
+    }
+
+    public boolean serves(int floor) {
+        return floor >= minFloor && floor <= maxFloor && served[floor - minFloor];
+    }
+
+    public int getMinFloor() {
+        return minFloor;
+    }
+
+    public int getMaxFloor() {
+        return maxFloor;
+    }
+
+    /**
+     * @return The floors served, lowest first
+     */
+    public int[] getFloors() {
+        int[] floors = new int[served.length];
+        int count = 0;
+        for (int floor = minFloor; floor <= maxFloor; floor++) {
+            if (served[floor - minFloor]) {
+                floors[count++] = floor;
+            }
+        }
+        return Arrays.copyOf(floors, count);
+    }
+
+    // Whether every floor between the lowest and the highest is served
+    public boolean isContinuous() {
+        return continuous;
+    }
+
+    @Override
+    public String toString() {
+        if (continuous) {
+            return minFloor + "-" + maxFloor;
+        }
+        StringBuilder floors = new StringBuilder();
+        for (int floor = minFloor; floor <= maxFloor; floor++) {
+            if (served[floor - minFloor]) {
+                floors.append(floors.length() > 0 ? "," : "").append(floor);
+            }
+        }
+        return floors.toString();
+    }
+}
@@ -0,0 +1,21 @@
+package com.elevator;
+
+public interface SimulationClock {
+    /**
+     * Returns the current time of this clock
+     * @return The current time in milliseconds
+     */
+    long currentTimeMillis();
+
+    /**
+     * Schedules a task to run once after the given delay
+     * @param delayMillis The delay in milliseconds, relative to the current time of this clock
+     * @param task The task to run
+     */
+    void schedule(long delayMillis, Runnable task);
+
+    /**
+     * Releases any resources held by the clock. Pending tasks are discarded.
+     */
+    void shutdown();
+}
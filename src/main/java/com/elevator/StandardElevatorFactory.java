@@ -1,15 +1,29 @@
 package com.elevator;
 
-import java.util.logging.Logger;
 import java.util.logging.Level;
 
 public class StandardElevatorFactory implements ElevatorFactory {
-    private static final Logger logger = Logger.getLogger(StandardElevatorFactory.class.getName());
+    private static final EventLog logger = EventLog.getLog(StandardElevatorFactory.class);
+    private final StopOrderingPolicy stopOrderingPolicy;
+    private final int capacity;
+
+    public StandardElevatorFactory() {
+        this(StopOrderingPolicy.LOOK);
+    }
+
+    public StandardElevatorFactory(StopOrderingPolicy stopOrderingPolicy) {
+        this(stopOrderingPolicy, Elevator.DEFAULT_CAPACITY);
+    }
+
+    public StandardElevatorFactory(StopOrderingPolicy stopOrderingPolicy, int capacity) {
+        this.stopOrderingPolicy = stopOrderingPolicy;
+        this.capacity = capacity;
+    }
 
     @Override
     public Elevator createElevator(int minFloor, int maxFloor) {
-        logger.log(Level.INFO, "Creating standard elevator with floor range {0} to {1}", 
-            new Object[]{minFloor, maxFloor});
-        return new Elevator(minFloor, maxFloor);
+        logger.log(Level.INFO, "Creating standard elevator with {0} stop ordering and floor range {1} to {2}", 
+            stopOrderingPolicy, minFloor, maxFloor);
+        return new Elevator(minFloor, maxFloor, stopOrderingPolicy, capacity);
     }
 } 
\ No newline at end of file
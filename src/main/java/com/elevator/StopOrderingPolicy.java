@@ -0,0 +1,93 @@
+package com.elevator;
+
+public enum StopOrderingPolicy {
+    // Heads for stops in the order they were added, serving any stop it passes on the way
+    FIFO {
+        @Override
+        public int nextTarget(DestinationQueue stops, int currentFloor, Direction direction, int minFloor, int maxFloor) {
+            return stops.contains(currentFloor) ? currentFloor : stops.first();
+        }
+    },
+    // Sweeps to the end of the shaft before reversing
+    SCAN {
+        @Override
+        public int nextTarget(DestinationQueue stops, int currentFloor, Direction direction, int minFloor, int maxFloor) {
+            if (stops.isEmpty() || stops.contains(currentFloor)) {
+                return stops.isEmpty() ? DestinationQueue.NONE : currentFloor;
+            }
+            if (direction == Direction.UP) {
+                int above = stops.nextAbove(currentFloor);
+                return above != DestinationQueue.NONE ? above
+                    : currentFloor < maxFloor ? maxFloor : stops.nextBelow(currentFloor);
+            }
+            if (direction == Direction.DOWN) {
+                int below = stops.nextBelow(currentFloor);
+                return below != DestinationQueue.NONE ? below
+                    : currentFloor > minFloor ? minFloor : stops.nextAbove(currentFloor);
+            }
+            return nearest(stops, currentFloor);
+        }
+    },
+    // Sweeps as far as the last stop in the direction of travel before reversing
+    LOOK {
+        @Override
+        public int nextTarget(DestinationQueue stops, int currentFloor, Direction direction, int minFloor, int maxFloor) {
+            if (stops.isEmpty() || stops.contains(currentFloor)) {
+                return stops.isEmpty() ? DestinationQueue.NONE : currentFloor;
+            }
+            if (direction == Direction.UP) {
+                int above = stops.nextAbove(currentFloor);
+                return above != DestinationQueue.NONE ? above : stops.nextBelow(currentFloor);
+            }
+            if (direction == Direction.DOWN) {
+                int below = stops.nextBelow(currentFloor);
+                return below != DestinationQueue.NONE ? below : stops.nextAbove(currentFloor);
+            }
+            return nearest(stops, currentFloor);
+        }
+    },
+    // Serves stops on the way up only, then returns straight to the lowest stop
+    C_LOOK {
+        @Override
+        public int nextTarget(DestinationQueue stops, int currentFloor, Direction direction, int minFloor, int maxFloor) {
+            if (stops.isEmpty()) {
+                return DestinationQueue.NONE;
+            }
+            int lowest = stops.nextAbove(minFloor - 1);
+            if (direction == Direction.DOWN) {
+                // On the return trip, stops between here and the lowest stop wait for the next sweep up
+                return lowest;
+            }
+            if (stops.contains(currentFloor)) {
+                return currentFloor;
+            }
+            int above = stops.nextAbove(currentFloor);
+            return above != DestinationQueue.NONE ? above : lowest;
+        }
+    };
+
+    /**
+     * Chooses the floor the elevator should head for next
+     * @param stops The pending stops
+     * @param currentFloor The floor the elevator is at
+     * @param direction The current direction of travel
+     * @param minFloor The lowest floor the elevator can reach
+     * @param maxFloor The highest floor the elevator can reach
+     * @return The target floor, the current floor to stop where the elevator is,
+     *         or DestinationQueue.NONE if there are no stops
+     */
+    public abstract int nextTarget(DestinationQueue stops, int currentFloor, Direction direction,
+                                   int minFloor, int maxFloor);
+
+    private static int nearest(DestinationQueue stops, int currentFloor) {
+        int above = stops.nextAbove(currentFloor);
+        int below = stops.nextBelow(currentFloor);
+        if (above == DestinationQueue.NONE) {
+            return below;
+        }
+        if (below == DestinationQueue.NONE) {
+            return above;
+        }
+        return above - currentFloor <= currentFloor - below ? above : below;
+    }
+}
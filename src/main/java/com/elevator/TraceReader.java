@@ -0,0 +1,100 @@
+package com.elevator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams the records of a trace file written by TraceWriter through memory-mapped windows,
+ * so traces of any size are read without loading them onto the heap. The reader is a cursor:
+ * call next() to move to each record and read its fields with the getters.
+ */
+public class TraceReader implements Closeable {
+    // Mapped a window at a time so traces larger than 2 GB, the limit of a single mapping, still stream
+    private static final long WINDOW_BYTES = (64L * 1024 * 1024 / TraceWriter.RECORD_BYTES) * TraceWriter.RECORD_BYTES;
+    private final FileChannel channel;
+    private final long recordCount;
+    private MappedByteBuffer window;
+    private long position;
+    private long timestamp;
+    private int sourceFloor;
+    private int destinationFloor;
+
+    /**
+     * Opens a trace file for reading
+     * @param path The trace file
+     * @throws IOException If the file cannot be read or is not a trace
+     */
+    public TraceReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            if (channel.size() < TraceWriter.HEADER_BYTES) {
+                throw new IOException("Not an elevator trace: " + path);
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, TraceWriter.HEADER_BYTES);
+            if (header.getInt() != TraceWriter.MAGIC) {
+                throw new IOException("Not an elevator trace: " + path);
+            }
+            int version = header.getInt();
+            if (version != TraceWriter.VERSION) {
+                throw new IOException("Unsupported trace version " + version + ": " + path);
+            }
+            // A partly written trailing record is ignored
+            this.recordCount = (channel.size() - TraceWriter.HEADER_BYTES) / TraceWriter.RECORD_BYTES;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Moves to the next record
+     * @return true if there was another record, false at the end of the trace
+     * @throws IOException If the next window of the file cannot be mapped
+     */
+    public boolean next() throws IOException {
+        if (position >= recordCount) {
+            return false;
+        }
+        if (window == null || !window.hasRemaining()) {
+            long offset = TraceWriter.HEADER_BYTES + position * TraceWriter.RECORD_BYTES;
+            long remaining = (recordCount - position) * TraceWriter.RECORD_BYTES;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(WINDOW_BYTES, remaining));
+        }
+        timestamp = window.getLong();
+        sourceFloor = window.getInt();
+        destinationFloor = window.getInt();
+        position++;
+        return true;
+    }
+
+    // Clock time of the current record
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public int getSourceFloor() {
+        return sourceFloor;
+    }
+
+    public int getDestinationFloor() {
+        return destinationFloor;
+    }
+
+    public Request toRequest() {
+        return new Request(sourceFloor, destinationFloor);
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+}
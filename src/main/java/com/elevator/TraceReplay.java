@@ -0,0 +1,205 @@
+package com.elevator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.logging.Level;
+
+/**
+ * Replays a recorded trace into a fresh virtual-time controller, so a day of traffic runs in
+ * seconds, and summarizes how the fleet served it. Running the same trace through several
+ * strategies compares them on identical traffic; each strategy gets its own fleet and clock,
+ * so the replays share nothing and race each other on a fork-join pool.
+ */
+public class TraceReplay {
+    private static final EventLog logger = EventLog.getLog(TraceReplay.class);
+    // How long the fleet may keep running after the last request to deliver everyone still waiting
+    private static final long MAX_DRAIN_MILLIS = 60 * 60 * 1000;
+    private final int numElevators;
+    private final int minFloor;
+    private final int maxFloor;
+    private final ElevatorFactory elevatorFactory;
+
+    public TraceReplay(int numElevators, int minFloor, int maxFloor) {
+        this(numElevators, minFloor, maxFloor, new StandardElevatorFactory());
+    }
+
+    public TraceReplay(int numElevators, int minFloor, int maxFloor, ElevatorFactory elevatorFactory) {
+        this.numElevators = numElevators;
+        this.minFloor = minFloor;
+        this.maxFloor = maxFloor;
+        this.elevatorFactory = elevatorFactory;
+    }
+
+    /**
+     * Replays every request in the trace at its recorded time and runs the fleet until it is idle
+     * @param trace The trace file
+     * @param strategy The scheduling strategy to replay with
+     * @return The summary of the replay
+     * @throws IOException If the trace cannot be read
+     */
+    public Result replay(Path trace, SchedulingStrategy strategy) throws IOException {
+        VirtualClock clock = new VirtualClock();
+        ElevatorController controller = ElevatorController.newSimulation(numElevators, minFloor, maxFloor, clock,
+            elevatorFactory);
+        controller.setSchedulingStrategy(strategy);
+        long started = System.nanoTime();
+        long requests = 0;
+        long firstTime = 0;
+        try (TraceReader reader = new TraceReader(trace)) {
+            while (reader.next()) {
+                if (requests++ == 0) {
+                    firstTime = reader.getTimestamp();
+                }
+                clock.advanceTo(reader.getTimestamp());
+                controller.requestElevator(reader.toRequest());
+            }
+            long drainDeadline = clock.currentTimeMillis() + MAX_DRAIN_MILLIS;
+            while (clock.getPendingEvents() > 0 && clock.currentTimeMillis() <= drainDeadline) {
+                clock.runNext();
+            }
+            return new Result(strategy.getClass().getSimpleName(), requests, clock.currentTimeMillis() - firstTime,
+                System.nanoTime() - started, controller.getMetrics().snapshot());
+        } finally {
+            controller.shutdown();
+        }
+    }
+
+    /**
+     * Replays the trace once per strategy, in parallel on the common fork-join pool
+     * @param trace The trace file
+     * @param strategies The strategies to compare, each a separate instance
+     * @return One summary per strategy, in the same order
+     * @throws IOException If the trace cannot be read
+     */
+    public List<Result> compare(Path trace, List<SchedulingStrategy> strategies) throws IOException {
+        return compare(trace, strategies, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Replays the trace once per strategy, each in its own isolated fleet on the given pool
+     * @param trace The trace file
+     * @param strategies The strategies to compare, each a separate instance since they run concurrently
+     * @param pool The pool running the replays
+     * @return One summary per strategy, in the same order
+     * @throws IOException If the trace cannot be read
+     */
+    public List<Result> compare(Path trace, List<SchedulingStrategy> strategies, ForkJoinPool pool)
+            throws IOException {
+        List<ForkJoinTask<Result>> replays = new ArrayList<>(strategies.size());
+        for (SchedulingStrategy strategy : strategies) {
+            replays.add(pool.submit(() -> {
+                try {
+                    Result result = replay(trace, strategy);
+                    logger.log(Level.INFO, "Replayed {0}", result);
+                    return result;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        }
+        List<Result> results = new ArrayList<>(strategies.size());
+        try {
+            for (ForkJoinTask<Result> replay : replays) {
+                results.add(replay.join());
+            }
+        } catch (RuntimeException e) {
+            for (ForkJoinTask<Result> replay : replays) {
+                replay.cancel(false);
+            }
+            // join may rethrow a copy of the task's exception, with the original as its cause
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof UncheckedIOException) {
+                    throw ((UncheckedIOException) cause).getCause();
+                }
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    /**
+     * Formats the results as a table, one row per strategy: wait and ride time percentiles in
+     * milliseconds, energy as floors travelled and stops made, and the strategy's compute time per decision
+     * @param results The results to compare
+     * @return The report
+     */
+    public static String report(List<Result> results) {
+        StringBuilder report = new StringBuilder(String.format(
+            "%-28s %9s %8s %8s %8s %8s %8s %8s %9s %8s %10s %10s%n", "strategy", "requests", "wait50", "wait95",
+            "wait99", "ride50", "ride95", "ride99", "floors", "stops", "decide(ns)", "decide99"));
+        for (Result result : results) {
+            ElevatorMetrics.Snapshot fleet = result.getMetrics().getFleet();
+            LatencyHistogram.Snapshot dispatch = result.getMetrics().getDispatchLatency();
+            report.append(String.format("%-28s %9d %8d %8d %8d %8d %8d %8d %9d %8d %10.0f %10d%n",
+                result.getStrategy(), result.getRequests(), fleet.getWaitTimes().getValueAtPercentile(50),
+                fleet.getWaitTimes().getValueAtPercentile(95), fleet.getWaitTimes().getValueAtPercentile(99),
+                fleet.getRideTimes().getValueAtPercentile(50), fleet.getRideTimes().getValueAtPercentile(95),
+                fleet.getRideTimes().getValueAtPercentile(99), fleet.getFloorsTravelled(), fleet.getStops(),
+                dispatch.getMean(), dispatch.getValueAtPercentile(99)));
+        }
+        return report.toString();
+    }
+
+    public static final class Result {
+        private final String strategy;
+        private final long requests;
+        private final long simulatedMillis;
+        private final long wallNanos;
+        private final MetricsSnapshot metrics;
+
+        Result(String strategy, long requests, long simulatedMillis, long wallNanos, MetricsSnapshot metrics) {
+            this.strategy = strategy;
+            this.requests = requests;
+            this.simulatedMillis = simulatedMillis;
+            this.wallNanos = wallNanos;
+            this.metrics = metrics;
+        }
+
+        public String getStrategy() {
+            return strategy;
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        // Virtual time from the first request until the fleet went idle
+        public long getSimulatedMillis() {
+            return simulatedMillis;
+        }
+
+        public long getWallNanos() {
+            return wallNanos;
+        }
+
+        public MetricsSnapshot getMetrics() {
+            return metrics;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d requests, %d ms simulated in %d ms, unassigned=%d wait[%s] ride[%s]"
+                    + " floors=%d stops=%d", strategy, requests, simulatedMillis, wallNanos / 1_000_000,
+                metrics.getUnassignedRequests(), metrics.getFleet().getWaitTimes(), metrics.getFleet().getRideTimes(),
+                metrics.getFleet().getFloorsTravelled(), metrics.getFleet().getStops());
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 4) {
+            System.err.println("Usage: TraceReplay <trace file> <elevators> <min floor> <max floor>");
+            System.exit(1);
+        }
+        TraceReplay replay = new TraceReplay(Integer.parseInt(args[1]), Integer.parseInt(args[2]),
+            Integer.parseInt(args[3]));
+        List<SchedulingStrategy> strategies = List.of(new SCANStrategy(), new FCFSStrategy(),
+            new HungarianStrategy(), new DestinationDispatchStrategy(), new ETAStrategy());
+        System.out.print(report(replay.compare(Paths.get(args[0]), strategies)));
+    }
+}
@@ -0,0 +1,59 @@
+package com.elevator;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Records requests to a binary trace file. A trace is an 8-byte header, the magic number
+ * followed by the format version, and then one fixed-size record per request:
+ * the request time as a long, then the source and destination floors as ints, all big-endian.
+ */
+public class TraceWriter implements Closeable {
+    static final int MAGIC = 0x454C5452; // "ELTR"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 8;
+    static final int RECORD_BYTES = 16;
+    private final DataOutputStream output;
+    private long recordCount;
+
+    /**
+     * Creates a trace file, replacing any existing file at the path
+     * @param path The trace file
+     * @throws IOException If the file cannot be created
+     */
+    public TraceWriter(Path path) throws IOException {
+        this.output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 64 * 1024));
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+    }
+
+    /**
+     * Appends a request to the trace
+     * @param request The elevator request
+     * @param requestTime The clock time the request was made at
+     * @throws IOException If the record cannot be written
+     */
+    public synchronized void record(Request request, long requestTime) throws IOException {
+        output.writeLong(requestTime);
+        output.writeInt(request.getSourceFloor());
+        output.writeInt(request.getDestinationFloor());
+        recordCount++;
+    }
+
+    public synchronized long getRecordCount() {
+        return recordCount;
+    }
+
+    public synchronized void flush() throws IOException {
+        output.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        output.close();
+    }
+}
@@ -0,0 +1,204 @@
+package com.elevator;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.logging.Level;
+
+/**
+ * Generates a stream of requests for a traffic profile, with Poisson arrivals and floors drawn in
+ * proportion to their population. The generator is a cursor: next() moves to the next request,
+ * whose time and floors are read with the getters, so generating requests allocates nothing.
+ * Times start at 0 and are in milliseconds. A generator is not thread-safe.
+ */
+public class TrafficGenerator {
+    private static final EventLog logger = EventLog.getLog(TrafficGenerator.class);
+    private final TrafficProfile profile;
+    private final int minFloor;
+    private final int lobbyFloor;
+    private final double meanInterArrivalMillis;
+    private final SplittableRandom random;
+    // Walker alias table over the upper floors, weighted by population, indexed by floor - minFloor
+    private final double[] probability;
+    private final int[] alias;
+    private double time;
+    private long timestamp;
+    private int sourceFloor;
+    private int destinationFloor;
+
+    /**
+     * Creates a generator
+     * @param profile The traffic pattern
+     * @param minFloor The floor the first population entry belongs to
+     * @param lobbyFloor The main entrance floor, which incoming trips start from and outgoing trips end at
+     * @param populations The number of occupants of each floor from minFloor up; the lobby's entry is ignored
+     * @param arrivalsPerMinute The mean rate of requests across the building
+     * @param seed The random seed, so a workload can be regenerated exactly
+     */
+    public TrafficGenerator(TrafficProfile profile, int minFloor, int lobbyFloor, int[] populations,
+                            double arrivalsPerMinute, long seed) {
+        if (arrivalsPerMinute <= 0) {
+            throw new IllegalArgumentException("Arrival rate must be positive, got " + arrivalsPerMinute);
+        }
+        if (lobbyFloor < minFloor || lobbyFloor >= minFloor + populations.length) {
+            throw new IllegalArgumentException("Lobby floor " + lobbyFloor + " is outside floors " + minFloor
+                + " to " + (minFloor + populations.length - 1));
+        }
+        this.profile = profile;
+        this.minFloor = minFloor;
+        this.lobbyFloor = lobbyFloor;
+        this.meanInterArrivalMillis = 60_000 / arrivalsPerMinute;
+        this.random = new SplittableRandom(seed);
+        this.probability = new double[populations.length];
+        this.alias = new int[populations.length];
+        buildAliasTable(populations);
+        logger.log(Level.INFO, "Created {0} traffic generator at {1} requests per minute", profile, arrivalsPerMinute);
+    }
+
+    /**
+     * Returns the same population for every floor; the generator ignores the lobby's entry
+     * @param minFloor The lowest floor
+     * @param maxFloor The highest floor
+     * @param occupantsPerFloor The occupants of each floor
+     * @return The populations, indexed by floor - minFloor
+     */
+    public static int[] uniformPopulation(int minFloor, int maxFloor, int occupantsPerFloor) {
+        int[] populations = new int[maxFloor - minFloor + 1];
+        Arrays.fill(populations, occupantsPerFloor);
+        return populations;
+    }
+
+    private void buildAliasTable(int[] populations) {
+        int floors = populations.length;
+        double total = 0;
+        int populated = 0;
+        for (int i = 0; i < floors; i++) {
+            if (i + minFloor != lobbyFloor && populations[i] > 0) {
+                total += populations[i];
+                populated++;
+            }
+        }
+        if (populated < 2) {
+            throw new IllegalArgumentException("At least two floors besides the lobby must have occupants");
+        }
+
+        // Vose's method: split floors into those below and above the mean weight, then pair them up
+        double[] scaled = new double[floors];
+        int[] small = new int[floors];
+        int[] large = new int[floors];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < floors; i++) {
+            int weight = i + minFloor == lobbyFloor ? 0 : Math.max(populations[i], 0);
+            scaled[i] = weight * floors / total;
+            if (scaled[i] < 1) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] += scaled[less] - 1;
+            if (scaled[more] < 1) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        while (largeCount > 0) {
+            probability[large[--largeCount]] = 1;
+        }
+        // Only rounding error leaves entries here; they are worth a full column
+        while (smallCount > 0) {
+            probability[small[--smallCount]] = 1;
+        }
+    }
+
+    private int drawUpperFloor() {
+        int column = random.nextInt(probability.length);
+        return minFloor + (random.nextDouble() < probability[column] ? column : alias[column]);
+    }
+
+    /**
+     * Moves to the next request
+     */
+    public void next() {
+        // Exponential gaps between arrivals make the arrivals a Poisson process
+        time -= meanInterArrivalMillis * Math.log(1 - random.nextDouble());
+        timestamp = (long) time;
+
+        double trip = random.nextDouble();
+        if (trip < profile.getIncomingShare()) {
+            sourceFloor = lobbyFloor;
+            destinationFloor = drawUpperFloor();
+        } else if (trip < profile.getIncomingShare() + profile.getOutgoingShare()) {
+            sourceFloor = drawUpperFloor();
+            destinationFloor = lobbyFloor;
+        } else {
+            sourceFloor = drawUpperFloor();
+            do {
+                destinationFloor = drawUpperFloor();
+            } while (destinationFloor == sourceFloor);
+        }
+    }
+
+    // Time of the current request, in milliseconds from the start of the workload
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public int getSourceFloor() {
+        return sourceFloor;
+    }
+
+    public int getDestinationFloor() {
+        return destinationFloor;
+    }
+
+    public Request toRequest() {
+        return new Request(sourceFloor, destinationFloor);
+    }
+
+    /**
+     * Writes the next requests to a trace
+     * @param writer The trace to append to
+     * @param count The number of requests
+     * @param startMillis The clock time of the start of the workload
+     * @throws IOException If the trace cannot be written
+     */
+    public void writeTo(TraceWriter writer, long count, long startMillis) throws IOException {
+        for (long i = 0; i < count; i++) {
+            next();
+            writer.record(toRequest(), startMillis + timestamp);
+        }
+    }
+
+    /**
+     * Submits the next requests to a controller at their generated times, measured from now on the
+     * controller's clock. A virtual clock is advanced to each request; a real-time clock is waited on.
+     * @param controller The controller to drive
+     * @param count The number of requests
+     * @throws InterruptedException If interrupted while waiting for the next request's time
+     */
+    public void feed(ElevatorController controller, long count) throws InterruptedException {
+        SimulationClock clock = controller.getClock();
+        long start = clock.currentTimeMillis();
+        for (long i = 0; i < count; i++) {
+            next();
+            long due = start + timestamp;
+            if (clock instanceof VirtualClock) {
+                ((VirtualClock) clock).advanceTo(due);
+            } else {
+                long wait = due - clock.currentTimeMillis();
+                if (wait > 0) {
+                    Thread.sleep(wait);
+                }
+            }
+            controller.submit(toRequest());
+        }
+    }
+}
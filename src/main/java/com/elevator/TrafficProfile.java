@@ -0,0 +1,32 @@
+package com.elevator;
+
+/**
+ * Standard building traffic patterns, as the share of trips that are incoming (lobby to an upper
+ * floor), outgoing (an upper floor to the lobby) and inter-floor (between two upper floors)
+ */
+public enum TrafficProfile {
+    UP_PEAK(0.85, 0.05),
+    DOWN_PEAK(0.05, 0.85),
+    LUNCH(0.45, 0.45),
+    INTER_FLOOR(0.10, 0.10);
+
+    private final double incoming;
+    private final double outgoing;
+
+    TrafficProfile(double incoming, double outgoing) {
+        this.incoming = incoming;
+        this.outgoing = outgoing;
+    }
+
+    public double getIncomingShare() {
+        return incoming;
+    }
+
+    public double getOutgoingShare() {
+        return outgoing;
+    }
+
+    public double getInterFloorShare() {
+        return 1 - incoming - outgoing;
+    }
+}
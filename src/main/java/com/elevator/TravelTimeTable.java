@@ -0,0 +1,71 @@
+package com.elevator;
+
+/**
+ * Precomputed time for a car to travel a given number of floors, from standing at one floor to
+ * standing at the other. Lookups beyond the table extend it at the speed of its last entry.
+ */
+public final class TravelTimeTable {
+    private final long[] millisByDistance;
+
+    private TravelTimeTable(long[] millisByDistance) {
+        this.millisByDistance = millisByDistance;
+    }
+
+    /**
+     * Creates a table for cars that cover every floor in the same time, as the simulated elevators do
+     * @param maxDistance The largest distance in floors to precompute
+     * @param floorTravelMillis The time to travel one floor
+     * @return The travel-time table
+     */
+    public static TravelTimeTable linear(int maxDistance, long floorTravelMillis) {
+        long[] millis = new long[maxDistance + 1];
+        for (int distance = 0; distance <= maxDistance; distance++) {
+            millis[distance] = distance * floorTravelMillis;
+        }
+        return new TravelTimeTable(millis);
+    }
+
+    /**
+     * Creates a table for cars that accelerate to a top speed and brake at the same rate. Short trips
+     * that never reach top speed accelerate for half the distance and brake for the other half.
+     * @param maxDistance The largest distance in floors to precompute
+     * @param floorHeightMeters The height of one floor
+     * @param maxSpeed The top speed in meters per second
+     * @param acceleration The acceleration and braking rate in meters per second squared
+     * @return The travel-time table
+     */
+    public static TravelTimeTable kinematic(int maxDistance, double floorHeightMeters, double maxSpeed,
+                                            double acceleration) {
+        // Distance covered while accelerating to top speed and braking back down from it
+        double rampMeters = maxSpeed * maxSpeed / acceleration;
+        long[] millis = new long[maxDistance + 1];
+        for (int distance = 1; distance <= maxDistance; distance++) {
+            double meters = distance * floorHeightMeters;
+            double seconds = meters >= rampMeters
+                ? meters / maxSpeed + maxSpeed / acceleration
+                : 2 * Math.sqrt(meters / acceleration);
+            millis[distance] = Math.round(seconds * 1000);
+        }
+        return new TravelTimeTable(millis);
+    }
+
+    /**
+     * Returns the time to travel between two floors
+     * @param fromFloor The floor the car starts from
+     * @param toFloor The floor the car stops at
+     * @return The travel time in milliseconds
+     */
+    public long travelMillis(int fromFloor, int toFloor) {
+        int distance = Math.abs(toFloor - fromFloor);
+        int last = millisByDistance.length - 1;
+        if (distance <= last) {
+            return millisByDistance[distance];
+        }
+        long perFloor = last > 0 ? millisByDistance[last] - millisByDistance[last - 1] : 0;
+        return millisByDistance[last] + (distance - last) * perFloor;
+    }
+
+    public int getMaxDistance() {
+        return millisByDistance.length - 1;
+    }
+}
@@ -0,0 +1,30 @@
+package com.elevator;
+
+// A request as carried by one elevator, from the time it was made until drop-off
+public final class Trip {
+    private final Request request;
+    private final long requestTime;
+    private long pickupTime = -1;
+
+    Trip(Request request, long requestTime) {
+        this.request = request;
+        this.requestTime = requestTime;
+    }
+
+    public Request getRequest() {
+        return request;
+    }
+
+    public long getRequestTime() {
+        return requestTime;
+    }
+
+    // Clock time the passenger was picked up, or -1 while still waiting
+    public long getPickupTime() {
+        return pickupTime;
+    }
+
+    void pickUp(long time) {
+        pickupTime = time;
+    }
+}
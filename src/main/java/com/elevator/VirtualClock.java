@@ -0,0 +1,94 @@
+package com.elevator;
+
+import java.util.PriorityQueue;
+
+/**
+ * Discrete-event clock. Time only moves when the clock is advanced, jumping straight
+ * to the next scheduled event, so hours of simulated traffic run in milliseconds.
+ * Events run on the thread that advances the clock.
+ */
+public class VirtualClock implements SimulationClock {
+    private final PriorityQueue<Event> events = new PriorityQueue<>();
+    private long now;
+    private long sequence;
+
+    @Override
+    public synchronized long currentTimeMillis() {
+        return now;
+    }
+
+    @Override
+    public synchronized void schedule(long delayMillis, Runnable task) {
+        events.add(new Event(now + Math.max(0, delayMillis), sequence++, task));
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        events.clear();
+    }
+
+    /**
+     * Runs the earliest pending event, moving the clock forward to its time
+     * @return true if an event was run, false if no events are pending
+     */
+    public boolean runNext() {
+        Event event;
+        synchronized (this) {
+            event = events.poll();
+            if (event == null) {
+                return false;
+            }
+            now = event.time;
+        }
+        event.task.run();
+        return true;
+    }
+
+    /**
+     * Runs every event scheduled up to and including the given time
+     * @param timeMillis The time to advance the clock to
+     */
+    public void advanceTo(long timeMillis) {
+        while (true) {
+            synchronized (this) {
+                Event next = events.peek();
+                if (next == null || next.time > timeMillis) {
+                    now = Math.max(now, timeMillis);
+                    return;
+                }
+            }
+            runNext();
+        }
+    }
+
+    /**
+     * Runs every event scheduled within the given amount of time from now
+     * @param millis The amount of virtual time to advance by
+     */
+    public void advanceBy(long millis) {
+        advanceTo(currentTimeMillis() + millis);
+    }
+
+    public synchronized int getPendingEvents() {
+        return events.size();
+    }
+
+    private static final class Event implements Comparable<Event> {
+        private final long time;
+        private final long sequence;
+        private final Runnable task;
+
+        private Event(long time, long sequence, Runnable task) {
+            this.time = time;
+            this.sequence = sequence;
+            this.task = task;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            // Events due at the same time run in the order they were scheduled
+            int byTime = Long.compare(time, other.time);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+}
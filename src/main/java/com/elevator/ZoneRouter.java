@@ -0,0 +1,109 @@
+package com.elevator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+
+/**
+ * Routes requests to one of several independent controllers, each running its own zone of the
+ * building (for example a low-rise and a high-rise bank). Zones share no lock, so they dispatch
+ * in parallel. A request goes to the narrowest zone that serves both of its floors.
+ */
+public class ZoneRouter {
+    private static final EventLog logger = EventLog.getLog(ZoneRouter.class);
+    private final List<ElevatorController> zones;
+    private final int minFloor;
+    // Zones serving each floor, narrowest first, indexed by floor - minFloor
+    private final List<List<ElevatorController>> zonesByFloor;
+
+    /**
+     * Creates a router over the given zones
+     * @param zones The zone controllers, each built with newController or newSimulation
+     */
+    public ZoneRouter(List<ElevatorController> zones) {
+        this.zones = Collections.unmodifiableList(new ArrayList<>(zones));
+        int lowest = Integer.MAX_VALUE;
+        int highest = Integer.MIN_VALUE;
+        for (ElevatorController zone : zones) {
+            lowest = Math.min(lowest, zone.getMinFloor());
+            highest = Math.max(highest, zone.getMaxFloor());
+        }
+        this.minFloor = lowest;
+
+        List<ElevatorController> narrowestFirst = new ArrayList<>(zones);
+        narrowestFirst.sort(Comparator.comparingInt(zone -> zone.getMaxFloor() - zone.getMinFloor()));
+        this.zonesByFloor = new ArrayList<>();
+        for (int floor = lowest; floor <= highest; floor++) {
+            List<ElevatorController> serving = new ArrayList<>();
+            for (ElevatorController zone : narrowestFirst) {
+                if (zone.serves(floor)) {
+                    serving.add(zone);
+                }
+            }
+            zonesByFloor.add(serving);
+        }
+        logger.log(Level.INFO, "Created zone router over {0} zones serving floors {1} to {2}",
+            zones.size(), lowest, highest);
+    }
+
+    /**
+     * Returns the zone a request is routed to
+     * @param request The elevator request
+     * @return The narrowest zone serving both floors of the request, or null if no zone does
+     */
+    public ElevatorController route(Request request) {
+        int index = request.getSourceFloor() - minFloor;
+        if (index < 0 || index >= zonesByFloor.size()) {
+            return null;
+        }
+        for (ElevatorController zone : zonesByFloor.get(index)) {
+            if (zone.serves(request.getDestinationFloor())) {
+                return zone;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Assigns a request synchronously within its zone
+     * @param request The elevator request
+     */
+    public void requestElevator(Request request) {
+        ElevatorController zone = route(request);
+        if (zone == null) {
+            logger.log(Level.WARNING, "No zone serves request: Floor {0} -> Floor {1}",
+                request.getSourceFloor(), request.getDestinationFloor());
+            return;
+        }
+        zone.requestElevator(request);
+    }
+
+    /**
+     * Queues a request with the dispatcher of its zone
+     * @param request The elevator request
+     * @return A future completed with the assignment, or exceptionally if no zone or elevator is available
+     */
+    public CompletableFuture<Assignment> submit(Request request) {
+        ElevatorController zone = route(request);
+        if (zone == null) {
+            CompletableFuture<Assignment> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new IllegalStateException("No zone serves the request"));
+            return failed;
+        }
+        return zone.submit(request);
+    }
+
+    public List<ElevatorController> getZones() {
+        return zones;
+    }
+
+    public void shutdown() {
+        for (ElevatorController zone : zones) {
+            zone.shutdown();
+        }
+        logger.info("All zones shut down");
+    }
+}
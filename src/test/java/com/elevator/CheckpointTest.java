@@ -0,0 +1,178 @@
+package com.elevator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CheckpointTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRestoresFleetFromCheckpointAndJournalTail() throws IOException {
+        VirtualClock clock = new VirtualClock();
+        ElevatorController original = ElevatorController.newSimulation(3, 0, 20, clock);
+        CheckpointStore store = new CheckpointStore(directory);
+        original.enableCheckpoints(store, 60_000);
+        original.requestElevator(new Request(0, 15));
+        original.requestElevator(new Request(12, 3));
+        original.requestElevator(new Request(18, 20));
+        clock.advanceBy(5_000);
+
+        // Held in the dispatcher's batch window when the checkpoint is taken
+        original.setBatchWindow(1_000);
+        original.submit(new Request(6, 9));
+        FleetCheckpoint checkpoint = original.checkpoint();
+        assertEquals(1, checkpoint.getQueuedRequests().size());
+        original.requestElevator(new Request(2, 11));
+
+        // The original controller is abandoned without shutting down, as in a crash
+        List<ElevatorSnapshot> before = original.getFleetSnapshot();
+        int assignedBefore = before.stream().mapToInt(ElevatorSnapshot::getAssignedPassengers).sum();
+
+        VirtualClock restartClock = new VirtualClock();
+        ElevatorController restored = ElevatorController.restoreSimulation(store, restartClock);
+        assertEquals(clock.currentTimeMillis(), restartClock.currentTimeMillis());
+        List<Elevator> elevators = restored.getElevators();
+        assertEquals(3, elevators.size());
+        for (int i = 0; i < before.size(); i++) {
+            assertEquals(before.get(i).getElevator().getId(), elevators.get(i).getId());
+            assertEquals(before.get(i).getCurrentFloor(), elevators.get(i).getCurrentFloor());
+            assertEquals(before.get(i).getLoad(), elevators.get(i).getLoad());
+        }
+        // Everyone assigned before the crash, plus the request that was still queued
+        int assignedAfter = restored.getFleetSnapshot().stream().mapToInt(ElevatorSnapshot::getAssignedPassengers).sum();
+        assertEquals(assignedBefore + 1, assignedAfter);
+
+        restartClock.advanceBy(120_000);
+        for (Elevator elevator : elevators) {
+            assertEquals(0, elevator.getSnapshot().getAssignedPassengers());
+            assertTrue(elevator.getDestinationFloors().isEmpty());
+        }
+        restored.shutdown();
+    }
+
+    @Test
+    void testCheckpointStartsNewJournalAndDropsTheOldOne() throws IOException {
+        VirtualClock clock = new VirtualClock();
+        ElevatorController simulation = ElevatorController.newSimulation(2, 0, 10, clock);
+        CheckpointStore store = new CheckpointStore(directory);
+        simulation.enableCheckpoints(store, 10_000);
+        simulation.requestElevator(new Request(0, 5));
+        assertEquals(List.of("fleet.checkpoint", "journal-1.trace"), files());
+
+        clock.advanceBy(10_000);
+        assertEquals(List.of("fleet.checkpoint", "journal-2.trace"), files());
+        FleetCheckpoint checkpoint = store.readCheckpoint();
+        assertEquals(2, checkpoint.getJournalGeneration());
+        assertEquals(10_000, checkpoint.getTakenAt());
+        assertEquals(2, checkpoint.getElevatorCount());
+        simulation.shutdown();
+    }
+
+    @Test
+    void testJournalsSubmittedRequestsOncePerDrainedBatch() throws IOException {
+        VirtualClock clock = new VirtualClock();
+        ElevatorController simulation = ElevatorController.newSimulation(2, 0, 10, clock);
+        CheckpointStore store = new CheckpointStore(directory);
+        simulation.enableCheckpoints(store, 600_000);
+        simulation.setBatchWindow(1_000);
+        Path journal = directory.resolve("journal-1.trace");
+        for (int floor = 1; floor <= 3; floor++) {
+            simulation.submit(new Request(floor, 0));
+        }
+        // Nothing is written on the submitting thread
+        assertEquals(TraceWriter.HEADER_BYTES, Files.size(journal));
+
+        // A request already held by a checkpoint as queued is not journaled again when it is drained
+        simulation.checkpoint();
+        simulation.submit(new Request(9, 0));
+        clock.advanceBy(1_000);
+        assertEquals(TraceWriter.HEADER_BYTES + TraceWriter.RECORD_BYTES,
+            Files.size(directory.resolve("journal-2.trace")));
+        assertEquals(3, store.readCheckpoint().getQueuedRequests().size());
+        simulation.shutdown();
+    }
+
+    @Test
+    void testRejectsTruncatedCheckpoint() throws IOException {
+        VirtualClock clock = new VirtualClock();
+        ElevatorController simulation = ElevatorController.newSimulation(2, 0, 10, clock);
+        CheckpointStore store = new CheckpointStore(directory);
+        simulation.enableCheckpoints(store, 10_000);
+        simulation.shutdown();
+
+        Path file = directory.resolve("fleet.checkpoint");
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+        assertThrows(IOException.class, store::readCheckpoint);
+    }
+
+    @Test
+    void testRestoresGroupWithServedFloorsAndTransfers() throws IOException {
+        VirtualClock clock = new VirtualClock();
+        List<ServedFloors> cars = List.of(ServedFloors.express(0, 20, 40), ServedFloors.range(0, 20),
+            ServedFloors.range(20, 40));
+        ElevatorController original = ElevatorController.newGroupSimulation(cars, clock,
+            new StandardElevatorFactory(StopOrderingPolicy.LOOK, 8));
+        CheckpointStore store = new CheckpointStore(directory);
+        original.enableCheckpoints(store, 600_000);
+        original.requestElevator(new Request(5, 35));
+        // Picked up at floor 5 and on the way to the sky lobby
+        clock.advanceBy(8_000);
+        assertEquals(1, original.getElevators().get(1).getLoad());
+        original.checkpoint();
+
+        VirtualClock restartClock = new VirtualClock();
+        ElevatorController restored = ElevatorController.restoreSimulation(store, restartClock);
+        List<Elevator> elevators = restored.getElevators();
+        for (int i = 0; i < cars.size(); i++) {
+            assertArrayEquals(cars.get(i).getFloors(), elevators.get(i).getServedFloors().getFloors());
+            assertEquals(8, elevators.get(i).getCapacity());
+        }
+        assertFalse(elevators.get(0).serves(10));
+        assertEquals(1, restored.getPendingTransfers());
+
+        restartClock.advanceBy(5 * 60_000);
+        assertEquals(0, restored.getPendingTransfers());
+        assertEquals(2, restored.getMetrics().snapshot().getFleet().getRideTimes().getCount());
+        restored.shutdown();
+
+        assertThrows(IOException.class, () -> ElevatorController.restoreSimulation(store, new VirtualClock(),
+            new StandardElevatorFactory()));
+    }
+
+    @Test
+    void testRestoresEachCarWithItsStopOrdering() throws IOException {
+        VirtualClock clock = new VirtualClock();
+        List<StopOrderingPolicy> policies = List.of(StopOrderingPolicy.FIFO, StopOrderingPolicy.SCAN,
+            StopOrderingPolicy.C_LOOK);
+        int[] built = new int[1];
+        ElevatorController original = ElevatorController.newSimulation(policies.size(), 0, 20, clock,
+            (minFloor, maxFloor) -> new StandardElevatorFactory(policies.get(built[0]++))
+                .createElevator(minFloor, maxFloor));
+        CheckpointStore store = new CheckpointStore(directory);
+        original.enableCheckpoints(store, 600_000);
+        original.checkpoint();
+
+        ElevatorController restored = ElevatorController.restoreSimulation(store, new VirtualClock());
+        for (int i = 0; i < policies.size(); i++) {
+            assertEquals(policies.get(i), restored.getElevators().get(i).getStopOrderingPolicy());
+        }
+        restored.shutdown();
+        original.shutdown();
+    }
+
+    private List<String> files() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString()).sorted().collect(Collectors.toList());
+        }
+    }
+}
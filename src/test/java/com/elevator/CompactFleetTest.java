@@ -0,0 +1,148 @@
+package com.elevator;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompactFleetTest {
+    @Test
+    void testLookServesStopsInSweepOrder() {
+        CompactFleet fleet = new CompactFleet(1, 0, 10);
+        fleet.addStop(0, 5);
+        serveAll(fleet, 0);
+
+        fleet.addStop(0, 8);
+        fleet.addStop(0, 2);
+        fleet.addStop(0, 9);
+        assertEquals(Direction.UP, fleet.getDirection(0));
+        assertEquals(List.of(8, 9, 2), serveAll(fleet, 0));
+        assertEquals(Direction.IDLE, fleet.getDirection(0));
+    }
+
+    @Test
+    void testStopsAboveSixtyFourFloors() {
+        CompactFleet fleet = new CompactFleet(2, -5, 150);
+        fleet.addStop(1, 140);
+        fleet.addStop(1, 63);
+        fleet.addStop(1, -5);
+        assertEquals(3, fleet.getStopCount(1));
+        assertTrue(fleet.hasStop(1, 140));
+        assertFalse(fleet.hasStop(0, 140));
+        assertEquals(List.of(-5, 63, 140), serveAll(fleet, 1));
+        assertEquals(140, fleet.getCurrentFloor(1));
+        assertEquals(-5, fleet.getCurrentFloor(0));
+    }
+
+    @Test
+    void testSelectsCarBySCANCost() {
+        CompactFleet fleet = new CompactFleet(2, 0, 20);
+        fleet.addStop(1, 10);
+        // The first floor is travelled at time 0
+        fleet.advanceTo(2 * Elevator.FLOOR_TRAVEL_MILLIS);
+        assertEquals(3, fleet.getCurrentFloor(1));
+        assertEquals(Direction.UP, fleet.getDirection(1));
+
+        // Behind the moving car, so the idle one is cheaper; ahead of it, the moving car is
+        assertEquals(0, fleet.selectCar(new Request(2, 0)));
+        assertEquals(1, fleet.selectCar(new Request(6, 12)));
+        assertEquals(0, fleet.selectCar(new Request(3, 12)));
+    }
+
+    @Test
+    void testStrategiesDispatchThroughCarViews() {
+        CompactFleet fleet = new CompactFleet(2, 0, 20);
+        fleet.addStop(1, 10);
+        fleet.advanceTo(2 * Elevator.FLOOR_TRAVEL_MILLIS);
+        List<Elevator> cars = fleet.asElevators();
+        assertSame(cars, fleet.asElevators());
+        ElevatorSnapshot moving = cars.get(1).getSnapshot();
+        assertEquals(3, moving.getCurrentFloor());
+        assertEquals(Direction.UP, moving.getDirection());
+        assertEquals(List.of(10), moving.getStops());
+
+        // The view-based SCAN agrees with the fleet's own pass, and the assignment lands on the car
+        int selected = fleet.selectCar(new Request(6, 12));
+        assertEquals(selected, fleet.requestElevator(new SCANStrategy(), new Request(6, 12)));
+        assertEquals(1, cars.get(1).getSnapshot().getAssignedPassengers());
+        assertTrue(cars.get(1).getSnapshot().hasPassengerDestination(12));
+        assertEquals(List.of(6, 10), cars.get(1).getDestinationFloors());
+        assertEquals(0, fleet.requestElevator(new ETAStrategy(), new Request(2, 0)));
+        assertEquals(0, fleet.requestElevator(new FCFSStrategy(), new Request(1, 5)));
+        assertEquals(2, new HungarianStrategy().assignRequests(cars,
+            List.of(new Request(4, 9), new Request(15, 1))).size());
+        assertEquals(-1, fleet.requestElevator(new SCANStrategy(), new Request(4, 21)));
+
+        fleet.advanceBy(10 * 60_000);
+        assertEquals(3, fleet.getMetrics().snapshot().getRideTimes().getCount());
+        assertEquals(0, cars.get(0).getSnapshot().getAssignedPassengers());
+    }
+
+    @Test
+    void testPassengerBoardsWhileDoorsAreOpen() {
+        CompactFleet fleet = new CompactFleet(1, 0, 10);
+        fleet.addStop(0, 2);
+        fleet.advanceTo(Elevator.FLOOR_TRAVEL_MILLIS);
+        assertEquals(ElevatorState.DOORS_OPEN, fleet.getState(0));
+
+        assertTrue(fleet.assignRequest(0, new Request(2, 7), fleet.currentTimeMillis()));
+        assertEquals(1, fleet.getLoad(0));
+        assertEquals(List.of(7), serveAll(fleet, 0));
+        assertEquals(0, fleet.getLoad(0));
+        assertEquals(0, fleet.getMetrics().snapshot().getWaitTimes().getMax());
+        assertFalse(fleet.assignRequest(0, new Request(2, 11), fleet.currentTimeMillis()));
+    }
+
+    @Test
+    void testLargeFleetDeliversEveryPassenger() {
+        int cars = 5_000;
+        int requests = 20_000;
+        CompactFleet fleet = new CompactFleet(cars, 0, 99);
+        SplittableRandom random = new SplittableRandom(11);
+        for (int i = 0; i < requests; i++) {
+            int source = random.nextInt(100);
+            int destination = random.nextInt(100);
+            fleet.advanceTo(i * 50L);
+            assertTrue(fleet.requestElevator(new Request(source, destination)) >= 0);
+        }
+        long deadline = fleet.currentTimeMillis() + 60 * 60 * 1000;
+        while (hasWork(fleet) && fleet.currentTimeMillis() < deadline) {
+            fleet.advanceBy(60_000);
+        }
+
+        ElevatorMetrics.Snapshot metrics = fleet.getMetrics().snapshot();
+        assertEquals(requests, metrics.getWaitTimes().getCount());
+        assertEquals(requests, metrics.getRideTimes().getCount());
+        for (int car = 0; car < cars; car++) {
+            assertEquals(0, fleet.getLoad(car));
+        }
+    }
+
+    private static boolean hasWork(CompactFleet fleet) {
+        for (int car = 0; car < fleet.size(); car++) {
+            if (fleet.getStopCount(car) > 0 || fleet.getState(car) == ElevatorState.DOORS_OPEN) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Advances the fleet until the car has no stops left, returning the floors it opened its doors at
+    private static List<Integer> serveAll(CompactFleet fleet, int car) {
+        List<Integer> stops = new ArrayList<>();
+        boolean wasOpen = fleet.getState(car) == ElevatorState.DOORS_OPEN;
+        // Starts with the current tick, which a car given a stop since it last ran is due at
+        long time = fleet.currentTimeMillis();
+        while (fleet.getStopCount(car) > 0 || fleet.getState(car) == ElevatorState.DOORS_OPEN) {
+            fleet.advanceTo(time);
+            time += CompactFleet.TICK_MILLIS;
+            boolean open = fleet.getState(car) == ElevatorState.DOORS_OPEN;
+            if (open && !wasOpen) {
+                stops.add(fleet.getCurrentFloor(car));
+            }
+            wasOpen = open;
+        }
+        return stops;
+    }
+}
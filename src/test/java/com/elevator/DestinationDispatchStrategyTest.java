@@ -0,0 +1,42 @@
+package com.elevator;
+
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DestinationDispatchStrategyTest {
+
+    @Test
+    void testGroupsNearbyDestinationsIntoOneCar() {
+        Elevator first = new Elevator(0, 30);
+        Elevator second = new Elevator(0, 30);
+        List<Elevator> elevators = List.of(first, second);
+        List<Request> requests = List.of(
+            new Request(0, 10), new Request(0, 20), new Request(0, 11), new Request(0, 21));
+
+        List<Elevator> assigned = new DestinationDispatchStrategy().assignRequests(elevators, requests);
+        assertEquals(List.of(first, second, first, second), assigned);
+    }
+
+    @Test
+    void testJoinsCarAlreadyServingTheDestination() {
+        Elevator first = new Elevator(0, 30);
+        Elevator second = new Elevator(0, 30);
+        second.assignRequest(new Request(0, 12));
+
+        Elevator selected = new DestinationDispatchStrategy().selectElevator(List.of(first, second), new Request(0, 12));
+        assertSame(second, selected);
+    }
+
+    @Test
+    void testSkipsFullCars() {
+        Elevator first = new Elevator(0, 30, StopOrderingPolicy.LOOK, 1);
+        Elevator second = new Elevator(0, 30, StopOrderingPolicy.LOOK, 1);
+        List<Request> requests = List.of(new Request(0, 10), new Request(0, 10), new Request(0, 10));
+
+        List<Elevator> assigned = new DestinationDispatchStrategy().assignRequests(List.of(first, second), requests);
+        assertSame(first, assigned.get(0));
+        assertSame(second, assigned.get(1));
+        assertNull(assigned.get(2));
+    }
+}
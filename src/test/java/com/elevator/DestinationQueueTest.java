@@ -0,0 +1,79 @@
+package com.elevator;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DestinationQueueTest {
+
+    @Test
+    void testAddContainsRemove() {
+        DestinationQueue queue = new DestinationQueue(-2, 100);
+        assertTrue(queue.add(-2));
+        assertTrue(queue.add(100));
+        assertFalse(queue.add(100));
+        assertFalse(queue.add(101));
+        assertEquals(2, queue.size());
+        assertTrue(queue.contains(-2));
+        assertFalse(queue.contains(50));
+
+        assertTrue(queue.remove(-2));
+        assertFalse(queue.remove(-2));
+        assertEquals(1, queue.size());
+        assertEquals(100, queue.get(0));
+    }
+
+    @Test
+    void testFirstFollowsInsertionOrder() {
+        DestinationQueue queue = new DestinationQueue(0, 10);
+        queue.add(7);
+        queue.add(2);
+        queue.add(9);
+        assertEquals(7, queue.first());
+
+        queue.remove(7);
+        assertEquals(2, queue.first());
+
+        // A floor that is removed and added again goes to the back of the queue
+        queue.remove(2);
+        queue.add(2);
+        assertEquals(9, queue.first());
+        queue.remove(9);
+        assertEquals(2, queue.first());
+
+        queue.remove(2);
+        assertEquals(DestinationQueue.NONE, queue.first());
+    }
+
+    @Test
+    void testOrderSurvivesManyChurnedFloors() {
+        DestinationQueue queue = new DestinationQueue(0, 3);
+        queue.add(3);
+        // Far more adds and removes than the order ring holds, while floor 3 stays queued
+        for (int i = 0; i < 1000; i++) {
+            queue.add(i % 3);
+            queue.remove(i % 3);
+        }
+        queue.add(1);
+        assertEquals(3, queue.first());
+        queue.remove(3);
+        assertEquals(1, queue.first());
+    }
+
+    @Test
+    void testNextAboveAndBelowAcrossWords() {
+        DestinationQueue queue = new DestinationQueue(0, 200);
+        queue.add(5);
+        queue.add(64);
+        queue.add(190);
+
+        assertEquals(5, queue.nextAbove(-10));
+        assertEquals(64, queue.nextAbove(5));
+        assertEquals(190, queue.nextAbove(64));
+        assertEquals(DestinationQueue.NONE, queue.nextAbove(190));
+
+        assertEquals(64, queue.nextBelow(190));
+        assertEquals(5, queue.nextBelow(64));
+        assertEquals(DestinationQueue.NONE, queue.nextBelow(5));
+        assertEquals(190, queue.nextBelow(500));
+    }
+}
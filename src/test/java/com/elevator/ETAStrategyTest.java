@@ -0,0 +1,84 @@
+package com.elevator;
+
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import static com.elevator.ElevatorFixtures.elevatorAt;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ETAStrategyTest {
+    private static final long FLOOR = Elevator.FLOOR_TRAVEL_MILLIS;
+    private static final long DWELL = 2 * Elevator.DOOR_OPERATION_MILLIS;
+
+    @Test
+    void testTravelTimeTables() {
+        TravelTimeTable linear = TravelTimeTable.linear(10, 1000);
+        assertEquals(0, linear.travelMillis(4, 4));
+        assertEquals(3000, linear.travelMillis(7, 4));
+        assertEquals(15000, linear.travelMillis(0, 15));
+
+        // 3 m floors at up to 2 m/s and 1 m/s²: top speed is only reached on trips of 4 m or more
+        TravelTimeTable kinematic = TravelTimeTable.kinematic(10, 3, 2, 1);
+        assertEquals(3464, kinematic.travelMillis(0, 1));
+        assertEquals(5000, kinematic.travelMillis(0, 2));
+        assertEquals(6500, kinematic.travelMillis(5, 2));
+    }
+
+    @Test
+    void testIdleCarEstimateIsTravelDwellAndRide() {
+        ETAStrategy strategy = new ETAStrategy();
+        Elevator elevator = elevatorAt(2);
+        assertEquals(3 * FLOOR + DWELL + 3 * FLOOR, strategy.estimateCost(elevator.getSnapshot(), new Request(5, 8)));
+        assertEquals(DWELL + 2 * FLOOR, strategy.estimateCost(elevator.getSnapshot(), new Request(2, 0)));
+    }
+
+    @Test
+    void testQueuedStopsDelayPickup() {
+        ETAStrategy strategy = new ETAStrategy();
+        Elevator busy = elevatorAt(3);
+        for (int floor = 4; floor <= 7; floor++) {
+            busy.addDestination(floor);
+        }
+        // Four stops on the way up to floor 8, with a dwell at each
+        Request request = new Request(8, 9);
+        assertEquals(5 * FLOOR + 4 * DWELL + DWELL + FLOOR, strategy.estimateCost(busy.getSnapshot(), request));
+
+        // SCAN takes the nearer busy car; the idle car further away delivers sooner
+        Elevator idle = elevatorAt(0);
+        List<Elevator> elevators = List.of(busy, idle);
+        assertSame(busy, new SCANStrategy().selectElevator(elevators, request));
+        assertSame(idle, strategy.selectElevator(elevators, request));
+    }
+
+    @Test
+    void testPickupOnTheWayChargesDelayToLaterStops() {
+        ETAStrategy strategy = new ETAStrategy();
+        Elevator elevator = elevatorAt(0);
+        elevator.addDestination(10);
+        elevator.addDestination(12);
+        // A new stop at 5 on the way up holds up both queued stops
+        assertEquals(5 * FLOOR + DWELL + 2 * FLOOR + 2 * DWELL,
+            strategy.estimateCost(elevator.getSnapshot(), new Request(5, 7)));
+        // Riding past the stop at 10 to reach 11 adds its dwell
+        assertEquals(5 * FLOOR + DWELL + 6 * FLOOR + DWELL + 2 * DWELL,
+            strategy.estimateCost(elevator.getSnapshot(), new Request(5, 11)));
+        // A call going down is picked up on the way back, after the last stop
+        assertEquals(12 * FLOOR + 2 * DWELL + 4 * FLOOR + DWELL + 2 * FLOOR,
+            strategy.estimateCost(elevator.getSnapshot(), new Request(8, 6)));
+    }
+
+    @Test
+    void testCachedRouteFollowsTheCar() {
+        ETAStrategy strategy = new ETAStrategy();
+        Elevator elevator = elevatorAt(0);
+        elevator.addDestination(10);
+        Request request = new Request(15, 16);
+        long before = strategy.estimateCost(elevator.getSnapshot(), request);
+
+        elevator.move();
+        assertEquals(before - FLOOR, strategy.estimateCost(elevator.getSnapshot(), request));
+
+        // A new stop invalidates the cached route
+        elevator.addDestination(12);
+        assertEquals(before - FLOOR + DWELL, strategy.estimateCost(elevator.getSnapshot(), request));
+    }
+}
@@ -3,7 +3,11 @@ package com.elevator;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class ElevatorControllerTest {
@@ -138,4 +142,253 @@ public class ElevatorControllerTest {
         assertEquals(Direction.IDLE, elevator.getDirection());
         assertEquals(ElevatorState.STOPPED, elevator.getState());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testVirtualTimeSimulation() {
+        VirtualClock clock = new VirtualClock();
+        ElevatorController simulation = ElevatorController.newSimulation(NUM_ELEVATORS, MIN_FLOOR, MAX_FLOOR, clock);
+        simulation.requestElevator(new Request(0, 5));
+
+        // Five floors of travel plus a door cycle at both ends, in virtual time only
+        clock.advanceBy(60_000);
+
+        boolean delivered = false;
+        for (Elevator elevator : simulation.getElevators()) {
+            assertTrue(elevator.getDestinationFloors().isEmpty());
+            assertEquals(Direction.IDLE, elevator.getDirection());
+            delivered |= elevator.getCurrentFloor() == 5;
+        }
+        assertTrue(delivered, "No elevator reached the destination floor");
+        assertEquals(60_000, clock.currentTimeMillis());
+        // Idle elevators are parked and leave nothing on the event queue
+        assertEquals(0, clock.getPendingEvents());
+        simulation.shutdown();
+    }
+
+    @Test
+    void testSubmitCompletesAssignment() {
+        VirtualClock clock = new VirtualClock();
+        ElevatorController simulation = ElevatorController.newSimulation(NUM_ELEVATORS, MIN_FLOOR, MAX_FLOOR, clock);
+        Request request = new Request(3, 8);
+        CompletableFuture<Assignment> future = simulation.submit(request);
+        assertFalse(future.isDone());
+
+        // The dispatcher drains on the clock, so no time needs to pass
+        clock.advanceBy(0);
+
+        Assignment assignment = future.join();
+        assertSame(request, assignment.getRequest());
+        assertTrue(assignment.getElevator().getDestinationFloors().contains(3));
+        simulation.shutdown();
+    }
+
+    @Test
+    void testConcurrentSubmitters() throws Exception {
+        ElevatorController realTime = ElevatorController.newController(NUM_ELEVATORS, MIN_FLOOR, MAX_FLOOR,
+            ExecutionMode.SCHEDULED);
+        List<CompletableFuture<Assignment>> futures = new ArrayList<>();
+        List<Thread> submitters = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 250; i++) {
+                    CompletableFuture<Assignment> future = realTime.submit(new Request(i % 10, 10 - i % 10));
+                    synchronized (futures) {
+                        futures.add(future);
+                    }
+                }
+            });
+            submitters.add(thread);
+            thread.start();
+        }
+        for (Thread thread : submitters) {
+            thread.join();
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+        assertEquals(1000, realTime.getRequestDispatcher().getDispatchedRequests());
+        assertEquals(0, realTime.getRequestDispatcher().getQueuedRequests());
+        realTime.shutdown();
+    }
+
+    @Test
+    void testRequestsAfterShutdownAreRejected() {
+        VirtualClock clock = new VirtualClock();
+        ElevatorController simulation = ElevatorController.newSimulation(NUM_ELEVATORS, MIN_FLOOR, MAX_FLOOR, clock);
+        simulation.shutdown();
+
+        CompletableFuture<Assignment> future = simulation.submit(new Request(2, 7));
+        clock.advanceBy(0);
+        assertTrue(future.isCompletedExceptionally());
+        assertEquals(0, simulation.getRequestDispatcher().getQueuedRequests());
+        assertThrows(RejectedExecutionException.class, () -> simulation.requestElevator(new Request(2, 7)));
+        for (Elevator elevator : simulation.getElevators()) {
+            assertEquals(0, elevator.getSnapshot().getAssignedPassengers());
+        }
+    }
+
+    @Test
+    void testRequestRefusedByTheSelectedCarFailsItsFuture() {
+        VirtualClock clock = new VirtualClock();
+        ElevatorController simulation = ElevatorController.newSimulation(NUM_ELEVATORS, MIN_FLOOR, MAX_FLOOR, clock);
+        // FCFS picks a car without checking its floors
+        simulation.setSchedulingStrategy(new FCFSStrategy());
+        CompletableFuture<Assignment> single = simulation.submit(new Request(2, MAX_FLOOR + 5));
+        clock.advanceBy(0);
+        assertTrue(single.isCompletedExceptionally());
+
+        simulation.setBatchWindow(100);
+        CompletableFuture<Assignment> batched = simulation.submit(new Request(MIN_FLOOR - 1, 4));
+        clock.advanceBy(100);
+        assertTrue(batched.isCompletedExceptionally());
+        assertEquals(2, simulation.getMetrics().snapshot().getUnassignedRequests());
+        for (Elevator elevator : simulation.getElevators()) {
+            assertEquals(0, elevator.getSnapshot().getAssignedPassengers());
+        }
+        simulation.shutdown();
+    }
+
+    @Test
+    void testCoalescesHallCallsFromTheSameFloorAndDirection() {
+        VirtualClock clock = new VirtualClock();
+        ElevatorController simulation = ElevatorController.newSimulation(3, MIN_FLOOR, MAX_FLOOR, clock);
+        simulation.setCoalescing(true);
+        List<CompletableFuture<Assignment>> up = List.of(simulation.submit(new Request(3, 8)),
+            simulation.submit(new Request(3, 9)), simulation.submit(new Request(3, 8)));
+        CompletableFuture<Assignment> down = simulation.submit(new Request(3, 1));
+        clock.advanceBy(0);
+
+        RequestDispatcher dispatcher = simulation.getRequestDispatcher();
+        assertEquals(4, dispatcher.getDispatchedRequests());
+        assertEquals(2, dispatcher.getCoalescedRequests());
+        assertEquals(0, dispatcher.getQueuedRequests());
+        Elevator car = up.get(0).join().getElevator();
+        for (CompletableFuture<Assignment> future : up) {
+            assertSame(car, future.join().getElevator());
+        }
+        assertNotNull(down.join().getElevator());
+
+        // Once the first call has been dispatched, a new one from the floor is scored on its own again
+        CompletableFuture<Assignment> later = simulation.submit(new Request(3, 7));
+        clock.advanceBy(0);
+        assertNotNull(later.join());
+        assertEquals(2, dispatcher.getCoalescedRequests());
+
+        clock.advanceBy(60_000);
+        assertEquals(5, simulation.getMetrics().snapshot().getFleet().getRideTimes().getCount());
+        simulation.shutdown();
+    }
+
+    @Test
+    void testBackpressureRejectsRequestsBeyondTheQueueLimit() {
+        VirtualClock clock = new VirtualClock();
+        ElevatorController simulation = ElevatorController.newSimulation(NUM_ELEVATORS, MIN_FLOOR, MAX_FLOOR, clock);
+        simulation.setBackpressure(2, OverloadPolicy.REJECT);
+        CompletableFuture<Assignment> first = simulation.submit(new Request(1, 5));
+        CompletableFuture<Assignment> second = simulation.submit(new Request(2, 6));
+        CompletableFuture<Assignment> rejected = simulation.submit(new Request(4, 0));
+        assertTrue(rejected.isCompletedExceptionally());
+        assertEquals(1, simulation.getRequestDispatcher().getRejectedRequests());
+
+        clock.advanceBy(0);
+        assertNotNull(first.join());
+        assertNotNull(second.join());
+        // The backlog has drained, so requests are accepted again
+        assertFalse(simulation.submit(new Request(4, 0)).isCompletedExceptionally());
+        simulation.shutdown();
+    }
+
+    @Test
+    void testSynchronousRequestsAreCoalescedAndHeldToTheQueueLimit() {
+        VirtualClock clock = new VirtualClock();
+        ElevatorController simulation = ElevatorController.newSimulation(3, MIN_FLOOR, MAX_FLOOR, clock);
+        int[] passes = new int[1];
+        SCANStrategy scan = new SCANStrategy();
+        simulation.setSchedulingStrategy((elevators, request) -> {
+            passes[0]++;
+            return scan.selectElevator(elevators, request);
+        });
+        simulation.setCoalescing(true);
+
+        // Repeated presses while the first passenger is still waiting go to the same car without a strategy pass
+        simulation.requestElevator(new Request(6, 9));
+        simulation.requestElevator(new Request(6, 8));
+        simulation.requestElevator(new Request(6, 2));
+        assertEquals(2, passes[0]);
+        assertEquals(1, simulation.getRequestDispatcher().getCoalescedRequests());
+        Elevator car = simulation.getElevators().get(0);
+        assertTrue(car.hasWaitingCall(6, Direction.UP));
+        assertEquals(3, car.getSnapshot().getAssignedPassengers());
+
+        // Once they have boarded, a new call from the floor is scored on its own again
+        clock.advanceBy(60_000);
+        simulation.requestElevator(new Request(6, 10));
+        assertEquals(3, passes[0]);
+
+        // Behind the dispatcher's backlog limit, the synchronous path is turned away as well
+        simulation.setBackpressure(1, OverloadPolicy.REJECT);
+        simulation.setBatchWindow(1_000);
+        simulation.submit(new Request(1, 5));
+        assertThrows(RejectedExecutionException.class, () -> simulation.requestElevator(new Request(2, 7)));
+        assertEquals(1, simulation.getRequestDispatcher().getRejectedRequests());
+        clock.advanceBy(1_000);
+        simulation.requestElevator(new Request(2, 7));
+        assertEquals(5, passes[0]);
+        simulation.shutdown();
+    }
+
+    @Test
+    void testOverloadDegradesToTheOverloadStrategy() {
+        VirtualClock clock = new VirtualClock();
+        ElevatorController simulation = ElevatorController.newSimulation(NUM_ELEVATORS, MIN_FLOOR, MAX_FLOOR, clock);
+        int[] calls = new int[2];
+        simulation.setSchedulingStrategy((elevators, request) -> {
+            calls[0]++;
+            return elevators.get(0);
+        });
+        simulation.setOverloadStrategy((elevators, request) -> {
+            calls[1]++;
+            return elevators.get(1);
+        });
+        simulation.setBackpressure(2, OverloadPolicy.DEGRADE);
+
+        simulation.submit(new Request(1, 5));
+        clock.advanceBy(0);
+        assertEquals(1, calls[0]);
+
+        List<CompletableFuture<Assignment>> burst = new ArrayList<>();
+        for (int floor = 1; floor <= 4; floor++) {
+            burst.add(simulation.submit(new Request(floor, 9)));
+        }
+        clock.advanceBy(0);
+        assertEquals(1, calls[0]);
+        assertEquals(4, calls[1]);
+        for (CompletableFuture<Assignment> future : burst) {
+            assertFalse(future.isCompletedExceptionally());
+        }
+        simulation.shutdown();
+    }
+
+    @Test
+    void testMetricsRecordWaitRideAndTravel() {
+        VirtualClock clock = new VirtualClock();
+        ElevatorController simulation = ElevatorController.newSimulation(1, MIN_FLOOR, MAX_FLOOR, clock);
+        clock.advanceBy(5_000);
+        simulation.requestElevator(new Request(0, 5));
+        clock.advanceBy(60_000);
+
+        MetricsSnapshot metrics = simulation.getMetrics().snapshot();
+        assertEquals(1, metrics.getAssignedRequests());
+        assertEquals(1, metrics.getDispatchLatency().getCount());
+
+        ElevatorMetrics.Snapshot fleet = metrics.getFleet();
+        // Picked up straight away, then one door cycle and five floors of travel to the destination
+        assertEquals(0, fleet.getWaitTimes().getMax());
+        assertEquals(2 * Elevator.DOOR_OPERATION_MILLIS + 5 * Elevator.FLOOR_TRAVEL_MILLIS,
+            fleet.getRideTimes().getMax());
+        assertEquals(5, fleet.getFloorsTravelled());
+        assertEquals(2, fleet.getStops());
+        assertEquals(2, fleet.getDoorCycles());
+        assertEquals(fleet.getStops(), metrics.getElevators().values().iterator().next().getStops());
+        simulation.shutdown();
+    }
+}
@@ -0,0 +1,145 @@
+package com.elevator;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ElevatorEventStreamTest {
+    @Test
+    void testPushesRideFromAssignmentToDropOff() throws InterruptedException {
+        VirtualClock clock = new VirtualClock();
+        ElevatorController simulation = ElevatorController.newSimulation(1, 0, 10, clock);
+        CollectingSubscriber first = new CollectingSubscriber(Long.MAX_VALUE);
+        CollectingSubscriber second = new CollectingSubscriber(Long.MAX_VALUE);
+        simulation.getEventStream().subscribe(first);
+        simulation.getEventStream().subscribe(second);
+        first.awaitSubscribed();
+        second.awaitSubscribed();
+
+        Request request = new Request(2, 4);
+        simulation.requestElevator(request);
+        clock.advanceBy(60_000);
+
+        List<ElevatorEvent> events = first.takeUntil(ElevatorEvent.Type.REQUEST_SERVED);
+        assertEquals(List.of(
+            ElevatorEvent.Type.REQUEST_ASSIGNED,
+            ElevatorEvent.Type.MOVED, ElevatorEvent.Type.MOVED,
+            ElevatorEvent.Type.STOPPED, ElevatorEvent.Type.DOORS_OPENED, ElevatorEvent.Type.DOORS_CLOSED,
+            ElevatorEvent.Type.MOVED, ElevatorEvent.Type.MOVED,
+            ElevatorEvent.Type.STOPPED, ElevatorEvent.Type.DOORS_OPENED, ElevatorEvent.Type.REQUEST_SERVED),
+            events.stream().map(ElevatorEvent::getType).collect(Collectors.toList()));
+        ElevatorEvent served = events.get(events.size() - 1);
+        assertSame(request, served.getRequest());
+        assertEquals(4, served.getFloor());
+        assertSame(simulation.getElevators().get(0), served.getElevator());
+        // Both subscribers see the same event objects
+        assertSame(served, second.takeUntil(ElevatorEvent.Type.REQUEST_SERVED).get(events.size() - 1));
+
+        simulation.shutdown();
+        assertTrue(first.completed.await(5, TimeUnit.SECONDS));
+        assertTrue(simulation.getEventStream().isClosed());
+    }
+
+    @Test
+    void testSlowSubscriberSkipsEventsTheRingNoLongerHolds() throws InterruptedException {
+        ElevatorEventStream stream = new ElevatorEventStream(4);
+        Elevator elevator = new Elevator(0, 10);
+        CollectingSubscriber slow = new CollectingSubscriber(0);
+        stream.subscribe(slow);
+        slow.awaitSubscribed();
+        for (int floor = 0; floor < 10; floor++) {
+            stream.publish(new ElevatorEvent(ElevatorEvent.Type.MOVED, elevator, floor, Direction.UP, null, floor));
+        }
+        assertEquals(10, stream.getPublishedEvents());
+
+        slow.subscription.request(Long.MAX_VALUE);
+        List<Integer> floors = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            floors.add(slow.events.poll(5, TimeUnit.SECONDS).getFloor());
+        }
+        assertEquals(List.of(6, 7, 8, 9), floors);
+        assertEquals(6, stream.getDroppedEvents());
+    }
+
+    @Test
+    void testDeliversOnlyRequestedEventsAndStopsOnCancel() throws InterruptedException {
+        ElevatorEventStream stream = new ElevatorEventStream();
+        Elevator elevator = new Elevator(0, 10);
+        CollectingSubscriber subscriber = new CollectingSubscriber(2);
+        stream.subscribe(subscriber);
+        subscriber.awaitSubscribed();
+        assertEquals(1, stream.getSubscriberCount());
+        for (int floor = 0; floor < 5; floor++) {
+            stream.publish(new ElevatorEvent(ElevatorEvent.Type.MOVED, elevator, floor, Direction.UP, null, floor));
+        }
+        assertEquals(0, subscriber.events.poll(5, TimeUnit.SECONDS).getFloor());
+        assertEquals(1, subscriber.events.poll(5, TimeUnit.SECONDS).getFloor());
+        assertNull(subscriber.events.poll(50, TimeUnit.MILLISECONDS));
+
+        subscriber.subscription.cancel();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (stream.getSubscriberCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(0, stream.getSubscriberCount());
+        assertFalse(stream.hasSubscribers());
+    }
+
+    private static class CollectingSubscriber implements Flow.Subscriber<ElevatorEvent> {
+        private final long initialDemand;
+        private final LinkedBlockingQueue<ElevatorEvent> events = new LinkedBlockingQueue<>();
+        private final CountDownLatch subscribed = new CountDownLatch(1);
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private volatile Flow.Subscription subscription;
+
+        CollectingSubscriber(long initialDemand) {
+            this.initialDemand = initialDemand;
+        }
+
+        void awaitSubscribed() throws InterruptedException {
+            assertTrue(subscribed.await(5, TimeUnit.SECONDS));
+        }
+
+        List<ElevatorEvent> takeUntil(ElevatorEvent.Type type) throws InterruptedException {
+            List<ElevatorEvent> taken = new ArrayList<>();
+            while (true) {
+                ElevatorEvent event = events.poll(5, TimeUnit.SECONDS);
+                assertNotNull(event, "Timed out waiting for " + type + " after " + taken);
+                taken.add(event);
+                if (event.getType() == type) {
+                    return taken;
+                }
+            }
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialDemand > 0) {
+                subscription.request(initialDemand);
+            }
+            subscribed.countDown();
+        }
+
+        @Override
+        public void onNext(ElevatorEvent item) {
+            events.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            completed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.elevator;
+
+// Elevators set up in a known position, shared by the strategy and reassignment tests
+final class ElevatorFixtures {
+    private ElevatorFixtures() {
+    }
+
+    // Moves a new elevator serving floors 0 to 20 to the floor and leaves it stopped there with no stops
+    static Elevator elevatorAt(int floor) {
+        return moveTo(new Elevator(0, 20), floor);
+    }
+
+    static Elevator moveTo(Elevator elevator, int floor) {
+        if (floor != elevator.getCurrentFloor()) {
+            elevator.addDestination(floor);
+            while (!elevator.getDestinationFloors().isEmpty()) {
+                elevator.move();
+            }
+        }
+        return elevator;
+    }
+}
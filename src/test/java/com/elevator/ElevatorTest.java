@@ -2,6 +2,8 @@ package com.elevator;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class ElevatorTest {
@@ -28,6 +30,19 @@ public class ElevatorTest {
         assertEquals(Direction.UP, elevator.getDirection());
     }
 
+    @Test
+    void testDestinationFloorsAreASnapshot() {
+        elevator.addDestination(5);
+        List<Integer> before = elevator.getDestinationFloors();
+        elevator.addDestination(8);
+        elevator.addDestination(2);
+
+        // Later stops never show through a list already handed out, and callers cannot change it
+        assertEquals(List.of(5), before);
+        assertEquals(List.of(2, 5, 8), elevator.getDestinationFloors());
+        assertThrows(UnsupportedOperationException.class, () -> before.add(9));
+    }
+
     @Test
     void testMoveUp() {
         elevator.addDestination(3);
@@ -63,4 +78,147 @@ public class ElevatorTest {
         elevator.addDestination(-1); // Below min floor
         assertTrue(elevator.getDestinationFloors().isEmpty());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testIdleElevatorParksUntilWokenUp() {
+        int[] wakeUps = {0};
+        elevator.setWakeUpListener(() -> wakeUps[0]++);
+
+        assertEquals(Elevator.PARKED, elevator.step());
+        assertEquals(0, wakeUps[0]);
+
+        elevator.addDestination(2);
+        elevator.addDestination(4);
+        assertEquals(1, wakeUps[0]);
+        assertEquals(Elevator.FLOOR_TRAVEL_MILLIS, elevator.step());
+    }
+
+    @Test
+    void testLookServesStopsInSweepOrder() {
+        elevator.addDestination(5);
+        serveAll(elevator);
+
+        elevator.addDestination(8);
+        elevator.addDestination(2);
+        elevator.addDestination(9);
+        assertEquals(List.of(8, 9, 2), serveAll(elevator));
+    }
+
+    @Test
+    void testFifoServesStopsInInsertionOrder() {
+        Elevator fifo = new Elevator(0, 10, StopOrderingPolicy.FIFO);
+        fifo.addDestination(5);
+        serveAll(fifo);
+
+        fifo.addDestination(8);
+        fifo.addDestination(2);
+        fifo.addDestination(9);
+        assertEquals(List.of(8, 2, 9), serveAll(fifo));
+    }
+
+    @Test
+    void testCircularLookOnlyServesStopsGoingUp() {
+        Elevator circular = new StandardElevatorFactory(StopOrderingPolicy.C_LOOK).createElevator(0, 10);
+        circular.addDestination(5);
+        serveAll(circular);
+
+        circular.addDestination(8);
+        circular.addDestination(3);
+        circular.addDestination(1);
+        // Floor 3 is passed on the way down to 1 and served on the next sweep up
+        assertEquals(List.of(8, 1, 3), serveAll(circular));
+    }
+
+    @Test
+    void testDestinationQueuedOnlyAfterPickup() {
+        assertTrue(elevator.assignRequest(new Request(5, 2)));
+        assertEquals(List.of(5), elevator.getDestinationFloors());
+
+        assertEquals(List.of(5, 2), serveAll(elevator));
+        assertFalse(elevator.assignRequest(new Request(5, 11)));
+    }
+
+    @Test
+    void testSnapshotIsImmutable() {
+        elevator.addDestination(3);
+        ElevatorSnapshot before = elevator.getSnapshot();
+        elevator.move();
+
+        assertEquals(0, before.getCurrentFloor());
+        assertEquals(ElevatorState.STOPPED, before.getState());
+        assertTrue(before.hasStop(3));
+        assertThrows(UnsupportedOperationException.class, () -> before.getStops().add(4));
+
+        ElevatorSnapshot after = elevator.getSnapshot();
+        assertSame(elevator, after.getElevator());
+        assertEquals(1, after.getCurrentFloor());
+        assertEquals(ElevatorState.MOVING, after.getState());
+    }
+
+    @Test
+    void testFullCarComesBackForPassengersLeftBehind() {
+        Elevator small = new Elevator(0, 10, StopOrderingPolicy.LOOK, 2);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(small.assignRequest(new Request(0, 5)));
+        }
+        assertEquals(3, small.getSnapshot().getAssignedPassengers());
+
+        small.step();
+        assertEquals(2, small.getLoad());
+        assertTrue(small.getSnapshot().hasPassengerDestination(5));
+
+        // Two ride up first, then the car returns for the third
+        assertEquals(List.of(5, 0, 5), serveAll(small));
+        assertEquals(0, small.getLoad());
+        assertEquals(0, small.getSnapshot().getAssignedPassengers());
+        assertFalse(small.getSnapshot().hasPassengerDestination(5));
+        assertEquals(3, small.getMetrics().snapshot().getRideTimes().getCount());
+    }
+
+    @Test
+    void testDoorsStayOpenForAWholeStep() {
+        elevator.addDestination(1);
+        elevator.addDestination(4);
+        assertEquals(Elevator.FLOOR_TRAVEL_MILLIS + Elevator.DOOR_OPERATION_MILLIS, elevator.step());
+        assertEquals(1, elevator.getCurrentFloor());
+        assertEquals(ElevatorState.DOORS_OPEN, elevator.getState());
+
+        // Stops are still taken while the doors are open
+        elevator.addDestination(6);
+        assertEquals(List.of(4, 6), elevator.getDestinationFloors());
+
+        assertEquals(Elevator.DOOR_OPERATION_MILLIS, elevator.step());
+        assertEquals(ElevatorState.STOPPED, elevator.getState());
+        assertEquals(1, elevator.getCurrentFloor());
+        assertEquals(Elevator.FLOOR_TRAVEL_MILLIS, elevator.step());
+        assertEquals(2, elevator.getCurrentFloor());
+    }
+
+    @Test
+    void testPassengerBoardsWhileDoorsAreOpen() {
+        elevator.setClock(new VirtualClock());
+        elevator.addDestination(2);
+        elevator.step();
+        elevator.step();
+        assertEquals(ElevatorState.DOORS_OPEN, elevator.getState());
+
+        assertTrue(elevator.assignRequest(new Request(2, 7)));
+        // Boarded on the spot: no second stop at floor 2, straight on to the destination
+        assertEquals(List.of(7), elevator.getDestinationFloors());
+        assertEquals(1, elevator.getLoad());
+        assertEquals(List.of(7), serveAll(elevator));
+        assertEquals(0, elevator.getMetrics().snapshot().getWaitTimes().getMax());
+    }
+
+    // Steps the elevator until it has no stops left, returning the floors it stopped at
+    private static List<Integer> serveAll(Elevator elevator) {
+        List<Integer> stops = new ArrayList<>();
+        while (!elevator.getDestinationFloors().isEmpty() || elevator.getState() == ElevatorState.DOORS_OPEN) {
+            elevator.step();
+            if (elevator.getState() == ElevatorState.DOORS_OPEN) {
+                stops.add(elevator.getCurrentFloor());
+            }
+        }
+        return stops;
+    }
+}
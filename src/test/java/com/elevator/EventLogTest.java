@@ -0,0 +1,92 @@
+package com.elevator;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import java.util.logging.SimpleFormatter;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventLogTest {
+    private final Logger logger = Logger.getLogger(EventLogTest.class.getName());
+    private final List<String> messages = new ArrayList<>();
+    private final Handler handler = new Handler() {
+        private final SimpleFormatter formatter = new SimpleFormatter();
+
+        @Override
+        public synchronized void publish(LogRecord record) {
+            messages.add(formatter.formatMessage(record));
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    @BeforeEach
+    void setUp() {
+        logger.setUseParentHandlers(false);
+        logger.addHandler(handler);
+        logger.setLevel(Level.INFO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.removeHandler(handler);
+    }
+
+    @Test
+    void testEventsAreFormattedOnFlush() {
+        EventLog log = EventLog.getLog(EventLogTest.class);
+        log.log(Level.INFO, "Elevator {0} moved to floor {1}", "A", 7);
+        log.log(Level.WARNING, "Invalid destination floor {0} for elevator {1}", 12, "B");
+        log.info("No arguments");
+        EventLog.flush();
+
+        synchronized (handler) {
+            assertEquals(List.of("Elevator A moved to floor 7", "Invalid destination floor 12 for elevator B",
+                "No arguments"), messages);
+        }
+    }
+
+    @Test
+    void testIdleWriterIsWokenByTheNextEvent() throws InterruptedException {
+        EventLog log = EventLog.getLog(EventLogTest.class);
+        EventLog.flush();
+        // Long enough for the writer to have found the ring empty and parked
+        Thread.sleep(50);
+        log.info("Woken");
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < deadline) {
+            synchronized (handler) {
+                if (messages.contains("Woken")) {
+                    return;
+                }
+            }
+            Thread.sleep(5);
+        }
+        fail("The writer never wrote the event");
+    }
+
+    @Test
+    void testEventsBelowLevelAreSkipped() {
+        EventLog log = EventLog.getLog(EventLogTest.class);
+        assertFalse(log.isLoggable(Level.FINE));
+        log.log(Level.FINE, "Elevator {0} moved to floor {1}", "A", 7);
+        EventLog.flush();
+
+        synchronized (handler) {
+            assertTrue(messages.isEmpty());
+        }
+    }
+}
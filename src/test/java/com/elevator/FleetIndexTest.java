@@ -0,0 +1,72 @@
+package com.elevator;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FleetIndexTest {
+    private static final int MIN_FLOOR = 0;
+    private static final int MAX_FLOOR = 30;
+
+    private static List<Elevator> indexedFleet(FleetIndex index, int size) {
+        List<Elevator> elevators = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Elevator elevator = new Elevator(MIN_FLOOR, MAX_FLOOR);
+            index.add(elevator, i);
+            elevators.add(elevator);
+        }
+        return elevators;
+    }
+
+    @Test
+    void testIndexFollowsElevatorMoves() {
+        FleetIndex index = new FleetIndex();
+        Elevator elevator = indexedFleet(index, 1).get(0);
+        assertEquals(1, index.size(Direction.IDLE));
+
+        elevator.addDestination(5);
+        elevator.move();
+        elevator.move();
+        assertEquals(0, index.size(Direction.IDLE));
+        assertEquals(1, index.size(Direction.UP));
+        assertEquals(2, index.nearestAtOrAbove(Direction.UP, 0).getCurrentFloor());
+        assertNull(index.nearestAtOrAbove(Direction.UP, 3));
+        assertEquals(2, index.nearestAtOrBelow(Direction.UP, 4).getCurrentFloor());
+        assertNull(index.nearestAtOrBelow(Direction.UP, 1));
+    }
+
+    @Test
+    void testNearestPrefersEarliestCarOnTheSameFloor() {
+        FleetIndex index = new FleetIndex();
+        List<Elevator> elevators = indexedFleet(index, 3);
+        assertSame(elevators.get(0), index.nearestAtOrBelow(Direction.IDLE, 10).getElevator());
+        assertSame(elevators.get(0), index.nearestAtOrAbove(Direction.IDLE, 0).getElevator());
+    }
+
+    @Test
+    void testIndexedScanMatchesFullScan() {
+        Random random = new Random(42);
+        FleetIndex index = new FleetIndex();
+        List<Elevator> elevators = indexedFleet(index, 16);
+        SCANStrategy strategy = new SCANStrategy();
+
+        for (int round = 0; round < 200; round++) {
+            // Scatter the fleet across floors and directions
+            Elevator elevator = elevators.get(random.nextInt(elevators.size()));
+            if (random.nextInt(4) == 0) {
+                elevator.clearDestinations();
+            } else {
+                elevator.addDestination(random.nextInt(MAX_FLOOR + 1));
+                for (int steps = random.nextInt(5); steps > 0; steps--) {
+                    elevator.move();
+                }
+            }
+
+            Request request = new Request(random.nextInt(MAX_FLOOR + 1), random.nextInt(MAX_FLOOR + 1));
+            assertSame(strategy.selectElevator(elevators, request),
+                strategy.selectElevator(index, elevators, request));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.elevator;
+
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HungarianStrategyTest {
+
+    @Test
+    void testSolveFindsMinimumCostAssignment() {
+        long[][] cost = {
+            {1, 2, 8},
+            {1, 10, 9},
+            {7, 3, 2}
+        };
+        // Greedy row by row would pick 1 + 9 + 3 = 13; the optimum is 2 + 1 + 2 = 5
+        assertArrayEquals(new int[]{1, 0, 2}, HungarianStrategy.solve(cost, 3, 3));
+
+        long[][] rectangular = {
+            {9, 1, 9, 9},
+            {9, 2, 9, 3}
+        };
+        assertArrayEquals(new int[]{1, 3}, HungarianStrategy.solve(rectangular, 2, 4));
+    }
+
+    @Test
+    void testBatchSpreadsRequestsAcrossElevators() {
+        Elevator first = new Elevator(0, 10);
+        Elevator second = new Elevator(0, 10);
+        List<Elevator> elevators = List.of(first, second);
+        List<Request> requests = List.of(new Request(2, 6), new Request(3, 9));
+
+        // Scored one at a time, both requests go to the same idle elevator
+        List<Elevator> greedy = new SCANStrategy().assignRequests(elevators, requests);
+        assertSame(greedy.get(0), greedy.get(1));
+
+        List<Elevator> batch = new HungarianStrategy().assignRequests(elevators, requests);
+        assertNotSame(batch.get(0), batch.get(1));
+    }
+
+    @Test
+    void testControllerBatchWindow() {
+        VirtualClock clock = new VirtualClock();
+        ElevatorController simulation = ElevatorController.newSimulation(2, 0, 10, clock);
+        simulation.setSchedulingStrategy(new HungarianStrategy());
+        simulation.setBatchWindow(500);
+
+        CompletableFuture<Assignment> first = simulation.submit(new Request(2, 6));
+        CompletableFuture<Assignment> second = simulation.submit(new Request(3, 9));
+        clock.advanceBy(499);
+        assertFalse(first.isDone());
+
+        clock.advanceBy(1);
+        assertNotSame(first.join().getElevator(), second.join().getElevator());
+        assertEquals(1, simulation.getRequestDispatcher().getDispatchedBatches());
+        simulation.shutdown();
+    }
+}
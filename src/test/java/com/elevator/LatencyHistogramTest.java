@@ -0,0 +1,58 @@
+package com.elevator;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    void testPercentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram(1_000_000);
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(10_000, snapshot.getCount());
+        assertEquals(5000.5, snapshot.getMean(), 0.001);
+        assertEquals(10_000, snapshot.getMax());
+        assertEquals(5000, snapshot.getValueAtPercentile(50), 5000 * 0.04);
+        assertEquals(9900, snapshot.getValueAtPercentile(99), 9900 * 0.04);
+        assertEquals(10_000, snapshot.getValueAtPercentile(100));
+    }
+
+    @Test
+    void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram(1000);
+        histogram.record(3);
+        histogram.record(7);
+        assertEquals(3, histogram.snapshot().getValueAtPercentile(50));
+        assertEquals(7, histogram.snapshot().getValueAtPercentile(100));
+    }
+
+    @Test
+    void testValuesAboveRangeAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram(1000);
+        histogram.record(5_000_000);
+        histogram.record(-5);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(5_000_000, snapshot.getMax());
+        assertEquals(0, snapshot.getValueAtPercentile(50));
+        assertTrue(snapshot.getValueAtPercentile(100) >= 1000);
+    }
+
+    @Test
+    void testMerge() {
+        LatencyHistogram first = new LatencyHistogram(1000);
+        LatencyHistogram second = new LatencyHistogram(1000);
+        first.record(10);
+        second.record(20);
+        second.record(30);
+        LatencyHistogram.Snapshot merged = first.snapshot().merge(second.snapshot());
+
+        assertEquals(3, merged.getCount());
+        assertEquals(20.0, merged.getMean(), 0.001);
+        assertEquals(30, merged.getMax());
+    }
+}
@@ -0,0 +1,64 @@
+package com.elevator;
+
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PredictiveParkingPolicyTest {
+    private static final long HOUR_MILLIS = 60 * 60 * 1000;
+    private static final long DAY_MILLIS = 24 * HOUR_MILLIS;
+
+    @Test
+    void testDemandIsLearnedPerTimeOfDay() {
+        DemandModel model = new DemandModel(0, 20, HOUR_MILLIS, 0.5);
+        long morning = 8 * HOUR_MILLIS;
+        long evening = 18 * HOUR_MILLIS;
+        model.record(0, morning);
+        model.record(0, morning + 1000);
+        model.record(15, morning);
+        model.record(15, evening);
+
+        assertEquals(List.of(0, 15), model.rankFloors(morning));
+        assertEquals(List.of(15), model.rankFloors(evening));
+        // The same time of day on a later day sees the learned demand, faded by a day
+        model.record(15, DAY_MILLIS + morning);
+        assertEquals(1.0, model.getDemand(0, DAY_MILLIS + morning), 1e-9);
+        assertEquals(1.5, model.getDemand(15, DAY_MILLIS + morning), 1e-9);
+        assertEquals(List.of(15, 0), model.rankFloors(DAY_MILLIS + morning));
+    }
+
+    @Test
+    void testIdleCarsSpreadOverBusiestFloors() {
+        DemandModel model = new DemandModel(0, 20, HOUR_MILLIS, 0.5);
+        model.record(10, 0);
+        model.record(10, 0);
+        model.record(3, 0);
+        PredictiveParkingPolicy policy = new PredictiveParkingPolicy(model);
+
+        Elevator first = new Elevator(0, 20);
+        Elevator second = new Elevator(0, 20);
+        assertEquals(10, policy.selectParkingFloor(first.getSnapshot(),
+            List.of(first.getSnapshot(), second.getSnapshot()), 0));
+
+        first.addDestination(10);
+        assertEquals(3, policy.selectParkingFloor(second.getSnapshot(),
+            List.of(first.getSnapshot(), second.getSnapshot()), 0));
+    }
+
+    @Test
+    void testControllerParksIdleCarAtLearnedFloor() {
+        VirtualClock clock = new VirtualClock();
+        ElevatorController simulation = ElevatorController.newSimulation(1, 0, 10, clock);
+        simulation.setParkingPolicy(new PredictiveParkingPolicy(new DemandModel(0, 10, HOUR_MILLIS, 0.5)));
+
+        simulation.requestElevator(new Request(8, 0));
+        clock.advanceBy(120_000);
+
+        // After taking the passenger down the car returns to the floor the call came from
+        Elevator elevator = simulation.getElevators().get(0);
+        assertEquals(8, elevator.getCurrentFloor());
+        assertEquals(Direction.IDLE, elevator.getDirection());
+        assertEquals(0, clock.getPendingEvents());
+        simulation.shutdown();
+    }
+}
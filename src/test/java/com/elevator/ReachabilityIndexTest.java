@@ -0,0 +1,140 @@
+package com.elevator;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReachabilityIndexTest {
+    // Express car from the lobby to the high zone, two local low-zone cars and one high-zone car
+    private static final List<ServedFloors> GROUP = List.of(
+        ServedFloors.express(0, 20, 40),
+        ServedFloors.range(0, 20),
+        ServedFloors.range(0, 20),
+        ServedFloors.range(20, 40));
+
+    @Test
+    void testChecksEachCarInConstantTime() {
+        List<Elevator> elevators = build(GROUP);
+        ReachabilityIndex index = new ReachabilityIndex(elevators, 0, 40);
+        assertFalse(index.isUniform());
+
+        Request lobbyToHigh = new Request(0, 30);
+        assertTrue(index.canServe(0, lobbyToHigh));
+        assertFalse(index.canServe(1, lobbyToHigh));
+        assertTrue(index.canServe(3, new Request(25, 20)));
+        assertFalse(index.canServe(0, new Request(5, 30)));
+        assertEquals(List.of(elevators.get(0)), index.eligibleCars(elevators, lobbyToHigh));
+        assertEquals(List.of(elevators.get(1), elevators.get(2)), index.eligibleCars(elevators, new Request(3, 12)));
+        assertFalse(index.canServe(new Request(5, 35)));
+        assertFalse(index.canServe(new Request(0, 41)));
+    }
+
+    @Test
+    void testRoutesThroughTheNearestTransferFloor() {
+        ReachabilityIndex index = new ReachabilityIndex(build(GROUP), 0, 40);
+        // Changing at the lobby would mean riding back down first
+        assertEquals(List.of(5, 20, 35), index.route(5, 35));
+        assertEquals(List.of(35, 20, 5), index.route(35, 5));
+        assertEquals(List.of(0, 30), index.route(0, 30));
+
+        // Stacked zones take three legs, unless a shuttle saves a change even at the cost of more travel
+        List<ServedFloors> stacked = List.of(ServedFloors.range(0, 10), ServedFloors.range(10, 20),
+            ServedFloors.range(20, 30));
+        assertEquals(List.of(2, 10, 20, 25), new ReachabilityIndex(build(stacked), 0, 30).route(2, 25));
+        List<ServedFloors> withShuttle = List.of(ServedFloors.range(0, 10), ServedFloors.range(10, 20),
+            ServedFloors.range(20, 30), ServedFloors.of(8, 25));
+        assertEquals(List.of(2, 8, 25), new ReachabilityIndex(build(withShuttle), 0, 30).route(2, 25));
+
+        ReachabilityIndex disconnected = new ReachabilityIndex(
+            build(List.of(ServedFloors.range(0, 10), ServedFloors.range(12, 20))), 0, 20);
+        assertTrue(disconnected.route(3, 15).isEmpty());
+    }
+
+    @Test
+    void testControllerCarriesPassengerAcrossSkyLobby() {
+        VirtualClock clock = new VirtualClock();
+        ElevatorController group = ElevatorController.newGroupSimulation(GROUP, clock);
+        assertTrue(group.serves(new Request(5, 35)));
+        group.requestElevator(new Request(5, 35));
+        assertEquals(1, group.getPendingTransfers());
+
+        clock.advanceBy(5 * 60_000);
+        assertEquals(0, group.getPendingTransfers());
+        List<Elevator> elevators = group.getElevators();
+        MetricsSnapshot metrics = group.getMetrics().snapshot();
+        Map<String, ElevatorMetrics.Snapshot> byCar = metrics.getElevators();
+        // One leg on a low-zone car to the sky lobby, one on a car serving the high zone
+        long lowRides = byCar.get(elevators.get(1).getId()).getRideTimes().getCount()
+            + byCar.get(elevators.get(2).getId()).getRideTimes().getCount();
+        long highRides = byCar.get(elevators.get(0).getId()).getRideTimes().getCount()
+            + byCar.get(elevators.get(3).getId()).getRideTimes().getCount();
+        assertEquals(1, lowRides);
+        assertEquals(1, highRides);
+        assertEquals(0, metrics.getUnassignedRequests());
+        for (Elevator elevator : elevators) {
+            assertEquals(0, elevator.getSnapshot().getAssignedPassengers());
+        }
+        group.shutdown();
+    }
+
+    @Test
+    void testUnassignedTransferDropsTheRestOfTheTrip() {
+        VirtualClock clock = new VirtualClock();
+        ElevatorController group = ElevatorController.newGroupSimulation(List.of(ServedFloors.range(0, 10),
+            ServedFloors.range(10, 20), ServedFloors.range(20, 30)), clock);
+        group.requestElevator(new Request(2, 25));
+        assertEquals(2, group.getPendingTransfers());
+
+        // No car takes the passenger on from the first transfer floor
+        SCANStrategy scan = new SCANStrategy();
+        group.setSchedulingStrategy((elevators, request) ->
+            request.getSourceFloor() == 10 ? null : scan.selectElevator(elevators, request));
+        clock.advanceBy(5 * 60_000);
+        assertEquals(0, group.getPendingTransfers());
+        MetricsSnapshot metrics = group.getMetrics().snapshot();
+        assertEquals(1, metrics.getUnassignedRequests());
+        assertEquals(1, metrics.getElevators().get(group.getElevators().get(0).getId()).getRideTimes().getCount());
+        group.shutdown();
+    }
+
+    @Test
+    void testStrategySkipsCarsThatDoNotStopAtTheFloor() {
+        VirtualClock clock = new VirtualClock();
+        ElevatorController group = ElevatorController.newGroupSimulation(GROUP, clock);
+        List<Elevator> elevators = group.getElevators();
+
+        // The express car is as close as the locals and first in the fleet, but passes floor 2 without stopping
+        group.requestElevator(new Request(2, 0));
+        assertEquals(0, elevators.get(0).getSnapshot().getAssignedPassengers());
+        assertEquals(1, elevators.get(1).getSnapshot().getAssignedPassengers());
+        assertFalse(elevators.get(0).assignRequest(new Request(2, 0)));
+        assertSame(elevators.get(0), new SCANStrategy().selectElevator(elevators, new Request(0, 30)));
+        assertNull(new SCANStrategy().selectElevator(elevators, new Request(10, 30)));
+
+        // Submitted requests are checked the same way, and a floor nobody stops at is refused
+        ElevatorController sparse = ElevatorController.newGroupSimulation(
+            List.of(ServedFloors.of(0, 2, 4), ServedFloors.of(0, 4)), clock);
+        assertFalse(sparse.serves(3));
+        assertFalse(sparse.serves(new Request(0, 3)));
+        CompletableFuture<Assignment> refused = sparse.submit(new Request(0, 3));
+        CompletableFuture<Assignment> accepted = sparse.submit(new Request(2, 4));
+        clock.advanceBy(0);
+        assertTrue(refused.isCompletedExceptionally());
+        assertSame(sparse.getElevators().get(0), accepted.join().getElevator());
+        group.shutdown();
+        sparse.shutdown();
+    }
+
+    private static List<Elevator> build(List<ServedFloors> cars) {
+        List<Elevator> elevators = new ArrayList<>();
+        for (ServedFloors floors : cars) {
+            Elevator elevator = new Elevator(floors.getMinFloor(), floors.getMaxFloor());
+            elevator.setServedFloors(floors);
+            elevators.add(elevator);
+        }
+        return elevators;
+    }
+}
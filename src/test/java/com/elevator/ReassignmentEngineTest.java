@@ -0,0 +1,95 @@
+package com.elevator;
+
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import static com.elevator.ElevatorFixtures.elevatorAt;
+import static com.elevator.ElevatorFixtures.moveTo;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReassignmentEngineTest {
+    @Test
+    void testMovesWaitingCallToCloserIdleCar() {
+        Elevator far = elevatorAt(0);
+        Elevator near = elevatorAt(8);
+        ReassignmentEngine engine = new ReassignmentEngine(List.of(far, near), 5_000);
+        assertTrue(far.assignRequest(new Request(9, 10)));
+
+        assertEquals(1, engine.rebalance());
+        assertTrue(far.getWaitingTrips().isEmpty());
+        assertTrue(far.getDestinationFloors().isEmpty());
+        assertEquals(Direction.IDLE, far.getDirection());
+        assertEquals(1, near.getWaitingTrips().size());
+        assertEquals(List.of(9), near.getDestinationFloors());
+        assertEquals(1, engine.getReassignments());
+
+        // Nothing changed since, so the next pass has nothing to look at
+        assertEquals(0, engine.rebalance());
+    }
+
+    @Test
+    void testKeepsCallWhenTheCloserCarRefusesIt() {
+        Elevator far = elevatorAt(0);
+        Elevator refusing = moveTo(new Elevator(0, 20) {
+            @Override
+            public boolean assignRequest(Request request, long requestTime) {
+                return false;
+            }
+        }, 8);
+        ReassignmentEngine engine = new ReassignmentEngine(List.of(far, refusing), 5_000);
+        assertTrue(far.assignRequest(new Request(9, 10), 0));
+
+        assertEquals(0, engine.rebalance());
+        assertEquals(1, far.getWaitingTrips().size());
+        assertEquals(0, far.getWaitingTrips().get(0).getRequestTime());
+        assertEquals(List.of(9), far.getDestinationFloors());
+        assertEquals(1, far.getSnapshot().getAssignedPassengers());
+        assertEquals(0, engine.getReassignments());
+    }
+
+    @Test
+    void testKeepsCallWhenSavingIsBelowThreshold() {
+        Elevator first = elevatorAt(0);
+        Elevator second = elevatorAt(2);
+        ReassignmentEngine engine = new ReassignmentEngine(List.of(first, second), 5_000);
+        first.assignRequest(new Request(3, 10));
+
+        assertEquals(0, engine.rebalance());
+        assertEquals(1, first.getWaitingTrips().size());
+    }
+
+    @Test
+    void testKeepsStopSharedWithOtherPassengers() {
+        Elevator far = elevatorAt(0);
+        Elevator near = elevatorAt(8);
+        // A rider is already on board for floor 9, and a car call was pressed for floor 12
+        far.assignRequest(new Request(0, 9));
+        far.step();
+        far.addDestination(12);
+        far.assignRequest(new Request(9, 10));
+        far.assignRequest(new Request(12, 14));
+
+        // The calls move, but the stops stay for the rider and the car call
+        assertEquals(2, new ReassignmentEngine(List.of(far, near), 1_000).rebalance());
+        assertTrue(far.getWaitingTrips().isEmpty());
+        assertEquals(List.of(9, 12), far.getDestinationFloors());
+    }
+
+    @Test
+    void testControllerRebalancesInTheBackground() {
+        VirtualClock clock = new VirtualClock();
+        ElevatorController simulation = ElevatorController.newSimulation(2, 0, 20, clock);
+        simulation.setSchedulingStrategy(new FCFSStrategy());
+        simulation.enableReassignment(1_000, 10_000);
+
+        // FCFS piles both calls on the first car; the second call is better served by the idle one
+        simulation.requestElevator(new Request(0, 20));
+        simulation.requestElevator(new Request(1, 0));
+        clock.advanceBy(120_000);
+
+        assertEquals(1, simulation.getReassignmentEngine().getReassignments());
+        List<Elevator> elevators = simulation.getElevators();
+        assertEquals(1, elevators.get(1).getMetrics().snapshot().getRideTimes().getCount());
+        assertEquals(2, simulation.getMetrics().snapshot().getFleet().getRideTimes().getCount());
+        simulation.shutdown();
+    }
+}
@@ -0,0 +1,123 @@
+package com.elevator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TraceReplayTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void testControllerRecordsRequestsToTrace() throws IOException {
+        Path trace = directory.resolve("recorded.trace");
+        VirtualClock clock = new VirtualClock();
+        ElevatorController simulation = ElevatorController.newSimulation(2, 0, 10, clock);
+        try (TraceWriter writer = new TraceWriter(trace)) {
+            simulation.setTraceWriter(writer);
+            clock.advanceBy(1_500);
+            simulation.requestElevator(new Request(0, 5));
+            clock.advanceBy(2_000);
+            simulation.submit(new Request(7, 2));
+            simulation.setTraceWriter(null);
+            simulation.requestElevator(new Request(1, 2));
+        }
+        simulation.shutdown();
+
+        try (TraceReader reader = new TraceReader(trace)) {
+            assertEquals(2, reader.getRecordCount());
+            assertTrue(reader.next());
+            assertEquals(1_500, reader.getTimestamp());
+            assertEquals(0, reader.getSourceFloor());
+            assertEquals(5, reader.getDestinationFloor());
+            assertTrue(reader.next());
+            assertEquals(3_500, reader.getTimestamp());
+            assertEquals(7, reader.getSourceFloor());
+            assertEquals(2, reader.getDestinationFloor());
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void testRejectsFilesThatAreNotTraces() throws IOException {
+        Path notATrace = directory.resolve("other.bin");
+        Files.write(notATrace, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9});
+        assertThrows(IOException.class, () -> new TraceReader(notATrace));
+    }
+
+    @Test
+    void testReplayComparesStrategiesOnTheSameTraffic() throws IOException {
+        Path trace = directory.resolve("replay.trace");
+        try (TraceWriter writer = new TraceWriter(trace)) {
+            for (int i = 0; i < 200; i++) {
+                int source = (i * 7) % 21;
+                int destination = (i * 13 + 5) % 21;
+                writer.record(new Request(source, destination == source ? (source + 1) % 21 : destination), i * 3_000L);
+            }
+        }
+
+        List<TraceReplay.Result> results = new TraceReplay(3, 0, 20)
+            .compare(trace, List.of(new SCANStrategy(), new DestinationDispatchStrategy()));
+        assertEquals(2, results.size());
+        for (TraceReplay.Result result : results) {
+            assertEquals(200, result.getRequests());
+            assertEquals(200, result.getMetrics().getAssignedRequests());
+            // Every passenger was delivered before the fleet went idle
+            assertEquals(200, result.getMetrics().getFleet().getRideTimes().getCount());
+            assertTrue(result.getSimulatedMillis() >= 199 * 3_000L);
+        }
+        assertEquals("SCANStrategy", results.get(0).getStrategy());
+    }
+
+    @Test
+    void testParallelComparisonMatchesSequentialReplay() throws IOException {
+        Path trace = directory.resolve("parallel.trace");
+        try (TraceWriter writer = new TraceWriter(trace)) {
+            for (int i = 0; i < 300; i++) {
+                int source = (i * 11) % 31;
+                int destination = (i * 17 + 3) % 31;
+                writer.record(new Request(source, destination == source ? (source + 2) % 31 : destination), i * 1_500L);
+            }
+        }
+
+        TraceReplay replay = new TraceReplay(4, 0, 30);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        List<TraceReplay.Result> results;
+        try {
+            results = replay.compare(trace, List.of(new SCANStrategy(), new FCFSStrategy(), new HungarianStrategy(),
+                new ETAStrategy()), pool);
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(List.of("SCANStrategy", "FCFSStrategy", "HungarianStrategy", "ETAStrategy"),
+            results.stream().map(TraceReplay.Result::getStrategy).collect(Collectors.toList()));
+
+        // Isolated fleets on virtual time: racing the replays does not change their outcome
+        TraceReplay.Result sequential = replay.replay(trace, new SCANStrategy());
+        assertEquals(sequential.getSimulatedMillis(), results.get(0).getSimulatedMillis());
+        assertEquals(sequential.getMetrics().getFleet().getFloorsTravelled(),
+            results.get(0).getMetrics().getFleet().getFloorsTravelled());
+        for (TraceReplay.Result result : results) {
+            assertEquals(300, result.getMetrics().getFleet().getRideTimes().getCount());
+            assertEquals(300, result.getMetrics().getDispatchLatency().getCount());
+        }
+
+        String report = TraceReplay.report(results);
+        assertEquals(5, report.split(System.lineSeparator()).length);
+        assertTrue(report.contains("wait95"));
+        assertTrue(report.contains("HungarianStrategy"));
+    }
+
+    @Test
+    void testParallelComparisonReportsUnreadableTrace() {
+        TraceReplay replay = new TraceReplay(2, 0, 10);
+        assertThrows(IOException.class, () -> replay.compare(directory.resolve("missing.trace"),
+            List.of(new SCANStrategy(), new FCFSStrategy())));
+    }
+}
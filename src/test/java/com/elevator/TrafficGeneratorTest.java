@@ -0,0 +1,102 @@
+package com.elevator;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TrafficGeneratorTest {
+    private static final int SAMPLES = 100_000;
+
+    @Test
+    void testUpPeakTripsMostlyLeaveTheLobby() {
+        TrafficGenerator generator = new TrafficGenerator(TrafficProfile.UP_PEAK, 0, 0,
+            TrafficGenerator.uniformPopulation(0, 20, 50), 600, 1);
+        int incoming = 0;
+        int outgoing = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            generator.next();
+            assertNotEquals(generator.getSourceFloor(), generator.getDestinationFloor());
+            assertTrue(generator.getDestinationFloor() >= 0 && generator.getDestinationFloor() <= 20);
+            incoming += generator.getSourceFloor() == 0 ? 1 : 0;
+            outgoing += generator.getDestinationFloor() == 0 ? 1 : 0;
+        }
+        assertEquals(0.85, incoming / (double) SAMPLES, 0.01);
+        assertEquals(0.05, outgoing / (double) SAMPLES, 0.01);
+    }
+
+    @Test
+    void testFloorsAreDrawnInProportionToPopulation() {
+        int[] populations = {0, 10, 30, 0, 60};
+        TrafficGenerator generator = new TrafficGenerator(TrafficProfile.UP_PEAK, 0, 0, populations, 600, 2);
+        int[] arrivals = new int[populations.length];
+        int incoming = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            generator.next();
+            if (generator.getSourceFloor() == 0) {
+                arrivals[generator.getDestinationFloor()]++;
+                incoming++;
+            }
+        }
+        assertEquals(0, arrivals[3]);
+        assertEquals(0.1, arrivals[1] / (double) incoming, 0.01);
+        assertEquals(0.3, arrivals[2] / (double) incoming, 0.01);
+        assertEquals(0.6, arrivals[4] / (double) incoming, 0.01);
+    }
+
+    @Test
+    void testArrivalsFollowTheRequestedRate() {
+        TrafficGenerator generator = new TrafficGenerator(TrafficProfile.INTER_FLOOR, 0, 0,
+            TrafficGenerator.uniformPopulation(0, 10, 20), 120, 3);
+        long previous = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            generator.next();
+            assertTrue(generator.getTimestamp() >= previous);
+            previous = generator.getTimestamp();
+        }
+        // 120 per minute is one every 500 ms on average
+        assertEquals(500, previous / (double) SAMPLES, 10);
+    }
+
+    @Test
+    void testSameSeedRegeneratesTheSameWorkload() {
+        TrafficGenerator first = new TrafficGenerator(TrafficProfile.LUNCH, 0, 0,
+            TrafficGenerator.uniformPopulation(0, 10, 20), 60, 4);
+        TrafficGenerator second = new TrafficGenerator(TrafficProfile.LUNCH, 0, 0,
+            TrafficGenerator.uniformPopulation(0, 10, 20), 60, 4);
+        for (int i = 0; i < 1000; i++) {
+            first.next();
+            second.next();
+            assertEquals(first.getTimestamp(), second.getTimestamp());
+            assertEquals(first.getSourceFloor(), second.getSourceFloor());
+            assertEquals(first.getDestinationFloor(), second.getDestinationFloor());
+        }
+    }
+
+    @Test
+    void testFeedsVirtualTimeController() throws InterruptedException {
+        VirtualClock clock = new VirtualClock();
+        ElevatorController simulation = ElevatorController.newSimulation(4, 0, 10, clock);
+        TrafficGenerator generator = new TrafficGenerator(TrafficProfile.DOWN_PEAK, 0, 0,
+            TrafficGenerator.uniformPopulation(0, 10, 20), 30, 5);
+        generator.feed(simulation, 50);
+        clock.advanceBy(600_000);
+
+        assertEquals(50, simulation.getRequestDispatcher().getDispatchedRequests());
+        assertEquals(50, simulation.getMetrics().snapshot().getFleet().getRideTimes().getCount());
+        simulation.shutdown();
+    }
+
+    @Test
+    void testRejectsBuildingsWithoutTwoPopulatedFloors() {
+        assertThrows(IllegalArgumentException.class, () ->
+            new TrafficGenerator(TrafficProfile.UP_PEAK, 0, 0, new int[]{100, 5, 0}, 60, 6));
+    }
+
+    @Test
+    void testRejectsLobbyOutsideTheBuilding() {
+        int[] populations = TrafficGenerator.uniformPopulation(1, 10, 50);
+        assertThrows(IllegalArgumentException.class, () ->
+            new TrafficGenerator(TrafficProfile.UP_PEAK, 1, 0, populations, 60, 7));
+        assertThrows(IllegalArgumentException.class, () ->
+            new TrafficGenerator(TrafficProfile.UP_PEAK, 1, 11, populations, 60, 7));
+    }
+}
@@ -0,0 +1,40 @@
+package com.elevator;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VirtualClockTest {
+
+    @Test
+    void testEventsRunInTimeOrder() {
+        VirtualClock clock = new VirtualClock();
+        List<String> order = new ArrayList<>();
+        clock.schedule(300, () -> order.add("c"));
+        clock.schedule(100, () -> order.add("a"));
+        clock.schedule(100, () -> order.add("b"));
+
+        clock.advanceBy(200);
+        assertEquals(List.of("a", "b"), order);
+        assertEquals(200, clock.currentTimeMillis());
+
+        clock.advanceBy(200);
+        assertEquals(List.of("a", "b", "c"), order);
+        assertEquals(0, clock.getPendingEvents());
+    }
+
+    @Test
+    void testEventsScheduledFromEventsUseEventTime() {
+        VirtualClock clock = new VirtualClock();
+        List<Long> times = new ArrayList<>();
+        clock.schedule(1000, () -> {
+            times.add(clock.currentTimeMillis());
+            clock.schedule(500, () -> times.add(clock.currentTimeMillis()));
+        });
+
+        clock.advanceTo(10_000);
+        assertEquals(List.of(1000L, 1500L), times);
+        assertEquals(10_000, clock.currentTimeMillis());
+    }
+}
@@ -0,0 +1,45 @@
+package com.elevator;
+
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ZoneRouterTest {
+
+    @Test
+    void testRoutesToNarrowestServingZone() {
+        VirtualClock clock = new VirtualClock();
+        ElevatorController lowRise = ElevatorController.newSimulation(2, 0, 10, clock);
+        ElevatorController highRise = ElevatorController.newSimulation(2, 0, 30, clock);
+        ZoneRouter router = new ZoneRouter(List.of(highRise, lowRise));
+
+        assertSame(lowRise, router.route(new Request(0, 5)));
+        assertSame(lowRise, router.route(new Request(10, 0)));
+        assertSame(highRise, router.route(new Request(0, 25)));
+        assertSame(highRise, router.route(new Request(12, 3)));
+        assertNull(router.route(new Request(0, 31)));
+        assertNull(router.route(new Request(-1, 5)));
+        router.shutdown();
+    }
+
+    @Test
+    void testZonesDispatchIndependently() {
+        VirtualClock clock = new VirtualClock();
+        ElevatorController lowRise = ElevatorController.newSimulation(1, 0, 10, clock);
+        ElevatorController highRise = ElevatorController.newSimulation(1, 10, 30, clock);
+        ZoneRouter router = new ZoneRouter(List.of(lowRise, highRise));
+
+        CompletableFuture<Assignment> low = router.submit(new Request(0, 8));
+        CompletableFuture<Assignment> high = router.submit(new Request(10, 25));
+        CompletableFuture<Assignment> unserved = router.submit(new Request(5, 25));
+        clock.advanceBy(60_000);
+
+        assertSame(lowRise.getElevators().get(0), low.join().getElevator());
+        assertSame(highRise.getElevators().get(0), high.join().getElevator());
+        assertTrue(unserved.isCompletedExceptionally());
+        assertEquals(8, lowRise.getElevators().get(0).getCurrentFloor());
+        assertEquals(25, highRise.getElevators().get(0).getCurrentFloor());
+        router.shutdown();
+    }
+}